@@ -0,0 +1,120 @@
+package ai;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for tracking upstream health and failing fast when it is down.
+ *
+ * CLOSED    - requests flow normally; consecutive failures are counted
+ * OPEN      - requests are rejected immediately (offline-only) until the cool-down elapses
+ * HALF_OPEN - a single trial request is let through to probe recovery
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean trialInFlight;
+
+    // Per-state metrics
+    private final Map<State, LongAdder> allowed = new EnumMap<>(State.class);
+    private final Map<State, LongAdder> rejected = new EnumMap<>(State.class);
+    private final Map<State, LongAdder> transitions = new EnumMap<>(State.class);
+
+    public CircuitBreaker(int failureThreshold, long openDurationMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        for (State s : State.values()) {
+            allowed.put(s, new LongAdder());
+            rejected.put(s, new LongAdder());
+            transitions.put(s, new LongAdder());
+        }
+    }
+
+    /**
+     * Ask permission to call the upstream.
+     * Every granted call must be followed by {@link #recordSuccess()} or {@link #recordFailure()}.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openDurationNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+
+        boolean permitted;
+        switch (state) {
+            case CLOSED:
+                permitted = true;
+                break;
+            case HALF_OPEN:
+                permitted = !trialInFlight;
+                trialInFlight = permitted;
+                break;
+            default:
+                permitted = false;
+        }
+
+        (permitted ? allowed : rejected).get(state).increment();
+        return permitted;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (state != State.CLOSED) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    public synchronized void recordFailure() {
+        trialInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            openedAtNanos = System.nanoTime();
+            if (state != State.OPEN) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * Release a granted call that ended without telling us anything about upstream health
+     * (e.g. a 4xx caused by the request itself).
+     */
+    public synchronized void recordIgnored() {
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void transitionTo(State next) {
+        System.out.println("[CircuitBreaker] " + state + " -> " + next);
+        state = next;
+        transitions.get(next).increment();
+    }
+
+    /**
+     * Per-state counters: calls allowed, calls rejected, and transitions into each state.
+     */
+    public synchronized String metrics() {
+        StringBuilder sb = new StringBuilder("state=").append(state);
+        for (State s : State.values()) {
+            sb.append(", ").append(s)
+              .append("{allowed=").append(allowed.get(s).sum())
+              .append(", rejected=").append(rejected.get(s).sum())
+              .append(", entered=").append(transitions.get(s).sum())
+              .append('}');
+        }
+        return sb.toString();
+    }
+}
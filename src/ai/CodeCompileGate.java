@@ -0,0 +1,248 @@
+package ai;
+
+import util.InMemoryJavaCompiler;
+import util.WorkerPools;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for checking that Java code in an AI response compiles before
+ * it is shown.
+ *
+ * Fenced code blocks are compiled in-process by the shared InMemoryJavaCompiler,
+ * whose file manager is reused across requests, so javac's start-up cost is paid
+ * once (ahead of time via {@link #warmUpAsync()}). Results are cached by SHA-256
+ * of the block, so a repeated answer costs a hash lookup.
+ */
+public class CodeCompileGate {
+
+    private static final int CACHE_SIZE = 256;
+    private static final int WARM_UP_COMPILES = 20;
+
+    // ```java ... ``` (or an untagged fence); the language tag is group 1
+    private static final Pattern FENCE = Pattern.compile("```([A-Za-z]*)[^\\n]*\\n(.*?)```", Pattern.DOTALL);
+    private static final Pattern TYPE_DECLARATION = Pattern.compile(
+        "(?m)^\\s*(?:public\\s+|final\\s+|abstract\\s+)*(?:class|interface|enum|record)\\s+\\w+");
+    private static final Pattern PUBLIC_TYPE = Pattern.compile(
+        "(?m)^(?:public\\s+)(?:final\\s+|abstract\\s+)*(?:class|interface|enum|record)\\s+(\\w+)");
+    private static final Pattern PACKAGE = Pattern.compile("(?m)^\\s*package\\s+[\\w.]+\\s*;");
+
+    // Kept on the first line so reported line numbers match the block
+    private static final String IMPORTS =
+        "import java.util.*; import java.util.function.*; import java.util.stream.*; ";
+
+    // LeetCode-style helper types answers often use without declaring
+    private static final String LIST_NODE = "class ListNode { int val; ListNode next; ListNode() {} "
+        + "ListNode(int val) { this.val = val; } ListNode(int val, ListNode next) { this.val = val; this.next = next; } }\n";
+    private static final String TREE_NODE = "class TreeNode { int val; TreeNode left, right; TreeNode() {} "
+        + "TreeNode(int val) { this.val = val; } "
+        + "TreeNode(int val, TreeNode left, TreeNode right) { this.val = val; this.left = left; this.right = right; } }\n";
+
+    private final Map<String, BlockResult> cache = new LinkedHashMap<String, BlockResult>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BlockResult> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private long cacheHits;
+    private long compiles;
+
+    /**
+     * Compile every Java block in a response.
+     */
+    public CodeCheck check(String response) {
+        if (response == null || !InMemoryJavaCompiler.isAvailable()) {
+            return CodeCheck.UNAVAILABLE;
+        }
+        List<String> blocks = extractJavaBlocks(response);
+        if (blocks.isEmpty()) return CodeCheck.NO_CODE;
+
+        long start = System.nanoTime();
+        List<BlockResult> results = new ArrayList<>(blocks.size());
+        for (String block : blocks) {
+            results.add(checkBlock(block));
+        }
+        return new CodeCheck(results, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Compile a throwaway class on a background thread so the first real check
+     * does not pay for loading and JIT-compiling javac.
+     */
+    public static CompletableFuture<Void> warmUpAsync() {
+        if (!InMemoryJavaCompiler.isAvailable()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            // javac keeps getting faster for dozens of compiles as the JIT catches up
+            for (int i = 0; i < WARM_UP_COMPILES; i++) {
+                InMemoryJavaCompiler.shared().compile("WarmUp" + i, IMPORTS + "class WarmUp" + i + " { "
+                    + "int f(int[] a) { Map<Integer, Integer> m = new HashMap<>(); int s = 0; "
+                    + "for (int x : a) { s += x; m.merge(x, 1, Integer::sum); } "
+                    + "return s + m.keySet().stream().mapToInt(x -> x).max().orElse(" + i + "); } }");
+            }
+            // And the diagnostics path, taken by every bare-statement block
+            InMemoryJavaCompiler.shared().compile("WarmUpError", IMPORTS + "class WarmUpError { foo(); }");
+            System.out.println("[CodeCompileGate] Compiler warmed up in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }, runnable -> WorkerPools.threadFactory("compile-gate-warm-up").newThread(runnable).start());
+    }
+
+    public synchronized String getStats() {
+        return "cached=" + cache.size() + ", hits=" + cacheHits + ", compiles=" + compiles;
+    }
+
+    static List<String> extractJavaBlocks(String response) {
+        List<String> blocks = new ArrayList<>();
+        Matcher m = FENCE.matcher(response);
+        while (m.find()) {
+            String language = m.group(1).toLowerCase(Locale.ROOT);
+            String code = m.group(2);
+            boolean looksLikeJava = code.indexOf(';') >= 0 || code.indexOf('{') >= 0;
+            if (language.equals("java") || (language.isEmpty() && looksLikeJava)) {
+                blocks.add(code);
+            }
+        }
+        return blocks;
+    }
+
+    private BlockResult checkBlock(String code) {
+        String key = PromptCoalescer.hash(code);
+        synchronized (this) {
+            BlockResult cached = cache.get(key);
+            if (cached != null) {
+                cacheHits++;
+                return cached;
+            }
+        }
+        BlockResult result = compileBlock(code);
+        synchronized (this) {
+            compiles++;
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Full compilation units compile as-is; bare members are wrapped in a class,
+     * and bare statements in a method, whichever compiles (or errs less).
+     */
+    private static BlockResult compileBlock(String code) {
+        String body = PACKAGE.matcher(code).replaceAll("");
+        if (TYPE_DECLARATION.matcher(body).find()) {
+            Matcher publicType = PUBLIC_TYPE.matcher(body);
+            String unit = publicType.find() ? publicType.group(1) : "Snippet";
+            return compile(unit, IMPORTS + body, body);
+        }
+        BlockResult asMembers = compile("Snippet", IMPORTS + "class Snippet { " + body + "\n}", body);
+        if (asMembers.compiles) return asMembers;
+        BlockResult asStatements = compile("Snippet",
+            IMPORTS + "class Snippet { void run() throws Exception { " + body + "\n} }", body);
+        return asStatements.compiles || asStatements.errors.size() < asMembers.errors.size()
+            ? asStatements : asMembers;
+    }
+
+    private static BlockResult compile(String unit, String source, String body) {
+        Map<String, String> units = new LinkedHashMap<>();
+        units.put(unit, source);
+        StringBuilder helpers = new StringBuilder();
+        if (uses(body, "ListNode")) helpers.append(LIST_NODE);
+        if (uses(body, "TreeNode")) helpers.append(TREE_NODE);
+        if (helpers.length() > 0) units.put("GateHelpers", helpers.toString());
+
+        InMemoryJavaCompiler.Result result = InMemoryJavaCompiler.shared().compile(units);
+        return new BlockResult(result.success, result.errors);
+    }
+
+    private static boolean uses(String body, String type) {
+        return body.contains(type) && !body.matches("(?s).*\\b(class|record)\\s+" + type + "\\b.*");
+    }
+
+    /**
+     * Compile outcome of one code block.
+     */
+    public static final class BlockResult {
+        public final boolean compiles;
+        public final List<String> errors;
+
+        BlockResult(boolean compiles, List<String> errors) {
+            this.compiles = compiles;
+            this.errors = errors;
+        }
+    }
+
+    /**
+     * Compile outcome of a whole response.
+     */
+    public static final class CodeCheck {
+        public enum Status { NO_CODE, UNAVAILABLE, COMPILES, ERRORS }
+
+        static final CodeCheck NO_CODE = new CodeCheck(Status.NO_CODE);
+        static final CodeCheck UNAVAILABLE = new CodeCheck(Status.UNAVAILABLE);
+
+        private static final int ERRORS_SHOWN = 3;
+
+        public final Status status;
+        public final List<BlockResult> blocks;
+        public final long millis;
+
+        private CodeCheck(Status status) {
+            this.status = status;
+            this.blocks = Collections.emptyList();
+            this.millis = 0;
+        }
+
+        CodeCheck(List<BlockResult> blocks, long millis) {
+            boolean allCompile = true;
+            for (BlockResult b : blocks) allCompile &= b.compiles;
+            this.status = allCompile ? Status.COMPILES : Status.ERRORS;
+            this.blocks = Collections.unmodifiableList(blocks);
+            this.millis = millis;
+        }
+
+        /**
+         * One status line (plus the first errors) for the top of a tab, or "" when
+         * there is nothing to report.
+         */
+        public String banner() {
+            switch (status) {
+                case COMPILES:
+                    return "✅ Code compiles (" + plural(blocks.size(), "block") + ", javac)\n\n";
+                case ERRORS:
+                    StringBuilder sb = new StringBuilder();
+                    int failing = 0;
+                    List<String> shown = new ArrayList<>();
+                    for (int i = 0; i < blocks.size(); i++) {
+                        BlockResult b = blocks.get(i);
+                        if (b.compiles) continue;
+                        failing++;
+                        for (String error : b.errors) {
+                            if (shown.size() < ERRORS_SHOWN) {
+                                shown.add("   block " + (i + 1) + ", " + error.split("\n")[0]);
+                            }
+                        }
+                    }
+                    sb.append("⚠ Code does not compile (").append(failing).append(" of ")
+                      .append(plural(blocks.size(), "block")).append(")\n");
+                    for (String line : shown) sb.append(line).append('\n');
+                    return sb.append('\n').toString();
+                default:
+                    return "";
+            }
+        }
+
+        private static String plural(int count, String noun) {
+            return count + " " + noun + (count == 1 ? "" : "s");
+        }
+
+        @Override
+        public String toString() {
+            return status + " (" + blocks.size() + " blocks, " + millis + " ms)";
+        }
+    }
+}
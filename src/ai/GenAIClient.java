@@ -2,76 +2,330 @@ package ai;
 
 import util.ResponseParser;
 import util.InternetConnectivityChecker;
+import util.WorkerPools;
 
-import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.Iterator;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * SOLID - Single Responsibility Principle
  * Responsible ONLY for communicating with GenAI API.
  * Handles offline gracefully by returning empty optional.
+ * The endpoint itself is a pluggable ModelBackend (remote Groq or a local server);
+ * rate limiting, retries and circuit breaking are delegated to
+ * TokenBucketRateLimiter, RetryPolicy and CircuitBreaker.
  */
 public class GenAIClient {
 
-  private static final String API_KEY = System.getenv("GROQ_API_KEY");
-  private static final String API_URL = "https://api.groq.com/openai/v1/chat/completions";
+  private static final String SYSTEM_PROMPT =
+      "You are a senior Java DSA engineer. Generate ONLY clean, complete Java code. Be thorough and complete all sections.";
+
+  private static final long MAX_RATE_LIMIT_WAIT_MS = 5_000;
+  private static final RetryPolicy RETRY_POLICY = new RetryPolicy(3, 500, 8_000);
+  private static final LongAdder RETRIES = new LongAdder();
+
+  private static volatile Channel channel = new Channel(ModelBackends.fromEnvironment());
+
+  private static final ExecutorService AI_EXECUTOR = WorkerPools.newBoundedExecutor("genai-request", 8);
+  private static final PromptCoalescer COALESCER = new PromptCoalescer(GenAIClient::generateCode, AI_EXECUTOR);
+
+  /**
+   * Per-backend connection and resilience state.
+   * Trip 5 consecutive failures to open the circuit for 30 seconds.
+   */
+  private static final class Channel {
+    final ModelBackend backend;
+    final HttpClient httpClient;
+    final TokenBucketRateLimiter rateLimiter;
+    final CircuitBreaker circuitBreaker = new CircuitBreaker(5, 30_000);
+    final Semaphore concurrency;
+
+    Channel(ModelBackend backend) {
+      this.backend = backend;
+      this.httpClient = HttpClient.newBuilder()
+          .connectTimeout(backend.connectTimeout())
+          .build();
+      this.rateLimiter = new TokenBucketRateLimiter(backend.burst(), backend.permitsPerSecond());
+      this.concurrency = new Semaphore(backend.maxConcurrency());
+      System.out.println("[GenAIClient] Using backend " + backend);
+    }
+  }
+
+  /**
+   * Switch to another backend at runtime. Resilience state starts fresh for the new backend.
+   */
+  public static void useBackend(ModelBackend backend) {
+    channel = new Channel(backend);
+  }
+
+  public static ModelBackend getBackend() {
+    return channel.backend;
+  }
+
+  /**
+   * Asynchronous variant of {@link #generateCode(String)}.
+   * Identical prompts issued concurrently share a single upstream call, which is
+   * cancelled once every caller sharing it has cancelled.
+   */
+  public static CompletableFuture<Optional<String>> generateCodeAsync(String finalPrompt) {
+    return COALESCER.submit(finalPrompt);
+  }
 
   /**
-   * Generate code from prompt if internet is available.
-   * Returns empty Optional if offline or API call fails.
+   * Generate code from prompt if the backend is reachable.
+   * Returns empty Optional if offline, the circuit is open, or the API call fails.
+   * Requests are paced by the rate limiter and retried on 429/5xx with jittered backoff.
    */
   public static Optional<String> generateCode(String finalPrompt) {
-    // Check internet connectivity first
-    if (!InternetConnectivityChecker.isInternetAvailable()) {
-      System.out.println("[GenAIClient] No internet connection. Offline mode active.");
+    Channel ch = channel;
+    if (!admit(ch)) {
       return Optional.empty();
     }
+    try {
+      return send(ch, ch.backend.buildRequest(SYSTEM_PROMPT, finalPrompt));
+    } finally {
+      ch.concurrency.release();
+    }
+  }
+
+  /**
+   * Asynchronous variant of {@link #generateCodeStreaming(String, Consumer)}.
+   * Not coalesced: every caller needs its own chunk callbacks. Cancelling the
+   * future interrupts the request, or drops it if it has not started.
+   */
+  public static CompletableFuture<Optional<String>> generateCodeStreamingAsync(String finalPrompt,
+                                                                                Consumer<String> onChunk) {
+    CompletableFuture<Optional<String>> response = new CompletableFuture<>();
+    WorkerPools.completeInterruptibly(response, () -> generateCodeStreaming(finalPrompt, onChunk), AI_EXECUTOR);
+    return response;
+  }
 
-    if (API_KEY == null || API_KEY.isEmpty()) {
-      System.out.println("[GenAIClient] API key not set. Offline mode active.");
+  /**
+   * Like {@link #generateCode(String)}, but text deltas are handed to {@code onChunk}
+   * as the model produces them; the return value is the whole response. Backends
+   * that cannot stream deliver the response as a single chunk.
+   * A request is retried only while nothing has been delivered. If {@code onChunk}
+   * throws CancellationException the stream is abandoned and empty is returned.
+   */
+  public static Optional<String> generateCodeStreaming(String finalPrompt, Consumer<String> onChunk) {
+    Channel ch = channel;
+    if (!admit(ch)) {
       return Optional.empty();
     }
+    try {
+      HttpRequest request = ch.backend.buildStreamingRequest(SYSTEM_PROMPT, finalPrompt);
+      if (request == null) {
+        Optional<String> response = send(ch, ch.backend.buildRequest(SYSTEM_PROMPT, finalPrompt));
+        response.ifPresent(onChunk);
+        return response;
+      }
+      return stream(ch, request, onChunk);
+    } catch (CancellationException e) {
+      return Optional.empty();
+    } finally {
+      ch.concurrency.release();
+    }
+  }
+
+  /**
+   * Configuration, circuit, connectivity and concurrency checks shared by every call.
+   * On true the caller holds a concurrency permit and must release it.
+   */
+  private static boolean admit(Channel ch) {
+    ModelBackend backend = ch.backend;
+
+    if (!backend.isConfigured()) {
+      System.out.println("[GenAIClient] " + backend.name() + " backend not configured (API key not set). Offline mode active.");
+      return false;
+    }
+
+    // Fail fast while the upstream is known to be unhealthy
+    if (!ch.circuitBreaker.allowRequest()) {
+      System.out.println("[GenAIClient] Circuit open. Offline mode active.");
+      return false;
+    }
+
+    // Local backends work air-gapped, only remote ones need the internet
+    if (backend.requiresInternet() && !InternetConnectivityChecker.isInternetAvailable()) {
+      ch.circuitBreaker.recordIgnored();
+      System.out.println("[GenAIClient] No internet connection. Offline mode active.");
+      return false;
+    }
 
     try {
-      String escapedPrompt = escapeJson(finalPrompt);
-
-      String requestBody = "{"
-          + "\"model\":\"llama-3.1-8b-instant\","
-          + "\"messages\":["
-          + " {\"role\":\"system\",\"content\":\"You are a senior Java DSA engineer. Generate ONLY clean, complete Java code. Be thorough and complete all sections.\"},"
-          + " {\"role\":\"user\",\"content\":\"" + escapedPrompt + "\"}"
-          + "],"
-          + "\"temperature\":0.2,"
-          + "\"max_tokens\":2048"
-          + "}";
-
-      HttpRequest request = HttpRequest.newBuilder()
-          .uri(URI.create(API_URL))
-          .header("Content-Type", "application/json")
-          .header("Authorization", "Bearer " + API_KEY)
-          .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-          .build();
+      if (!ch.concurrency.tryAcquire(backend.requestTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+        ch.circuitBreaker.recordIgnored();
+        System.out.println("[GenAIClient] " + backend.name() + " backend busy. Offline mode active.");
+        return false;
+      }
+    } catch (InterruptedException e) {
+      ch.circuitBreaker.recordIgnored();
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    return true;
+  }
 
-      HttpClient client = HttpClient.newHttpClient();
-      HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+  private static Optional<String> send(Channel ch, HttpRequest request) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        if (!ch.rateLimiter.acquire(MAX_RATE_LIMIT_WAIT_MS)) {
+          ch.circuitBreaker.recordIgnored();
+          System.out.println("[GenAIClient] Rate limit exceeded. Offline mode active.");
+          return Optional.empty();
+        }
 
-      String result = ResponseParser.extractGroqCode(response.body());
-      return Optional.of(result);
+        HttpResponse<String> response = ch.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
 
-    } catch (Exception e) {
-      System.err.println("[GenAIClient] Error generating code: " + e.getMessage());
-      return Optional.empty();
+        if (status >= 200 && status < 300) {
+          ch.circuitBreaker.recordSuccess();
+          return Optional.of(ResponseParser.extractGroqCode(response.body()));
+        }
+
+        if (!RetryPolicy.isRetryableStatus(status)) {
+          // Our request is at fault (bad key, bad body), not the upstream
+          ch.circuitBreaker.recordIgnored();
+          System.err.println("[GenAIClient] Request rejected with HTTP " + status);
+          return Optional.empty();
+        }
+
+        ch.circuitBreaker.recordFailure();
+        if (!awaitRetry(ch, attempt, response, "HTTP " + status)) {
+          return Optional.empty();
+        }
+
+      } catch (InterruptedException e) {
+        ch.circuitBreaker.recordIgnored();
+        Thread.currentThread().interrupt();
+        return Optional.empty();
+      } catch (Exception e) {
+        ch.circuitBreaker.recordFailure();
+        if (!awaitRetry(ch, attempt, null, e.getClass().getSimpleName() + ": " + e.getMessage())) {
+          return Optional.empty();
+        }
+      }
+    }
+  }
+
+  /**
+   * Send a streaming request and forward each "data:" event's text delta.
+   * Mirrors {@link #send}, except that once text has been delivered a failure
+   * ends the call with the partial response instead of retrying.
+   */
+  private static Optional<String> stream(Channel ch, HttpRequest request, Consumer<String> onChunk) {
+    for (int attempt = 1; ; attempt++) {
+      StringBuilder full = new StringBuilder();
+      try {
+        if (!ch.rateLimiter.acquire(MAX_RATE_LIMIT_WAIT_MS)) {
+          ch.circuitBreaker.recordIgnored();
+          System.out.println("[GenAIClient] Rate limit exceeded. Offline mode active.");
+          return Optional.empty();
+        }
+
+        HttpResponse<Stream<String>> response = ch.httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+        int status = response.statusCode();
+
+        if (status >= 200 && status < 300) {
+          try (Stream<String> lines = response.body()) {
+            Iterator<String> it = lines.iterator();
+            while (it.hasNext()) {
+              String line = it.next();
+              if (!line.startsWith("data:")) continue;
+              String payload = line.substring(5).trim();
+              if (payload.equals("[DONE]")) break;
+              String delta = ResponseParser.extractStreamDelta(payload);
+              if (delta != null && !delta.isEmpty()) {
+                full.append(delta);
+                onChunk.accept(delta);
+              }
+            }
+          }
+          ch.circuitBreaker.recordSuccess();
+          return Optional.of(full.toString());
+        }
+
+        response.body().close();
+        if (!RetryPolicy.isRetryableStatus(status)) {
+          ch.circuitBreaker.recordIgnored();
+          System.err.println("[GenAIClient] Request rejected with HTTP " + status);
+          return Optional.empty();
+        }
+
+        ch.circuitBreaker.recordFailure();
+        if (!awaitRetry(ch, attempt, response, "HTTP " + status)) {
+          return Optional.empty();
+        }
+
+      } catch (CancellationException e) {
+        ch.circuitBreaker.recordIgnored();
+        throw e;
+      } catch (InterruptedException e) {
+        ch.circuitBreaker.recordIgnored();
+        Thread.currentThread().interrupt();
+        return Optional.empty();
+      } catch (Exception e) {
+        ch.circuitBreaker.recordFailure();
+        String reason = e.getClass().getSimpleName() + ": " + e.getMessage();
+        if (full.length() > 0) {
+          System.err.println("[GenAIClient] Stream broke after " + full.length() + " chars: " + reason);
+          return Optional.of(full.toString());
+        }
+        if (!awaitRetry(ch, attempt, null, reason)) {
+          return Optional.empty();
+        }
+      }
+    }
+  }
+
+  /**
+   * Sleep before the next attempt if the retry budget and the circuit breaker allow it.
+   *
+   * @return true if the caller should send the request again
+   */
+  private static boolean awaitRetry(Channel ch, int attempt, HttpResponse<?> response, String reason) {
+    if (attempt >= RETRY_POLICY.getMaxAttempts()) {
+      System.err.println("[GenAIClient] Giving up after " + attempt + " attempts: " + reason);
+      return false;
     }
+    long delay = RETRY_POLICY.delayMillis(attempt, response);
+    if (delay < 0) {
+      System.err.println("[GenAIClient] Server asked to retry later than allowed: " + reason);
+      return false;
+    }
+    try {
+      Thread.sleep(delay);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    if (!ch.circuitBreaker.allowRequest()) {
+      System.out.println("[GenAIClient] Circuit opened during retries. Offline mode active.");
+      return false;
+    }
+    RETRIES.increment();
+    System.out.println("[GenAIClient] Retry " + attempt + " after " + delay + " ms (" + reason + ")");
+    return true;
   }
 
-  private static String escapeJson(String text) {
-    return text
-        .replace("\\", "\\\\")
-        .replace("\"", "\\\"")
-        .replace("\n", "\\n")
-        .replace("\r", "");
+  /**
+   * Snapshot of rate limiter, retry and per-state circuit breaker counters.
+   */
+  public static String getResilienceMetrics() {
+    Channel ch = channel;
+    return "backend=" + ch.backend.name()
+        + ", rateLimiter{" + ch.rateLimiter.metrics() + "}, retries=" + RETRIES.sum()
+        + ", circuitBreaker{" + ch.circuitBreaker.metrics() + "}";
   }
 }
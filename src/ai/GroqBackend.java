@@ -0,0 +1,46 @@
+package ai;
+
+import util.Settings;
+
+import java.time.Duration;
+
+/**
+ * Remote adapter for the hosted Groq API (default backend).
+ *
+ * Environment:
+ * GROQ_API_KEY            - required
+ * GROQ_API_URL            - endpoint override
+ * GROQ_MODEL              - default llama-3.1-8b-instant
+ * GROQ_MAX_CONCURRENCY    - default 4
+ * GROQ_MAX_TOKENS         - default 2048
+ * GROQ_TIMEOUT_SECONDS    - default 30
+ */
+public class GroqBackend extends OpenAICompatibleBackend {
+
+    public GroqBackend() {
+        super("groq",
+            Settings.setting("GROQ_API_URL", "https://api.groq.com/openai/v1/chat/completions"),
+            Settings.setting("GROQ_MODEL", "llama-3.1-8b-instant"),
+            System.getenv("GROQ_API_KEY"),
+            Settings.intSetting("GROQ_MAX_CONCURRENCY", 4),
+            Duration.ofSeconds(Settings.intSetting("GROQ_TIMEOUT_SECONDS", 30)),
+            Settings.intSetting("GROQ_MAX_TOKENS", 2048));
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return hasApiKey();
+    }
+
+    @Override
+    public boolean requiresInternet() {
+        return true;
+    }
+
+    // ~30 requests/minute with bursts of 5, matching the hosted free tier
+    @Override
+    public double permitsPerSecond() { return 0.5; }
+
+    @Override
+    public int burst() { return 5; }
+}
@@ -0,0 +1,52 @@
+package ai;
+
+import util.Settings;
+
+import java.time.Duration;
+
+/**
+ * Local adapter for an OpenAI-compatible inference server on this machine
+ * (llama.cpp server, Ollama, vLLM, LM Studio, ...). Works fully air-gapped.
+ *
+ * Environment:
+ * LOCAL_MODEL_URL              - default http://localhost:8080/v1/chat/completions
+ * LOCAL_MODEL_NAME             - default "local-model"
+ * LOCAL_MODEL_API_KEY          - optional, for servers that require one
+ * LOCAL_MODEL_MAX_CONCURRENCY  - default 1 (local inference is usually serial)
+ * LOCAL_MODEL_MAX_TOKENS       - default 2048
+ * LOCAL_MODEL_TIMEOUT_SECONDS  - default 120 (CPU inference is slow)
+ */
+public class LocalModelBackend extends OpenAICompatibleBackend {
+
+    public LocalModelBackend() {
+        super("local",
+            Settings.setting("LOCAL_MODEL_URL", "http://localhost:8080/v1/chat/completions"),
+            Settings.setting("LOCAL_MODEL_NAME", "local-model"),
+            System.getenv("LOCAL_MODEL_API_KEY"),
+            Settings.intSetting("LOCAL_MODEL_MAX_CONCURRENCY", 1),
+            Duration.ofSeconds(Settings.intSetting("LOCAL_MODEL_TIMEOUT_SECONDS", 120)),
+            Settings.intSetting("LOCAL_MODEL_MAX_TOKENS", 2048));
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return true;
+    }
+
+    @Override
+    public boolean requiresInternet() {
+        return false;
+    }
+
+    @Override
+    public Duration connectTimeout() {
+        return Duration.ofSeconds(1);
+    }
+
+    // Concurrency is bounded by maxConcurrency; the limiter only guards against runaway loops
+    @Override
+    public double permitsPerSecond() { return 10; }
+
+    @Override
+    public int burst() { return 10; }
+}
@@ -0,0 +1,63 @@
+package ai;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+/**
+ * SOLID - Dependency Inversion Principle
+ * Abstraction over the LLM endpoint GenAIClient talks to.
+ * Implementations own the URL, model, auth and request body; GenAIClient owns
+ * connectivity checks, rate limiting, retries and circuit breaking.
+ */
+public interface ModelBackend {
+
+    /**
+     * Short identifier used in logs and for selection (e.g. "groq", "local").
+     */
+    String name();
+
+    /**
+     * Build the HTTP request for a chat completion.
+     *
+     * @param systemPrompt Instructions for the model
+     * @param userPrompt Prompt built by PromptBuilder
+     */
+    HttpRequest buildRequest(String systemPrompt, String userPrompt);
+
+    /**
+     * Same request, answered as a server-sent event stream of text deltas,
+     * or null if the backend cannot stream.
+     */
+    default HttpRequest buildStreamingRequest(String systemPrompt, String userPrompt) {
+        return null;
+    }
+
+    /**
+     * Whether the backend has everything it needs (e.g. an API key).
+     */
+    boolean isConfigured();
+
+    /**
+     * Whether a call needs the public internet. Local backends skip the connectivity check.
+     */
+    boolean requiresInternet();
+
+    /**
+     * Maximum number of requests in flight against this backend.
+     */
+    int maxConcurrency();
+
+    Duration connectTimeout();
+
+    Duration requestTimeout();
+
+    /**
+     * Sustained request rate allowed by the rate limiter.
+     */
+    double permitsPerSecond();
+
+    /**
+     * Burst size allowed by the rate limiter.
+     */
+    int burst();
+}
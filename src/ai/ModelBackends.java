@@ -0,0 +1,27 @@
+package ai;
+
+import util.Settings;
+
+/**
+ * Factory for ModelBackend implementations.
+ * Selection: DSA_AI_BACKEND = groq (default) | local
+ * Every setting can be given as an environment variable or a -D system property of the same name.
+ */
+public class ModelBackends {
+
+    public static ModelBackend fromEnvironment() {
+        return byName(Settings.setting("DSA_AI_BACKEND", "groq"));
+    }
+
+    public static ModelBackend byName(String name) {
+        switch (name.trim().toLowerCase()) {
+            case "local":
+                return new LocalModelBackend();
+            case "groq":
+                return new GroqBackend();
+            default:
+                System.err.println("[ModelBackends] Unknown backend '" + name + "', using groq");
+                return new GroqBackend();
+        }
+    }
+}
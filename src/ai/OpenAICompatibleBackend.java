@@ -0,0 +1,101 @@
+package ai;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+/**
+ * Template Method - shared request construction for any server that speaks the
+ * OpenAI chat completions protocol. Subclasses provide endpoint, model and limits.
+ */
+public abstract class OpenAICompatibleBackend implements ModelBackend {
+
+    private final String name;
+    private final String endpoint;
+    private final String model;
+    private final String apiKey;
+    private final int maxConcurrency;
+    private final Duration requestTimeout;
+    private final int maxTokens;
+
+    protected OpenAICompatibleBackend(String name, String endpoint, String model, String apiKey,
+                                      int maxConcurrency, Duration requestTimeout, int maxTokens) {
+        this.name = name;
+        this.endpoint = endpoint;
+        this.model = model;
+        this.apiKey = apiKey;
+        this.maxConcurrency = maxConcurrency;
+        this.requestTimeout = requestTimeout;
+        this.maxTokens = maxTokens;
+    }
+
+    @Override
+    public String name() { return name; }
+
+    public String getEndpoint() { return endpoint; }
+
+    public String getModel() { return model; }
+
+    public int getMaxTokens() { return maxTokens; }
+
+    @Override
+    public int maxConcurrency() { return maxConcurrency; }
+
+    @Override
+    public Duration requestTimeout() { return requestTimeout; }
+
+    @Override
+    public Duration connectTimeout() { return Duration.ofSeconds(5); }
+
+    protected boolean hasApiKey() {
+        return apiKey != null && !apiKey.isEmpty();
+    }
+
+    @Override
+    public HttpRequest buildRequest(String systemPrompt, String userPrompt) {
+        return buildRequest(systemPrompt, userPrompt, false);
+    }
+
+    @Override
+    public HttpRequest buildStreamingRequest(String systemPrompt, String userPrompt) {
+        return buildRequest(systemPrompt, userPrompt, true);
+    }
+
+    private HttpRequest buildRequest(String systemPrompt, String userPrompt, boolean stream) {
+        String requestBody = "{"
+            + "\"model\":\"" + escapeJson(model) + "\","
+            + "\"messages\":["
+            + " {\"role\":\"system\",\"content\":\"" + escapeJson(systemPrompt) + "\"},"
+            + " {\"role\":\"user\",\"content\":\"" + escapeJson(userPrompt) + "\"}"
+            + "],"
+            + "\"temperature\":0.2,"
+            + "\"max_tokens\":" + maxTokens
+            + (stream ? ",\"stream\":true" : "")
+            + "}";
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+            .uri(URI.create(endpoint))
+            .timeout(requestTimeout)
+            .header("Content-Type", "application/json")
+            .header("Accept", stream ? "text/event-stream" : "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(requestBody));
+        if (hasApiKey()) {
+            builder.header("Authorization", "Bearer " + apiKey);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + model + " @ " + endpoint + ")";
+    }
+
+    static String escapeJson(String text) {
+        return text
+            .replace("\\", "\\\\")
+            .replace("\"", "\\\"")
+            .replace("\n", "\\n")
+            .replace("\r", "")
+            .replace("\t", "\\t");
+    }
+}
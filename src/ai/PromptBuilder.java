@@ -2,20 +2,25 @@ package ai;
 
 import java.util.List;
 import pattern.DSAPattern;
+import util.Settings;
 
 /**
  * SOLID - Single Responsibility Principle
  * Responsible ONLY for constructing AI prompts from patterns and user input.
+ * Templates are compiled once; the pattern template is fitted to a token budget
+ * (DSA_PROMPT_TEMPLATE_TOKENS, default 800) before it is inlined.
  */
 public class PromptBuilder {
 
-    public static String buildPrompt(String userInput, List<String> hints) {
-        return """
+    private static final int TEMPLATE_TOKEN_BUDGET =
+            Settings.intSetting("DSA_PROMPT_TEMPLATE_TOKENS", 800);
+
+    private static final PromptTemplate SOLUTION_PROMPT = PromptTemplate.compile("""
                 PROBLEM STATEMENT:
-                %s
+                {{userInput}}
                 
                 SUGGESTED DSA APPROACHES:
-                %s
+                {{hints}}
                 
                 GENERATE A COMPLETE SOLUTION:
                 1. Write full, working Java code that solves the problem
@@ -26,20 +31,13 @@ public class PromptBuilder {
                 6. Make it production-ready and copy-paste ready
                 
                 Format: Provide only the complete Java solution code. No explanations, just the code.
-                """.formatted(userInput, hints);
-    }
+                """);
 
-    /**
-     * Build prompt from offline pattern.
-     * Instructs AI to provide COMPLETE solution with clear formatting.
-     * Optimized for beginner-friendly explanations and complete responses.
-     */
-    public static String buildPatternAugmentationPrompt(String userInput, DSAPattern pattern) {
-        return """
-                PROBLEM: %s
-                PATTERN: %s (%s)
+    private static final PromptTemplate AUGMENTATION_PROMPT = PromptTemplate.compile("""
+                PROBLEM: {{userInput}}
+                PATTERN: {{key}} ({{category}})
                 BASE TEMPLATE:
-                %s
+                {{template}}
                 
                 GENERATE EXACTLY THIS FORMAT (complete and thorough):
                 
@@ -56,7 +54,20 @@ public class PromptBuilder {
                 Show 1-2 similar problems or variations you can solve with this pattern.
                 
                 Make your response COMPLETE and detailed in each section. No truncation.
-                """.formatted(userInput, pattern.getKey(), pattern.getCategory(), 
-                             pattern.getJavaTemplate());
+                """);
+
+    public static String buildPrompt(String userInput, List<String> hints) {
+        return SOLUTION_PROMPT.render(userInput, String.valueOf(hints));
+    }
+
+    /**
+     * Build prompt from offline pattern.
+     * Instructs AI to provide COMPLETE solution with clear formatting.
+     * Optimized for beginner-friendly explanations and complete responses.
+     * Oversized pattern templates are summarized or truncated to the token budget.
+     */
+    public static String buildPatternAugmentationPrompt(String userInput, DSAPattern pattern) {
+        return AUGMENTATION_PROMPT.render(userInput, pattern.getKey(), pattern.getCategory(),
+                TokenBudget.fitTemplate(pattern.getJavaTemplate(), TEMPLATE_TOKEN_BUDGET));
     }
 }
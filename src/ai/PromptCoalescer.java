@@ -0,0 +1,112 @@
+package ai;
+
+import util.WorkerPools;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for collapsing identical concurrent AI prompts (single-flight).
+ * The first caller for a prompt starts the upstream call; every concurrent caller
+ * with the same prompt hash receives the same in-flight future.
+ * Subscribers are counted: when the last one cancels, the upstream call is
+ * cancelled too, which interrupts it or keeps it from starting.
+ */
+public class PromptCoalescer {
+
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Function<String, Optional<String>> generator;
+    private final Executor executor;
+
+    public PromptCoalescer(Function<String, Optional<String>> generator, Executor executor) {
+        this.generator = generator;
+        this.executor = executor;
+    }
+
+    /**
+     * Submit a prompt. Returns the shared future if an identical prompt is already in flight.
+     * The entry is removed as soon as the call completes, so later callers trigger a fresh request.
+     * Each caller gets its own dependent copy, so cancelling one does not cancel the others;
+     * cancelling the last one still waiting cancels the upstream call.
+     */
+    public CompletableFuture<Optional<String>> submit(String prompt) {
+        String key = hash(prompt);
+        while (true) {
+            Flight created = new Flight();
+            Flight existing = inFlight.putIfAbsent(key, created);
+            Flight flight = existing != null ? existing : created;
+            CompletableFuture<Optional<String>> copy = flight.subscribe();
+            if (copy == null) {
+                // Every subscriber left and the call was cancelled: start a fresh one
+                inFlight.remove(key, flight);
+                continue;
+            }
+            if (existing == null) {
+                created.upstream.whenComplete((response, error) -> inFlight.remove(key, created));
+                WorkerPools.completeInterruptibly(created.upstream, () -> generator.apply(prompt), executor);
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * One upstream call and the number of callers still waiting for it.
+     */
+    private static final class Flight {
+        final CompletableFuture<Optional<String>> upstream = new CompletableFuture<>();
+        private int subscribers;    // guarded by this
+
+        /**
+         * A copy of the upstream future for one more caller, or null if the call
+         * was already cancelled.
+         */
+        synchronized CompletableFuture<Optional<String>> subscribe() {
+            if (upstream.isCancelled()) return null;
+            subscribers++;
+            CompletableFuture<Optional<String>> copy = upstream.copy();
+            copy.whenComplete((response, error) -> {
+                if (copy.isCancelled()) unsubscribe();
+            });
+            return copy;
+        }
+
+        // Cancel under the lock, so no caller can subscribe to a call about to be cancelled
+        private synchronized void unsubscribe() {
+            if (--subscribers == 0) upstream.cancel(true);
+        }
+    }
+
+    /**
+     * Number of distinct prompts currently in flight.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * SHA-256 of the prompt, so keys stay small and collisions are not a practical concern.
+     */
+    static String hash(String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(prompt.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every JVM; fall back to the raw prompt just in case
+            return prompt;
+        }
+    }
+}
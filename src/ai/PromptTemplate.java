@@ -0,0 +1,82 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A prompt template compiled once into static segments and variable slots.
+ * Slots are written as {{name}} in the source text and filled positionally at render time,
+ * so rendering is a single pass of appends into a reused, presized builder.
+ */
+public class PromptTemplate {
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    private final String[] segments;   // segments.length == slots.length + 1
+    private final String[] slots;
+    private final int staticLength;
+
+    private PromptTemplate(String[] segments, String[] slots) {
+        this.segments = segments;
+        this.slots = slots;
+        int length = 0;
+        for (String segment : segments) {
+            length += segment.length();
+        }
+        this.staticLength = length;
+    }
+
+    /**
+     * Split the template text on {{slot}} markers.
+     */
+    public static PromptTemplate compile(String text) {
+        List<String> segments = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            int open = text.indexOf("{{", pos);
+            int close = open < 0 ? -1 : text.indexOf("}}", open + 2);
+            if (open < 0 || close < 0) {
+                segments.add(text.substring(pos));
+                break;
+            }
+            segments.add(text.substring(pos, open));
+            slots.add(text.substring(open + 2, close).trim());
+            pos = close + 2;
+        }
+        return new PromptTemplate(segments.toArray(new String[0]), slots.toArray(new String[0]));
+    }
+
+    /**
+     * Render with values in slot order. Null values render as empty.
+     */
+    public String render(String... values) {
+        if (values.length != slots.length) {
+            throw new IllegalArgumentException("Expected " + slots.length + " values for slots "
+                + String.join(", ", slots) + " but got " + values.length);
+        }
+
+        int variableLength = 0;
+        for (String value : values) {
+            variableLength += value == null ? 0 : value.length();
+        }
+
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        sb.ensureCapacity(staticLength + variableLength);
+        for (int i = 0; i < slots.length; i++) {
+            sb.append(segments[i]);
+            if (values[i] != null) {
+                sb.append(values[i]);
+            }
+        }
+        sb.append(segments[slots.length]);
+
+        String rendered = sb.toString();
+        // Don't let one oversized prompt pin a huge buffer to the thread
+        if (sb.capacity() > 64 * 1024) {
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+}
@@ -0,0 +1,52 @@
+package ai;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * The sections PromptBuilder's augmentation prompt asks for, in prompt order,
+ * each shown in its own tab.
+ */
+public enum ResponseSection {
+    SOLUTION("💡 Solution", "COMPLETE SOLUTION", "SOLUTION"),
+    WALKTHROUGH("🚶 Walkthrough", "STEP-BY-STEP WALKTHROUGH", "WALKTHROUGH"),
+    INSIGHTS("🔑 Key Insights", "KEY INSIGHTS", "KEY INSIGHT", "INSIGHTS"),
+    FOLLOW_UPS("🔁 Follow-ups", "FOLLOW-UP VARIANTS", "FOLLOW-UP QUESTIONS", "FOLLOW-UPS", "FOLLOW-UP",
+        "FOLLOW UPS", "VARIANTS");
+
+    private static final Pattern NUMBERING = Pattern.compile("^\\d+[.)]\\s*");
+
+    private final String tabTitle;
+    private final String[] titles;    // whole titles a header may use
+
+    ResponseSection(String tabTitle, String... titles) {
+        this.tabTitle = tabTitle;
+        this.titles = titles;
+    }
+
+    public String tabTitle() {
+        return tabTitle;
+    }
+
+    /**
+     * Section a header title names, or null. The title must start with a known
+     * section title (after an optional "1." numbering) and may only go on with a
+     * qualifier, e.g. "WALKTHROUGH (BEGINNER-FRIENDLY)" or "Solution: two pointers";
+     * "Brute-force solution" or "Follow the pointers" name no section.
+     */
+    public static ResponseSection fromTitle(String title) {
+        String upper = NUMBERING.matcher(title.trim().toUpperCase(Locale.ROOT)).replaceFirst("");
+        for (ResponseSection section : values()) {
+            for (String known : section.titles) {
+                if (upper.startsWith(known) && isQualifier(upper.substring(known.length()))) return section;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isQualifier(String rest) {
+        String trimmed = rest.trim();
+        return trimmed.isEmpty() || trimmed.startsWith("(") || trimmed.startsWith(":")
+            || (rest.startsWith(" ") && (trimmed.startsWith("- ") || trimmed.startsWith("— ")));
+    }
+}
@@ -0,0 +1,78 @@
+package ai;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for deciding whether and when a failed AI request is retried.
+ * Uses exponential backoff with full jitter and honors the server's Retry-After header.
+ */
+public class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * 429 (rate limited) and 5xx (server side) are worth retrying; other statuses are final.
+     */
+    public static boolean isRetryableStatus(int status) {
+        return status == 429 || (status >= 500 && status <= 599);
+    }
+
+    /**
+     * Delay before the next attempt.
+     *
+     * @param attempt 1-based number of the attempt that just failed
+     * @param response The failed response, or null if the request threw
+     * @return Delay in millis, or -1 if the server asked us to wait longer than we are willing to
+     */
+    public long delayMillis(int attempt, HttpResponse<?> response) {
+        if (response != null) {
+            Optional<Long> retryAfter = parseRetryAfter(response);
+            if (retryAfter.isPresent()) {
+                return retryAfter.get() <= maxDelayMillis ? retryAfter.get() : -1;
+            }
+        }
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Retry-After is either delta-seconds or an HTTP-date.
+     */
+    static Optional<Long> parseRetryAfter(HttpResponse<?> response) {
+        Optional<String> header = response.headers().firstValue("Retry-After");
+        if (header.isEmpty()) {
+            return Optional.empty();
+        }
+        String value = header.get().trim();
+        try {
+            return Optional.of(Math.max(0, Long.parseLong(value)) * 1000);
+        } catch (NumberFormatException ignored) {
+            // Not delta-seconds, try HTTP-date
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Optional.of(Math.max(0, Duration.between(ZonedDateTime.now(at.getZone()), at).toMillis()));
+        } catch (DateTimeParseException ignored) {
+            return Optional.empty();
+        }
+    }
+}
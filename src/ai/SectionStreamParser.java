@@ -0,0 +1,140 @@
+package ai;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for splitting a streamed AI response into its sections as the
+ * chunks arrive.
+ *
+ * A state machine over characters: text is passed on as soon as it cannot be part
+ * of a section header, so a section fills in while the model is still writing it.
+ * Only a line that may still turn into a header ("===", "##", "**" so far) is held
+ * back until its newline. Headers are recognised in the prompt's "=== TITLE ==="
+ * form and, because models drift, as "## Title" or "**Title**" lines, when the
+ * title is a whole known section title (ResponseSection.fromTitle), not merely one
+ * containing a section's word. A section is entered once: a later header naming
+ * it again is ordinary text. Nothing inside a ``` code fence is taken for a header.
+ *
+ * Not thread-safe: feed chunks from one thread, in order.
+ */
+public class SectionStreamParser {
+
+    /**
+     * Receives parser output on the feeding thread.
+     */
+    public interface Listener {
+        /**
+         * More text for a section; {@code section} is null for text outside any
+         * recognised section (e.g. a preamble, or a response without headers).
+         */
+        void onText(ResponseSection section, String text);
+
+        /**
+         * The section is complete: another header started or the stream ended.
+         */
+        void onSectionEnd(ResponseSection section);
+    }
+
+    private static final int MAX_HEADER_LENGTH = 120;
+
+    private static final Pattern BANNER_HEADER = Pattern.compile("^={2,}\\s*(.+?)\\s*={2,}$");
+    private static final Pattern MARKDOWN_HEADER = Pattern.compile("^#{1,4}\\s+(.+?)\\s*#*$");
+    private static final Pattern BOLD_HEADER = Pattern.compile("^\\*\\*(.+?)\\*\\*:?$");
+
+    private enum State { TEXT, CODE }
+
+    private final Listener listener;
+    private final StringBuilder line = new StringBuilder();
+    private State state = State.TEXT;
+    private ResponseSection current;
+    private final Set<ResponseSection> entered = EnumSet.noneOf(ResponseSection.class);
+    private boolean sectionHasText;
+    private int emitted;        // chars of the current line already passed on
+    private boolean finished;
+
+    public SectionStreamParser(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Consume the next chunk of the response.
+     */
+    public void feed(CharSequence chunk) {
+        if (finished) throw new IllegalStateException("Parser already finished");
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (c == '\n') {
+                endLine();
+            } else if (c != '\r') {
+                line.append(c);
+            }
+        }
+        if (line.length() > emitted && !mayBeHeader()) {
+            emit(line.substring(emitted));
+            emitted = line.length();
+        }
+    }
+
+    /**
+     * End of stream: flush the last line and close the open section.
+     */
+    public void finish() {
+        if (finished) return;
+        if (line.length() > 0) endLine();
+        finished = true;
+        if (current != null) listener.onSectionEnd(current);
+    }
+
+    public ResponseSection currentSection() {
+        return current;
+    }
+
+    private void endLine() {
+        String text = line.toString();
+        String trimmed = text.trim();
+        if (trimmed.startsWith("```")) {
+            state = state == State.CODE ? State.TEXT : State.CODE;
+        }
+
+        ResponseSection header = emitted == 0 && state == State.TEXT ? header(trimmed) : null;
+        if (header != null && entered.add(header)) {
+            if (current != null) listener.onSectionEnd(current);
+            current = header;
+            sectionHasText = false;
+        } else if (sectionHasText || !trimmed.isEmpty() || emitted > 0) {
+            // Blank lines right after a header are dropped
+            emit(text.substring(emitted) + "\n");
+        }
+        line.setLength(0);
+        emitted = 0;
+    }
+
+    private void emit(String text) {
+        if (text.isEmpty()) return;
+        sectionHasText = true;
+        listener.onText(current, text);
+    }
+
+    // Whether the unfinished line could still turn out to be a header
+    private boolean mayBeHeader() {
+        if (emitted > 0 || state == State.CODE || line.length() > MAX_HEADER_LENGTH) return false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (Character.isWhitespace(c)) continue;
+            return c == '=' || c == '#' || c == '*' || c == '`';
+        }
+        return true;    // only whitespace so far
+    }
+
+    private static ResponseSection header(String trimmed) {
+        if (trimmed.length() < 4 || trimmed.length() > MAX_HEADER_LENGTH) return null;
+        Matcher m = BANNER_HEADER.matcher(trimmed);
+        if (!m.matches()) m = MARKDOWN_HEADER.matcher(trimmed);
+        if (!m.matches()) m = BOLD_HEADER.matcher(trimmed);
+        return m.matches() ? ResponseSection.fromTitle(m.group(1)) : null;
+    }
+}
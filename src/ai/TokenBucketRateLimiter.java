@@ -0,0 +1,76 @@
+package ai;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for pacing outgoing AI requests with a token bucket.
+ * Bursts up to the bucket capacity are allowed; sustained load is held to the refill rate.
+ */
+public class TokenBucketRateLimiter {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param capacity Maximum burst size
+     * @param permitsPerSecond Sustained refill rate
+     */
+    public TokenBucketRateLimiter(int capacity, double permitsPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Take one permit, waiting at most {@code maxWaitMillis} for the bucket to refill.
+     *
+     * @return true if a permit was granted, false if it would not be available in time
+     */
+    public boolean acquire(long maxWaitMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        boolean waited = false;
+        while (true) {
+            long waitNanos = tryAcquire();
+            if (waitNanos == 0) {
+                granted.increment();
+                if (waited) delayed.increment();
+                return true;
+            }
+            if (System.nanoTime() + waitNanos > deadline) {
+                rejected.increment();
+                return false;
+            }
+            waited = true;
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Take a permit if one is available.
+     *
+     * @return 0 on success, otherwise the nanoseconds until the next permit is due
+     */
+    private synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1.0 - tokens) / refillPerNano));
+    }
+
+    public String metrics() {
+        return "granted=" + granted.sum() + ", delayed=" + delayed.sum() + ", rejected=" + rejected.sum();
+    }
+}
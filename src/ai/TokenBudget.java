@@ -0,0 +1,139 @@
+package ai;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for estimating prompt size in tokens and fitting text into a budget.
+ *
+ * The estimate mimics BPE tokenizers on code: every run of letters/digits costs about
+ * one token per four characters, every punctuation character costs one token and
+ * whitespace is mostly free. It errs on the high side, which is what a budget wants.
+ */
+public class TokenBudget {
+
+    private static final String TRUNCATION_MARKER = "// ... template truncated to fit the prompt budget (%d more lines)";
+
+    /**
+     * Estimate the token count of a piece of text.
+     */
+    public static int estimateTokens(CharSequence text) {
+        if (text == null) return 0;
+        int tokens = 0;
+        int wordLength = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '_') {
+                wordLength++;
+                continue;
+            }
+            if (wordLength > 0) {
+                tokens += (wordLength + 3) / 4;
+                wordLength = 0;
+            }
+            if (c == '\n') {
+                tokens++;
+            } else if (!Character.isWhitespace(c)) {
+                tokens++;
+            }
+        }
+        if (wordLength > 0) {
+            tokens += (wordLength + 3) / 4;
+        }
+        return tokens;
+    }
+
+    /**
+     * Fit a code template into {@code maxTokens}.
+     * First summarizes (drops comment-only and blank lines, strips trailing whitespace),
+     * then truncates at a line boundary and leaves a marker so the model knows code is missing.
+     */
+    public static String fitTemplate(String template, int maxTokens) {
+        if (template == null || template.isEmpty() || estimateTokens(template) <= maxTokens) {
+            return template;
+        }
+
+        String summarized = summarize(template);
+        if (estimateTokens(summarized) <= maxTokens) {
+            return summarized;
+        }
+
+        String[] lines = summarized.split("\n", -1);
+        int budget = maxTokens - estimateTokens(String.format(TRUNCATION_MARKER, lines.length));
+        StringBuilder sb = new StringBuilder(summarized.length());
+        int used = 0;
+        int kept = 0;
+        for (String line : lines) {
+            int cost = estimateTokens(line) + 1;
+            if (used + cost > budget) break;
+            sb.append(line).append('\n');
+            used += cost;
+            kept++;
+        }
+        sb.append(String.format(TRUNCATION_MARKER, lines.length - kept));
+        return sb.toString();
+    }
+
+    /**
+     * Remove text that costs tokens but carries little signal for the model: blank
+     * lines, // comment lines and block comment spans. Code sharing a line with a
+     * block comment, before it opens or after it closes, is kept.
+     */
+    private static String summarize(String template) {
+        StringBuilder sb = new StringBuilder(template.length());
+        StringBuilder code = new StringBuilder();
+        boolean inBlockComment = false;
+        for (String line : template.split("\n")) {
+            code.setLength(0);
+            inBlockComment = stripBlockComments(line, inBlockComment, code);
+            String kept = code.toString().stripTrailing();
+            String trimmed = kept.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("//")) {
+                continue;
+            }
+            sb.append(kept).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Append the parts of {@code line} outside block comments to {@code code}.
+     * Comment markers inside string or char literals, or after //, are not markers.
+     *
+     * @return whether a block comment is still open at the end of the line
+     */
+    private static boolean stripBlockComments(String line, boolean inComment, StringBuilder code) {
+        char quote = 0;
+        int i = 0;
+        while (i < line.length()) {
+            if (inComment) {
+                int end = line.indexOf("*/", i);
+                if (end < 0) return true;
+                inComment = false;
+                i = end + 2;
+                continue;
+            }
+            char c = line.charAt(i);
+            char next = i + 1 < line.length() ? line.charAt(i + 1) : 0;
+            if (quote != 0) {
+                if (c == '\\' && next != 0) {
+                    code.append(c);
+                    c = next;
+                    i++;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '/' && next == '/') {
+                code.append(line, i, line.length());
+                return false;
+            } else if (c == '/' && next == '*') {
+                inComment = true;
+                i += 2;
+                continue;
+            }
+            code.append(c);
+            i++;
+        }
+        return inComment;
+    }
+}
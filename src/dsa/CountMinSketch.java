@@ -0,0 +1,59 @@
+package dsa;
+
+/**
+ * Count-min sketch over long items: fixed memory, estimates never undercount.
+ * Uses conservative update (only the minimum counters are raised), which keeps
+ * overestimation low for skewed streams such as accepted suggestions.
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final int[] table;
+    private final long[] seeds;
+    private long total;
+
+    /**
+     * @param width Counters per row (rounded up to a power of two); error ~ total / width
+     * @param depth Number of rows; failure probability ~ 2^-depth
+     */
+    public CountMinSketch(int width, int depth) {
+        this.width = Integer.highestOneBit(Math.max(2, width) - 1) << 1;
+        this.depth = depth;
+        this.table = new int[this.width * depth];
+        this.seeds = new long[depth];
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int row = 0; row < depth; row++) {
+            seed += 0x9E3779B97F4A7C15L;
+            seeds[row] = seed;
+        }
+    }
+
+    public synchronized void add(long item, int count) {
+        int estimate = estimate(item);
+        long target = Math.min((long) estimate + count, Integer.MAX_VALUE);
+        for (int row = 0; row < depth; row++) {
+            int index = index(row, item);
+            if (table[index] < target) table[index] = (int) target;
+        }
+        total += count;
+    }
+
+    public synchronized int estimate(long item) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[index(row, item)]);
+        }
+        return min;
+    }
+
+    public synchronized long totalCount() {
+        return total;
+    }
+
+    private int index(int row, long item) {
+        long h = (item ^ seeds[row]) * 0xbf58476d1ce4e5b9L;
+        h ^= h >>> 31;
+        return row * width + (int) (h & (width - 1));
+    }
+}
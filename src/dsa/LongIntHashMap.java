@@ -0,0 +1,133 @@
+package dsa;
+
+/**
+ * Open-addressing hash map from long to int with linear probing.
+ * Keys and values live in primitive arrays: no boxing, no per-entry objects.
+ * Absent keys read as 0, which suits counting.
+ */
+public class LongIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public int get(long key) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    public void put(long key, int value) {
+        int slot = insertionSlot(key);
+        values[slot] = value;
+    }
+
+    /**
+     * Add {@code delta} to the value of {@code key} (0 if absent) and return the result.
+     */
+    public int addTo(long key, int delta) {
+        int slot = insertionSlot(key);
+        values[slot] += delta;
+        return values[slot];
+    }
+
+    /**
+     * Remove {@code key}; later entries of its probe run shift back into the gap,
+     * so lookups never need tombstones.
+     */
+    public void remove(long key) {
+        int gap = find(key);
+        if (gap < 0) return;
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (!used[slot]) break;
+            int home = hash(keys[slot]) & mask;
+            // Move the entry back unless its home lies cyclically in (gap, slot]
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        used[gap] = false;
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int find(long key) {
+        for (int slot = hash(key) & mask; used[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return slot;
+        }
+        return -1;
+    }
+
+    private int insertionSlot(long key) {
+        int slot = hash(key) & mask;
+        for (; used[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return slot;
+        }
+        if (size >= resizeAt) {
+            grow();
+            return insertionSlot(key);
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = 0;
+        size++;
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(keys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (used[slot]) slot = (slot + 1) & mask;
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+        size = 0;
+    }
+
+    // Stafford variant 13 of the murmur3 64-bit finalizer
+    private static int hash(long key) {
+        key = (key ^ (key >>> 30)) * 0xbf58476d1ce4e5b9L;
+        key = (key ^ (key >>> 27)) * 0x94d049bb133111ebL;
+        return (int) (key ^ (key >>> 31));
+    }
+}
@@ -1,11 +1,15 @@
 package engine;
 
-import dsa.Trie;
 import dsa.AlgorithmGraph;
+import pattern.DSAPattern;
 import pattern.OfflinePatternEngine;
 import pattern.OfflinePatternEngine.PatternResult;
+import pattern.PrefixCursor;
+import pattern.ResultSink;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * SOLID - Single Responsibility Principle
@@ -14,23 +18,57 @@ import java.util.List;
  */
 public class AutocompleteEngine {
 
-    private final Trie trie = new Trie();
+    // DSA code patterns for basic autocomplete, available before the corpus is mined
+    private static final List<String> SEED_SNIPPETS = List.of(
+        "for(int i=0;i<n;i++)",
+        "while(left<=right)",
+        "if(map.containsKey(key))",
+        "HashMap<Integer,Integer>");
+    private static final int MAX_CODE_SUGGESTIONS = 10;
+
     private final AlgorithmGraph graph = new AlgorithmGraph();
-    private final OfflinePatternEngine patternEngine = new OfflinePatternEngine();
+    private final OfflinePatternEngine patternEngine;
+    private volatile SnippetModel snippets = SnippetModel.mine(List.of(), SEED_SNIPPETS);
 
     public AutocompleteEngine() {
-        // DSA code patterns for basic autocomplete
-        trie.insert("for(int i=0;i<n;i++)");
-        trie.insert("while(left<=right)");
-        trie.insert("if(map.containsKey(key))");
-        trie.insert("HashMap<Integer,Integer>");
+        this(new OfflinePatternEngine());
     }
 
     /**
-     * Get code suggestions from Trie (legacy feature).
+     * @param patternEngine Pattern engine, possibly still warming up in the background
+     */
+    public AutocompleteEngine(OfflinePatternEngine patternEngine) {
+        this.patternEngine = patternEngine;
+        patternEngine.whenIndexed().thenRun(this::mineSnippets);
+    }
+
+    /**
+     * Learn code snippets from every pattern's JAVA_TEMPLATE.
+     */
+    private void mineSnippets() {
+        long start = System.nanoTime();
+        List<String> templates = patternEngine.getAllPatterns().stream()
+            .map(DSAPattern::getJavaTemplate)
+            .filter(Objects::nonNull)
+            .toList();
+        SnippetModel mined = SnippetModel.mine(templates, SEED_SNIPPETS);
+        snippets = mined;
+        System.out.println("[AutocompleteEngine] Snippet model: " + mined.size() + " lines, "
+            + mined.trigramCount() + " trigrams in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Code completions for a partial line, most frequent in the corpus first.
      */
     public List<String> getCodeSuggestions(String input) {
-        return trie.autocomplete(input);
+        return snippets.suggest(input, MAX_CODE_SUGGESTIONS);
+    }
+
+    /**
+     * Feed back a suggestion the user accepted, so it ranks higher next time.
+     */
+    public void acceptCodeSuggestion(String snippet) {
+        snippets.learn(snippet);
     }
 
     /**
@@ -47,6 +85,23 @@ public class AutocompleteEngine {
         return patternEngine.searchPatterns(query);
     }
 
+    /**
+     * Offline search pushing (pattern id, score) pairs into {@code sink}; see
+     * {@link OfflinePatternEngine#search(String, ResultSink)}.
+     *
+     * @return number of results pushed
+     */
+    public int searchOfflinePatterns(String query, ResultSink sink) {
+        return patternEngine.search(query, sink);
+    }
+
+    /**
+     * Pattern for an id pushed by {@link #searchOfflinePatterns(String, ResultSink)}.
+     */
+    public DSAPattern getPattern(int id) {
+        return patternEngine.pattern(id);
+    }
+
     /**
      * Find exact pattern by key.
      */
@@ -62,6 +117,55 @@ public class AutocompleteEngine {
         return patternEngine.getByCategory(category);
     }
 
+    /**
+     * Incremental pattern-key cursor for search-as-you-type.
+     */
+    public PrefixCursor openPatternCursor() {
+        return patternEngine.prefixCursor();
+    }
+
+    /**
+     * Warm-up state of the pattern engine.
+     */
+    public OfflinePatternEngine.Readiness getReadiness() {
+        return patternEngine.getReadiness();
+    }
+
+    /**
+     * Per-strategy counters of the offline query planner.
+     */
+    public String getPlannerStats() {
+        return patternEngine.getPlannerStats();
+    }
+
+    /**
+     * Completes when pattern search can answer queries without blocking.
+     */
+    public CompletableFuture<Void> whenIndexed() {
+        return patternEngine.whenIndexed();
+    }
+
+    /**
+     * Completes when every search stage, including semantic search, is available.
+     */
+    public CompletableFuture<Void> whenReady() {
+        return patternEngine.whenReady();
+    }
+
+    /**
+     * Patterns most often returned as the top result, hottest first.
+     */
+    public List<DSAPattern> getHotPatterns(int n) {
+        return patternEngine.getHotPatterns(n);
+    }
+
+    /**
+     * Every loaded pattern, for browsing.
+     */
+    public List<DSAPattern> getAllPatterns() {
+        return patternEngine.getAllPatterns();
+    }
+
     /**
      * Get all available pattern names for UI autocomplete.
      */
@@ -0,0 +1,396 @@
+package engine;
+
+import dsa.CountMinSketch;
+import dsa.LongIntHashMap;
+
+import java.util.*;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for code snippet completion learned from corpus templates.
+ *
+ * Every template line is canonicalized (comments dropped, spaces kept only between
+ * words and after a type, so "for (int i = 0; i < n; i++)" becomes "for(int i=0;i<n;i++)")
+ * and counted.
+ * Distinct lines are kept sorted; a prefix maps to a contiguous range, and a segment
+ * tree over the line scores extracts the k most frequent lines of any range in
+ * O(k log n) without scanning it.
+ *
+ * Token trigram counts (packed token ids in LongIntHashMap) drive a greedy
+ * continuation when no known line starts with the input.
+ *
+ * Accepted suggestions are counted in a CountMinSketch and raise the score of
+ * that line, so the ranking adapts at runtime in fixed memory.
+ */
+public class SnippetModel {
+
+    private static final int MAX_LINE_LENGTH = 120;
+    private static final int MAX_CONTINUATION_TOKENS = 16;
+    private static final int LEARNED_WEIGHT = 3;
+    private static final int BOS = 0;
+    private static final int EOL = 1;
+    private static final int ID_BITS = 21;
+    private static final int MAX_TOKENS = 1 << ID_BITS;
+
+    private final String[] lines;
+    private final long[] hashes;
+    private final int[] baseCounts;
+    private final int[] scores;
+    private final int[] tree;
+    private final int leaves;
+    private final LongIntHashMap lineIndex;      // line hash -> index + 1
+
+    private final Map<String, Integer> tokenIds = new HashMap<>();
+    private final List<String> tokenNames = new ArrayList<>();
+    private final LongIntHashMap trigramCounts = new LongIntHashMap(1 << 12);
+    private final LongIntHashMap bestNext = new LongIntHashMap(1 << 12);   // (a, b) -> most frequent c
+    private final CountMinSketch accepted = new CountMinSketch(1 << 14, 4);
+
+    private SnippetModel(List<String> canonicalLines) {
+        Collections.sort(canonicalLines);
+        List<String> distinct = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        for (String line : canonicalLines) {
+            int last = distinct.size() - 1;
+            if (last >= 0 && distinct.get(last).equals(line)) {
+                counts.set(last, counts.get(last) + 1);
+            } else {
+                distinct.add(line);
+                counts.add(1);
+            }
+        }
+
+        int n = distinct.size();
+        this.lines = distinct.toArray(new String[0]);
+        this.hashes = new long[n];
+        this.baseCounts = new int[n];
+        this.scores = new int[n];
+        this.lineIndex = new LongIntHashMap(n);
+        for (int i = 0; i < n; i++) {
+            hashes[i] = hash(lines[i]);
+            baseCounts[i] = counts.get(i);
+            scores[i] = baseCounts[i];
+            lineIndex.put(hashes[i], i + 1);
+        }
+
+        int size = 1;
+        while (size < Math.max(1, n)) size <<= 1;
+        this.leaves = size;
+        this.tree = new int[2 * size];
+        Arrays.fill(tree, -1);
+        for (int i = 0; i < n; i++) tree[size + i] = i;
+        for (int p = size - 1; p >= 1; p--) tree[p] = better(tree[2 * p], tree[2 * p + 1]);
+
+        tokenIds.put("<s>", BOS);
+        tokenNames.add("<s>");
+        tokenIds.put("</s>", EOL);
+        tokenNames.add("</s>");
+    }
+
+    /**
+     * Build a model from template blocks plus standalone seed snippets.
+     */
+    public static SnippetModel mine(Collection<String> templates, Collection<String> seeds) {
+        List<String> canonical = new ArrayList<>();
+        List<List<String>> tokenized = new ArrayList<>();
+        for (String template : templates) {
+            for (String line : template.split("\n")) {
+                addLine(line, canonical, tokenized);
+            }
+        }
+        for (String seed : seeds) {
+            addLine(seed, canonical, tokenized);
+        }
+
+        SnippetModel model = new SnippetModel(canonical);
+        for (List<String> tokens : tokenized) {
+            model.countTrigrams(tokens);
+        }
+        return model;
+    }
+
+    private static void addLine(String line, List<String> canonical, List<List<String>> tokenized) {
+        List<String> tokens = tokenize(line);
+        if (tokens.size() < 2) return;
+        String text = render(tokens);
+        if (text.length() > MAX_LINE_LENGTH) return;
+        canonical.add(text);
+        tokenized.add(tokens);
+    }
+
+    /**
+     * Up to k completions for the input, most frequent first.
+     */
+    public synchronized List<String> suggest(String input, int k) {
+        List<String> tokens = tokenize(input);
+        String prefix = render(tokens);
+        int from = lowerBound(prefix);
+        int to = lowerBound(prefix + Character.MAX_VALUE);
+
+        List<String> results = new ArrayList<>(k);
+        for (int index : top(from, to, k)) {
+            results.add(lines[index]);
+        }
+        if (results.isEmpty() && !tokens.isEmpty()) {
+            String continuation = continueFrom(tokens);
+            if (continuation != null) {
+                results.add(continuation);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Record that the user accepted (or typed) a snippet.
+     */
+    public synchronized void learn(String snippet) {
+        List<String> tokens = tokenize(snippet);
+        if (tokens.isEmpty()) return;
+        long h = hash(render(tokens));
+        accepted.add(h, 1);
+        int index = lineIndex.get(h) - 1;
+        if (index >= 0) {
+            scores[index] = baseCounts[index] + LEARNED_WEIGHT * accepted.estimate(h);
+            update(index);
+        }
+        countTrigrams(tokens);
+    }
+
+    public int size() {
+        return lines.length;
+    }
+
+    public int trigramCount() {
+        return trigramCounts.size();
+    }
+
+    // ===== Ranking =====
+
+    /**
+     * Indices of the k best-scoring lines in [from, to), best first.
+     */
+    private int[] top(int from, int to, int k) {
+        if (from >= to || k <= 0) return new int[0];
+        // Candidate ranges with their argmax; split around each pick
+        int[] rangeFrom = new int[2 * k + 1];
+        int[] rangeTo = new int[2 * k + 1];
+        int[] rangeBest = new int[2 * k + 1];
+        rangeFrom[0] = from;
+        rangeTo[0] = to;
+        rangeBest[0] = argmax(from, to);
+        int ranges = 1;
+
+        int[] picked = new int[Math.min(k, to - from)];
+        for (int n = 0; n < picked.length; n++) {
+            int pick = 0;
+            for (int r = 1; r < ranges; r++) {
+                if (better(rangeBest[pick], rangeBest[r]) == rangeBest[r]) pick = r;
+            }
+            int best = rangeBest[pick];
+            picked[n] = best;
+            int lo = rangeFrom[pick];
+            int hi = rangeTo[pick];
+            // Drop the picked range (swap in the last one), then add the parts on either side of the pick
+            ranges--;
+            rangeFrom[pick] = rangeFrom[ranges];
+            rangeTo[pick] = rangeTo[ranges];
+            rangeBest[pick] = rangeBest[ranges];
+            if (lo < best) {
+                rangeFrom[ranges] = lo;
+                rangeTo[ranges] = best;
+                rangeBest[ranges++] = argmax(lo, best);
+            }
+            if (best + 1 < hi) {
+                rangeFrom[ranges] = best + 1;
+                rangeTo[ranges] = hi;
+                rangeBest[ranges++] = argmax(best + 1, hi);
+            }
+        }
+        return picked;
+    }
+
+    private int argmax(int from, int to) {
+        int best = -1;
+        for (int lo = from + leaves, hi = to + leaves; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) best = better(best, tree[lo++]);
+            if ((hi & 1) == 1) best = better(best, tree[--hi]);
+        }
+        return best;
+    }
+
+    private void update(int index) {
+        for (int p = (index + leaves) >> 1; p >= 1; p >>= 1) {
+            tree[p] = better(tree[2 * p], tree[2 * p + 1]);
+        }
+    }
+
+    // Higher score wins; ties go to the lexicographically smaller line
+    private int better(int a, int b) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        if (scores[a] != scores[b]) return scores[a] > scores[b] ? a : b;
+        return Math.min(a, b);
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = lines.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (lines[mid].compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // ===== Trigram continuation =====
+
+    private void countTrigrams(List<String> tokens) {
+        int a = BOS;
+        int b = BOS;
+        for (int i = 0; i <= tokens.size(); i++) {
+            int c = i < tokens.size() ? idOf(tokens.get(i)) : EOL;
+            if (c < 0) return;
+            int count = trigramCounts.addTo(pack(a, b, c), 1);
+            long context = pack(0, a, b);
+            int current = bestNext.get(context);
+            if (current == 0 || current == c || count > trigramCounts.get(pack(a, b, current))) {
+                bestNext.put(context, c);
+            }
+            a = b;
+            b = c;
+        }
+    }
+
+    /**
+     * Extend the input with the most frequent next token until end of line.
+     */
+    private String continueFrom(List<String> tokens) {
+        int a = tokens.size() >= 2 ? knownId(tokens.get(tokens.size() - 2)) : BOS;
+        int b = knownId(tokens.get(tokens.size() - 1));
+        if (a < 0 || b < 0) return null;
+
+        List<String> extended = new ArrayList<>(tokens);
+        for (int i = 0; i < MAX_CONTINUATION_TOKENS; i++) {
+            int c = bestNext.get(pack(0, a, b));
+            if (c == 0 || c == EOL) break;
+            extended.add(tokenNames.get(c));
+            a = b;
+            b = c;
+        }
+        return extended.size() > tokens.size() ? render(extended) : null;
+    }
+
+    private int idOf(String token) {
+        Integer id = tokenIds.get(token);
+        if (id != null) return id;
+        if (tokenNames.size() >= MAX_TOKENS) return -1;
+        int next = tokenNames.size();
+        tokenIds.put(token, next);
+        tokenNames.add(token);
+        return next;
+    }
+
+    private int knownId(String token) {
+        Integer id = tokenIds.get(token);
+        return id == null ? -1 : id;
+    }
+
+    private static long pack(int a, int b, int c) {
+        return ((long) a << (2 * ID_BITS)) | ((long) b << ID_BITS) | c;
+    }
+
+    // ===== Tokens =====
+
+    /**
+     * Java-ish tokens of one line: words, numbers, literals, operators. Drops // comments.
+     */
+    static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        int n = line.length();
+        while (i < n) {
+            char c = line.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '/' && i + 1 < n && (line.charAt(i + 1) == '/' || line.charAt(i + 1) == '*')) {
+                break;
+            } else if (c == '*' && tokens.isEmpty()) {
+                break;    // javadoc / block comment continuation line
+            } else if (Character.isJavaIdentifierStart(c) || Character.isDigit(c)) {
+                int start = i++;
+                while (i < n && (Character.isJavaIdentifierPart(line.charAt(i)) || line.charAt(i) == '.'
+                        && Character.isDigit(line.charAt(start)))) {
+                    i++;
+                }
+                tokens.add(line.substring(start, i));
+            } else if (c == '"' || c == '\'') {
+                int start = i++;
+                while (i < n && line.charAt(i) != c) {
+                    if (line.charAt(i) == '\\') i++;
+                    i++;
+                }
+                i = Math.min(n, i + 1);
+                tokens.add(line.substring(start, i));
+            } else {
+                int length = operatorLength(line, i);
+                tokens.add(line.substring(i, i + length));
+                i += length;
+            }
+        }
+        return tokens;
+    }
+
+    private static final String[] OPERATORS = {
+        ">>>=", "<<=", ">>=", ">>>", "...", "->", "::", "++", "--", "&&", "||", "==", "!=", "<=", ">=",
+        "+=", "-=", "*=", "/=", "%=", "&=", "|=", "^=", "<<"
+    };
+
+    private static int operatorLength(String line, int at) {
+        for (String op : OPERATORS) {
+            if (line.startsWith(op, at)) return op.length();
+        }
+        return 1;
+    }
+
+    /**
+     * Canonical text: a space only where two word-like tokens meet, or where a type
+     * ending in a closed generic or array bracket meets a name ("Map<K,V> map", "int[] a").
+     */
+    static String render(List<String> tokens) {
+        StringBuilder sb = new StringBuilder();
+        String previous = null;
+        int genericDepth = 0;
+        boolean typeClosed = false;
+        for (String token : tokens) {
+            if (previous != null && isWord(token) && (isWord(previous) || typeClosed)) sb.append(' ');
+            typeClosed = false;
+            if (token.equals("<") && previous != null && Character.isUpperCase(previous.charAt(0))) {
+                genericDepth++;
+            } else if (genericDepth > 0 && (token.equals(">") || token.equals(">>"))) {
+                genericDepth = Math.max(0, genericDepth - token.length());
+                typeClosed = genericDepth == 0;
+            } else if (token.equals("]")) {
+                typeClosed = true;
+            }
+            sb.append(token);
+            previous = token;
+        }
+        return sb.toString();
+    }
+
+    private static boolean isWord(String token) {
+        char c = token.charAt(0);
+        return Character.isJavaIdentifierPart(c) || c == '"' || c == '\'';
+    }
+
+    // 64-bit FNV-1a
+    private static long hash(String text) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            h ^= text.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
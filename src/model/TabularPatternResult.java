@@ -1,6 +1,14 @@
 package model;
 
+import ai.ResponseSection;
 import pattern.DSAPattern;
+import util.Settings;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Represents a pattern result structured for tab-based UI display.
@@ -16,6 +24,7 @@ public class TabularPatternResult {
     
     // AI-AUGMENTED CONTENT (only if online)
     private String aiInsightsTab;      // Optional: AI variations, optimizations
+    private Map<ResponseSection, String> aiSections = Collections.emptyMap();  // One tab per answer section
     private boolean isOnline;
     
     public TabularPatternResult() {
@@ -46,83 +55,158 @@ public class TabularPatternResult {
     public String getAiInsightsTab() { return aiInsightsTab; }
     public void setAiInsightsTab(String aiInsightsTab) { this.aiInsightsTab = aiInsightsTab; }
     
+    /**
+     * AI answer split by section (solution, walkthrough, ...), empty if the answer
+     * had no recognisable sections. Text outside any section stays in the AI tab.
+     */
+    public Map<ResponseSection, String> getAiSections() { return aiSections; }
+    public void setAiSections(Map<ResponseSection, String> aiSections) {
+        this.aiSections = aiSections.isEmpty()
+            ? Collections.emptyMap() : Collections.unmodifiableMap(new EnumMap<>(aiSections));
+    }
+
     public boolean isOnline() { return isOnline; }
     public void setOnline(boolean online) { isOnline = online; }
     
+    private static final int RENDER_CACHE_SIZE = Settings.intSetting("DSA_RENDER_CACHE", 64);
+
+    /**
+     * Rendered offline tabs per pattern instance. Patterns are immutable once loaded, so
+     * the four offline tabs are built once and shared by later searches for the same
+     * pattern. An LRU of DSA_RENDER_CACHE entries (default 64): the corpus holds every
+     * pattern, so an unbounded cache would keep each displayed pattern's inflated
+     * template on the heap and undo OFF_HEAP and COMPRESSED storage. Patterns of a
+     * reloaded corpus are new instances; the old entries age out.
+     */
+    private static final Map<DSAPattern, OfflineTabs> RENDERED = Collections.synchronizedMap(
+        new LinkedHashMap<DSAPattern, OfflineTabs>(32, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DSAPattern, OfflineTabs> eldest) {
+                return size() > RENDER_CACHE_SIZE;
+            }
+        });
+
+    private static final String AI_TAB_HEADER =
+        "AI-ENHANCED INSIGHTS (Online Only)\n"
+        + "═══════════════════════════════════════════════\n\n"
+        + "This section adds:\n"
+        + "• Complete working solution with edge case handling\n"
+        + "• Step-by-step walkthrough for beginners\n"
+        + "• Alternative approaches & optimizations\n"
+        + "• Interview tips & follow-up questions\n\n";
+
     /**
      * Build tab content with clear offline/online labels.
      * AVOIDS REDUNDANCY: Overview is brief, Explanation adds unique content.
+     * Offline tabs come from the render cache; only the AI tab is assembled per call.
      * 
      * @param pattern The DSAPattern to format
      * @param aiInsights Optional AI-augmented insights (may be null)
      * @return Formatted TabularPatternResult
      */
     public static TabularPatternResult from(DSAPattern pattern, String aiInsights, boolean isOnline) {
-        TabularPatternResult result = new TabularPatternResult();
-        
-        // OVERVIEW TAB: Quick reference ONLY (pattern name, category, difficulty)
-        StringBuilder overview = new StringBuilder();
-        overview.append("PATTERN OVERVIEW\n\n");
-        overview.append("Name: ").append(pattern.getName()).append("\n");
-        overview.append("Category: ").append(pattern.getCategory()).append("\n");
-        if (pattern.getDifficulty() != null && !pattern.getDifficulty().isEmpty()) {
-            overview.append("Difficulty: ").append(pattern.getDifficulty()).append("\n");
-        }
-        if (pattern.getAliases() != null && !pattern.getAliases().isEmpty()) {
-            overview.append("Also Known As: ").append(pattern.getAliases()).append("\n");
-        }
-        result.setOverviewTab(overview.toString());
-        
-        // EXPLANATION TAB: UNIQUE CONTENT - When to use + Intuition (NOT repeated in AI)
-        StringBuilder explanation = new StringBuilder();
-        if (pattern.getWhenToUse() != null && !pattern.getWhenToUse().isEmpty()) {
-            explanation.append("WHEN TO USE THIS PATTERN?\n");
-            explanation.append(pattern.getWhenToUse()).append("\n\n");
-        }
-        if (pattern.getIntuition() != null && !pattern.getIntuition().isEmpty()) {
-            explanation.append("INTUITION & HOW IT WORKS:\n");
-            explanation.append(pattern.getIntuition()).append("\n");
-        }
-        result.setExplanationTab(explanation.toString());
-        
-        // JAVA TEMPLATE TAB: Guaranteed correct offline template
-        StringBuilder template = new StringBuilder();
-        template.append("BASE TEMPLATE (Offline - Always Available)\n");
-        template.append("═══════════════════════════════════════════════\n\n");
-        if (pattern.getJavaTemplate() != null && !pattern.getJavaTemplate().isEmpty()) {
-            template.append(pattern.getJavaTemplate()).append("\n");
-        }
-        result.setJavaTemplateTab(template.toString());
-        
-        // COMPLEXITY TAB: Performance analysis + common mistakes
-        StringBuilder complexity = new StringBuilder();
-        if (pattern.getTimeComplexity() != null && !pattern.getTimeComplexity().isEmpty()) {
-            complexity.append("⏱️ TIME COMPLEXITY:\n").append(pattern.getTimeComplexity()).append("\n\n");
-        }
-        if (pattern.getSpaceComplexity() != null && !pattern.getSpaceComplexity().isEmpty()) {
-            complexity.append("💾 SPACE COMPLEXITY:\n").append(pattern.getSpaceComplexity()).append("\n\n");
-        }
-        if (pattern.getCommonMistakes() != null && !pattern.getCommonMistakes().isEmpty()) {
-            complexity.append("⚠️ COMMON MISTAKES:\n").append(pattern.getCommonMistakes()).append("\n");
-        }
-        result.setComplexityTab(complexity.toString());
+        return from(pattern, aiInsights, null, isOnline);
+    }
+
+    /**
+     * Same, with a compile-check banner shown at the top of the AI tab.
+     *
+     * @param codeCheck Status line from CodeCompileGate (may be null or empty)
+     */
+    public static TabularPatternResult from(DSAPattern pattern, String aiInsights, String codeCheck,
+                                            boolean isOnline) {
+        OfflineTabs offline = RENDERED.computeIfAbsent(pattern, OfflineTabs::render);
+        TabularPatternResult result = new TabularPatternResult(
+            offline.overview, offline.explanation, offline.javaTemplate, offline.complexity);
         
         // AI INSIGHTS TAB: UNIQUE content - variations, edge cases, interview tips
         // NOT repeating what's already in offline tabs
         if (isOnline && aiInsights != null && !aiInsights.isEmpty()) {
-            StringBuilder aiTab = new StringBuilder();
-            aiTab.append("AI-ENHANCED INSIGHTS (Online Only)\n");
-            aiTab.append("═══════════════════════════════════════════════\n\n");
-            aiTab.append("This section adds:\n");
-            aiTab.append("• Complete working solution with edge case handling\n");
-            aiTab.append("• Step-by-step walkthrough for beginners\n");
-            aiTab.append("• Alternative approaches & optimizations\n");
-            aiTab.append("• Interview tips & follow-up questions\n\n");
-            aiTab.append(aiInsights).append("\n");
-            result.setAiInsightsTab(aiTab.toString());
+            result.setAiInsightsTab(AI_TAB_HEADER + (codeCheck != null ? codeCheck : "") + aiInsights + "\n");
         }
         
         result.setOnline(isOnline);
         return result;
     }
+
+    /**
+     * Render the offline tabs of the given patterns ahead of their first search.
+     */
+    public static void prewarm(Collection<DSAPattern> patterns) {
+        for (DSAPattern pattern : patterns) {
+            RENDERED.computeIfAbsent(pattern, OfflineTabs::render);
+        }
+    }
+
+    /**
+     * Drop all rendered tabs, e.g. after the corpus has been edited in place.
+     */
+    public static void invalidateRenderCache() {
+        RENDERED.clear();
+    }
+
+    /**
+     * Immutable pre-rendered offline tab content for one pattern.
+     */
+    private static final class OfflineTabs {
+        final String overview;
+        final String explanation;
+        final String javaTemplate;
+        final String complexity;
+
+        private OfflineTabs(String overview, String explanation, String javaTemplate, String complexity) {
+            this.overview = overview;
+            this.explanation = explanation;
+            this.javaTemplate = javaTemplate;
+            this.complexity = complexity;
+        }
+
+        static OfflineTabs render(DSAPattern pattern) {
+            // OVERVIEW TAB: Quick reference ONLY (pattern name, category, difficulty)
+            StringBuilder overview = new StringBuilder();
+            overview.append("PATTERN OVERVIEW\n\n");
+            overview.append("Name: ").append(pattern.getName()).append("\n");
+            overview.append("Category: ").append(pattern.getCategory()).append("\n");
+            if (pattern.getDifficulty() != null && !pattern.getDifficulty().isEmpty()) {
+                overview.append("Difficulty: ").append(pattern.getDifficulty()).append("\n");
+            }
+            if (pattern.getAliases() != null && !pattern.getAliases().isEmpty()) {
+                overview.append("Also Known As: ").append(pattern.getAliases()).append("\n");
+            }
+            
+            // EXPLANATION TAB: UNIQUE CONTENT - When to use + Intuition (NOT repeated in AI)
+            StringBuilder explanation = new StringBuilder();
+            if (pattern.getWhenToUse() != null && !pattern.getWhenToUse().isEmpty()) {
+                explanation.append("WHEN TO USE THIS PATTERN?\n");
+                explanation.append(pattern.getWhenToUse()).append("\n\n");
+            }
+            if (pattern.getIntuition() != null && !pattern.getIntuition().isEmpty()) {
+                explanation.append("INTUITION & HOW IT WORKS:\n");
+                explanation.append(pattern.getIntuition()).append("\n");
+            }
+            
+            // JAVA TEMPLATE TAB: Guaranteed correct offline template
+            StringBuilder template = new StringBuilder();
+            template.append("BASE TEMPLATE (Offline - Always Available)\n");
+            template.append("═══════════════════════════════════════════════\n\n");
+            if (pattern.getJavaTemplate() != null && !pattern.getJavaTemplate().isEmpty()) {
+                template.append(pattern.getJavaTemplate()).append("\n");
+            }
+            
+            // COMPLEXITY TAB: Performance analysis + common mistakes
+            StringBuilder complexity = new StringBuilder();
+            if (pattern.getTimeComplexity() != null && !pattern.getTimeComplexity().isEmpty()) {
+                complexity.append("⏱️ TIME COMPLEXITY:\n").append(pattern.getTimeComplexity()).append("\n\n");
+            }
+            if (pattern.getSpaceComplexity() != null && !pattern.getSpaceComplexity().isEmpty()) {
+                complexity.append("💾 SPACE COMPLEXITY:\n").append(pattern.getSpaceComplexity()).append("\n\n");
+            }
+            if (pattern.getCommonMistakes() != null && !pattern.getCommonMistakes().isEmpty()) {
+                complexity.append("⚠️ COMMON MISTAKES:\n").append(pattern.getCommonMistakes()).append("\n");
+            }
+            
+            return new OfflineTabs(overview.toString(), explanation.toString(),
+                template.toString(), complexity.toString());
+        }
+    }
 }
@@ -0,0 +1,184 @@
+package pattern;
+
+import java.util.Locale;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Growth classes a pattern can declare, how to read them from a
+ * TIME_COMPLEXITY / SPACE_COMPLEXITY label, and how to pick the class that best
+ * explains a measured (size, cost) curve.
+ *
+ * Labels are only understood in terms of a single size variable n; labels over
+ * other variables (V + E, m*n, n*w, n log k) parse to null and are not checked.
+ */
+public enum ComplexityClass {
+    CONSTANT("O(1)", 0),
+    LOGARITHMIC("O(log n)", 0),
+    LINEAR("O(n)", 1),
+    LINEARITHMIC("O(n log n)", 1),
+    QUADRATIC("O(n^2)", 2),
+    CUBIC("O(n^3)", 3),
+    EXPONENTIAL("O(2^n)", Integer.MAX_VALUE);
+
+    // A simpler class wins unless a more complex one fits clearly better
+    private static final double SIMPLER_SLACK = 1.25;
+    private static final double SIMPLER_MARGIN = 0.01;
+
+    private final String label;
+    private final int degree;
+
+    ComplexityClass(String label, int degree) {
+        this.label = label;
+        this.degree = degree;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Same polynomial degree, i.e. equal up to a log factor. Timing cannot
+     * reliably tell n from n log n (or 1 from log n) over a few doublings.
+     */
+    public boolean sameGrowth(ComplexityClass other) {
+        return other != null && degree == other.degree;
+    }
+
+    public boolean growsFasterThan(ComplexityClass other) {
+        return other != null && degree > other.degree;
+    }
+
+    double valueAt(double n) {
+        switch (this) {
+            case CONSTANT:     return 1;
+            case LOGARITHMIC:  return Math.log(n);
+            case LINEAR:       return n;
+            case LINEARITHMIC: return n * Math.log(n);
+            case QUADRATIC:    return n * n;
+            case CUBIC:        return n * n * n;
+            default:           return Math.pow(2, n);
+        }
+    }
+
+    /**
+     * The first O(...) term of a label, e.g. "O(n log n) usually" -> LINEARITHMIC,
+     * or null when it is missing or not expressed in n alone.
+     */
+    public static ComplexityClass parse(String label) {
+        if (label == null) return null;
+        int start = label.indexOf("O(");
+        if (start < 0) return null;
+        int depth = 0;
+        int end = -1;
+        for (int i = start + 1; i < label.length(); i++) {
+            char c = label.charAt(i);
+            if (c == '(') depth++;
+            else if (c == ')' && --depth == 0) { end = i; break; }
+        }
+        if (end < 0) return null;
+
+        String term = label.substring(start + 2, end).toLowerCase(Locale.ROOT)
+            .replace("²", "^2").replace("³", "^3")
+            .replaceAll("[\\s*·×()]", "");
+        switch (term) {
+            case "1":         return CONSTANT;
+            case "logn":      return LOGARITHMIC;
+            case "n":         return LINEAR;
+            case "nloglogn":
+            case "nlogn":
+            case "lognn":     return LINEARITHMIC;
+            case "n^2":
+            case "nn":        return QUADRATIC;
+            case "n^3":
+            case "nnn":       return CUBIC;
+            case "2^n":       return EXPONENTIAL;
+            default:          return null;
+        }
+    }
+
+    /**
+     * Best class for a measured curve, or null with fewer than three points.
+     * Each class is fitted as cost = a + b * f(n) (a, b >= 0) by least squares on
+     * relative error, so small and large sizes count equally and fixed call
+     * overhead does not masquerade as growth.
+     */
+    public static Fit fit(long[] sizes, double[] costs) {
+        if (sizes.length < 3) return null;
+        long maxSize = 0;
+        for (long n : sizes) maxSize = Math.max(maxSize, n);
+
+        double[] errors = new double[values().length];
+        double best = Double.MAX_VALUE;
+        for (ComplexityClass c : values()) {
+            if (c == EXPONENTIAL && maxSize > 64) {
+                errors[c.ordinal()] = Double.MAX_VALUE;
+                continue;
+            }
+            errors[c.ordinal()] = c.relativeError(sizes, costs);
+            best = Math.min(best, errors[c.ordinal()]);
+        }
+        for (ComplexityClass c : values()) {
+            if (errors[c.ordinal()] <= best * SIMPLER_SLACK + SIMPLER_MARGIN) {
+                return new Fit(c, errors[c.ordinal()]);
+            }
+        }
+        return null;
+    }
+
+    // Weighted least squares with weights 1/cost^2; returns the RMS relative error
+    private double relativeError(long[] sizes, double[] costs) {
+        double sw = 0, sf = 0, sff = 0, sy = 0, sfy = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            double y = Math.max(costs[i], 1e-9);
+            double w = 1 / (y * y);
+            double f = this == CONSTANT ? 0 : valueAt(sizes[i]);
+            sw += w;
+            sf += w * f;
+            sff += w * f * f;
+            sy += w * y;
+            sfy += w * f * y;
+        }
+        double a, b;
+        double det = sw * sff - sf * sf;
+        if (this == CONSTANT || det <= 0) {
+            a = sy / sw;
+            b = 0;
+        } else {
+            b = (sw * sfy - sf * sy) / det;
+            a = (sy - b * sf) / sw;
+            if (b < 0) {
+                b = 0;
+                a = sy / sw;
+            } else if (a < 0) {
+                a = 0;
+                b = sfy / sff;
+            }
+        }
+        double sum = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            double y = Math.max(costs[i], 1e-9);
+            double f = this == CONSTANT ? 0 : valueAt(sizes[i]);
+            double r = (y - a - b * f) / y;
+            sum += r * r;
+        }
+        return Math.sqrt(sum / sizes.length);
+    }
+
+    /**
+     * A fitted class and its RMS relative error.
+     */
+    public static final class Fit {
+        public final ComplexityClass complexity;
+        public final double error;
+
+        Fit(ComplexityClass complexity, double error) {
+            this.complexity = complexity;
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (+/-%.0f%%)", complexity.label, error * 100);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package pattern;
+
+import util.WorkerPools;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Checks each pattern's declared TIME_COMPLEXITY / SPACE_COMPLEXITY against how
+ * its JAVA_TEMPLATE actually grows.
+ *
+ * Every pattern runs in its own ComplexityProbe JVM, so a template that loops
+ * forever, overflows the stack or fills the heap only loses its own result; a
+ * worker past its timeout is killed and judged on the sizes it finished.
+ * Several workers run in parallel.
+ *
+ * Time is compared both ways (a label may over- or under-state growth). Space is
+ * checked against allocated bytes per call, which bound retained memory from
+ * above but also count garbage and miss stack frames, so only allocation that
+ * grows faster than the label is flagged. Growth classes are compared up to a
+ * log factor (see ComplexityClass#sameGrowth).
+ *
+ * CI gate: {@code java -cp out pattern.ComplexityHarness [dir] [parallelism]}
+ * exits with status 1 when any pattern mismatches its label.
+ */
+public class ComplexityHarness {
+
+    public static final long DEFAULT_TIMEOUT_SECONDS = 60;
+
+    private final int parallelism;
+    private final long timeoutSeconds;
+    private final int maxSize;
+
+    public ComplexityHarness() {
+        this(defaultParallelism(), DEFAULT_TIMEOUT_SECONDS, ComplexityProbe.DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param parallelism    Worker JVMs running at once
+     * @param timeoutSeconds Per-pattern wall clock limit before the worker is killed
+     * @param maxSize        Largest input size to try
+     */
+    public ComplexityHarness(int parallelism, long timeoutSeconds, int maxSize) {
+        this.parallelism = Math.max(1, parallelism);
+        this.timeoutSeconds = timeoutSeconds;
+        this.maxSize = maxSize;
+    }
+
+    // Concurrent workers share cores and skew each other's timings; leave headroom
+    static int defaultParallelism() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    /**
+     * Verify every pattern; results are in key order.
+     */
+    public List<Verdict> verify(Collection<DSAPattern> patterns) {
+        List<DSAPattern> sorted = new ArrayList<>(patterns);
+        sorted.sort(Comparator.comparing(DSAPattern::getKey));
+
+        ExecutorService workers = WorkerPools.newBoundedExecutor("complexity-harness", parallelism);
+        try {
+            List<Future<Verdict>> futures = new ArrayList<>();
+            for (DSAPattern pattern : sorted) {
+                futures.add(workers.submit(() -> verify(pattern)));
+            }
+            List<Verdict> verdicts = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    verdicts.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    verdicts.add(Verdict.failed(sorted.get(i), "harness error: " + e.getCause()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            return verdicts;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Run one pattern in a worker JVM and judge it.
+     */
+    public Verdict verify(DSAPattern pattern) {
+        ComplexityClass declaredTime = ComplexityClass.parse(pattern.getTimeComplexity());
+        ComplexityClass declaredSpace = ComplexityClass.parse(pattern.getSpaceComplexity());
+        if (declaredTime == null && declaredSpace == null) {
+            return new Verdict(pattern, Status.UNCHECKED, null, null, null, 0,
+                "labels not in terms of n alone");
+        }
+        String template = pattern.getJavaTemplate();
+        if (template == null || template.isBlank()) {
+            return new Verdict(pattern, Status.SKIPPED, null, null, null, 0, "no template");
+        }
+
+        WorkerOutput output;
+        try {
+            output = runWorker(template);
+        } catch (IOException e) {
+            return Verdict.failed(pattern, "could not start worker: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Verdict.failed(pattern, "interrupted");
+        }
+        if (output.skip != null) {
+            return new Verdict(pattern, Status.SKIPPED, output.entry, null, null, 0, output.skip);
+        }
+
+        long[] sizes = new long[output.points.size()];
+        double[] times = new double[sizes.length];
+        double[] bytes = new double[sizes.length];
+        boolean haveBytes = true;
+        for (int i = 0; i < sizes.length; i++) {
+            long[] p = output.points.get(i);
+            sizes[i] = p[0];
+            times[i] = p[1];
+            bytes[i] = p[2];
+            haveBytes &= p[2] >= 0;
+        }
+        String note = output.stop != null ? output.stop : output.timedOut ? "worker timed out" : null;
+        ComplexityClass.Fit timeFit = ComplexityClass.fit(sizes, times);
+        if (timeFit == null) {
+            return new Verdict(pattern, Status.FAILED, output.entry, null, null, sizes.length,
+                note != null ? note + " before 3 sizes" : "fewer than 3 sizes measured");
+        }
+        ComplexityClass.Fit spaceFit = haveBytes ? ComplexityClass.fit(sizes, bytes) : null;
+
+        List<String> problems = new ArrayList<>();
+        if (declaredTime != null && !declaredTime.sameGrowth(timeFit.complexity)) {
+            problems.add("time declared " + declaredTime.label() + ", measured " + timeFit.complexity.label());
+        }
+        if (declaredSpace != null && spaceFit != null && spaceFit.complexity.growsFasterThan(declaredSpace)) {
+            problems.add("space declared " + declaredSpace.label() + ", allocates " + spaceFit.complexity.label());
+        }
+        if (note != null) problems.add(note + " at larger sizes");
+        boolean mismatch = problems.stream().anyMatch(p -> p.startsWith("time") || p.startsWith("space"));
+        return new Verdict(pattern, mismatch ? Status.MISMATCH : Status.MATCH, output.entry,
+            timeFit, spaceFit, sizes.length, problems.isEmpty() ? null : String.join("; ", problems));
+    }
+
+    private WorkerOutput runWorker(String template) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-Xmx512m", "-XX:+UseSerialGC",
+                "-cp", System.getProperty("java.class.path"),
+                ComplexityProbe.class.getName(), String.valueOf(maxSize))
+            .redirectErrorStream(true)
+            .start();
+
+        WorkerOutput output = new WorkerOutput();
+        Thread reader = WorkerPools.threadFactory("complexity-reader").newThread(() -> output.read(process));
+        reader.start();
+        try (OutputStream stdin = process.getOutputStream()) {
+            stdin.write(template.getBytes(StandardCharsets.UTF_8));
+        }
+        if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+            output.timedOut = true;
+            process.destroyForcibly();
+            process.waitFor();
+        }
+        reader.join(TimeUnit.SECONDS.toMillis(5));
+        return output;
+    }
+
+    /**
+     * Lines parsed from one worker (see ComplexityProbe for the protocol).
+     */
+    private static final class WorkerOutput {
+        final List<long[]> points = Collections.synchronizedList(new ArrayList<>());
+        volatile String entry;
+        volatile String skip;
+        volatile String stop;
+        volatile boolean timedOut;
+
+        void read(Process process) {
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.startsWith("POINT ")) {
+                        String[] parts = line.split(" ");
+                        points.add(new long[] {
+                            Long.parseLong(parts[1]), Long.parseLong(parts[2]), Long.parseLong(parts[3]) });
+                    } else if (line.startsWith("ENTRY ")) {
+                        entry = line.substring(6);
+                    } else if (line.startsWith("SKIP ")) {
+                        skip = line.substring(5);
+                    } else if (line.startsWith("STOP ")) {
+                        String[] parts = line.split(" ", 3);
+                        stop = parts[2] + " at n=" + parts[1];
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // Worker killed mid-line; keep what was read
+            }
+        }
+    }
+
+    public enum Status { MATCH, MISMATCH, UNCHECKED, SKIPPED, FAILED }
+
+    /**
+     * Outcome for one pattern.
+     */
+    public static final class Verdict {
+        public final String key;
+        public final Status status;
+        public final String declaredTime;
+        public final String declaredSpace;
+        public final String entry;
+        public final ComplexityClass.Fit time;
+        public final ComplexityClass.Fit space;
+        public final int sizes;
+        public final String note;
+
+        Verdict(DSAPattern pattern, Status status, String entry, ComplexityClass.Fit time,
+                ComplexityClass.Fit space, int sizes, String note) {
+            this.key = pattern.getKey();
+            this.status = status;
+            this.declaredTime = pattern.getTimeComplexity();
+            this.declaredSpace = pattern.getSpaceComplexity();
+            this.entry = entry;
+            this.time = time;
+            this.space = space;
+            this.sizes = sizes;
+            this.note = note;
+        }
+
+        static Verdict failed(DSAPattern pattern, String note) {
+            return new Verdict(pattern, Status.FAILED, null, null, null, 0, note);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format("%-9s %s", status, key));
+            if (entry != null) sb.append(" [").append(entry).append(']');
+            if (time != null) {
+                sb.append(String.format("%n          time  declared %-12s measured %s",
+                    declaredTime, time));
+            }
+            if (space != null) {
+                sb.append(String.format("%n          space declared %-12s allocates %s",
+                    declaredSpace, space));
+            }
+            if (note != null) sb.append(String.format("%n          %s", note));
+            return sb.toString();
+        }
+    }
+
+    /**
+     * CI gate: exit status 1 if any pattern's measured growth contradicts its label.
+     */
+    public static void main(String[] args) {
+        Path dir = args.length > 0 ? Paths.get(args[0]) : Paths.get("resources");
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : defaultParallelism();
+
+        FilePatternSource source = new FilePatternSource(dir, FilePatternSource.StorageMode.HEAP,
+            FilePatternSource.DedupeMode.OFF);
+        long start = System.nanoTime();
+        List<Verdict> verdicts = new ComplexityHarness(parallelism, DEFAULT_TIMEOUT_SECONDS,
+            ComplexityProbe.DEFAULT_MAX_SIZE).verify(source.getAllPatterns().values());
+
+        Map<Status, Integer> counts = new EnumMap<>(Status.class);
+        for (Verdict v : verdicts) {
+            System.out.println(v);
+            counts.merge(v.status, 1, Integer::sum);
+        }
+        System.out.printf("%nComplexity check: %s in %.1f s (%d workers)%n",
+            counts, (System.nanoTime() - start) / 1e9, parallelism);
+        System.exit(counts.getOrDefault(Status.MISMATCH, 0) > 0 ? 1 : 0);
+    }
+}
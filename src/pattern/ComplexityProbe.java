@@ -0,0 +1,376 @@
+package pattern;
+
+import util.InMemoryJavaCompiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Worker side of ComplexityHarness: runs in its own JVM, one pattern per process.
+ *
+ * Reads a JAVA_TEMPLATE from stdin, compiles it in memory, picks the first public
+ * method of {@code Solution} whose parameters it can generate, warms it up, then
+ * times it on inputs that double in size. Methods that leave their arguments
+ * untouched are timed as repeated calls on one input, which keeps it in cache
+ * and amortizes the timer, so a sub-microsecond O(log n) call is not swamped by
+ * cache misses on a freshly generated array. One line per result goes to stdout as
+ * soon as it is known, so a killed worker still leaves its finished sizes behind:
+ *
+ *   ENTRY Solution.maxSubArray(int[])
+ *   POINT <n> <median nanos per call> <min bytes allocated per call>
+ *   STOP <n> <reason>        (size that threw, e.g. StackOverflowError)
+ *   SKIP <reason>            (nothing measurable)
+ */
+public class ComplexityProbe {
+
+    static final int MIN_SIZE = 64;
+    // 512 KB int[]: larger inputs fall out of cache and misses add growth the algorithm doesn't have
+    static final int DEFAULT_MAX_SIZE = 1 << 17;
+
+    private static final long WARM_UP_NANOS = 300_000_000L;
+    private static final long SIZE_MEASURED_NANOS = 25_000_000L;
+    private static final long SIZE_WALL_NANOS = 400_000_000L;
+    private static final long SLOWEST_CALL_NANOS = 250_000_000L;
+    private static final long TOTAL_BUDGET_NANOS = 8_000_000_000L;
+    private static final long BATCH_NANOS = 20_000L;
+    private static final int MIN_CALLS = 5;
+    private static final int MAX_CALLS = 500;
+    private static final int MAX_REPEAT = 4096;
+
+    // Results feed this so the JIT cannot drop calls whose value is unused
+    private static volatile int sink;
+
+    private static final String IMPORTS = "import java.util.*;\nimport java.util.function.*;\n";
+
+    private final Method method;
+    private final Constructor<?> constructor;
+    private final Random random = new Random(42);
+    private final com.sun.management.ThreadMXBean threads;
+    private boolean pure;
+    private int repeat = 1;
+
+    private ComplexityProbe(Method method, Constructor<?> constructor) {
+        this.method = method;
+        this.constructor = constructor;
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threads = bean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+            ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+
+    /**
+     * args: [maxSize]
+     */
+    public static void main(String[] args) throws IOException {
+        int maxSize = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAX_SIZE;
+        String template = stripFences(new String(readAll(System.in), StandardCharsets.UTF_8));
+
+        InMemoryJavaCompiler.Result compiled = InMemoryJavaCompiler.shared().compile("Template", IMPORTS + template);
+        if (!compiled.success) {
+            emit("SKIP does not compile: " + (compiled.errors.isEmpty() ? "unknown error" : compiled.errors.get(0)));
+            return;
+        }
+        Class<?> solution;
+        try {
+            solution = compiled.newClassLoader(ComplexityProbe.class.getClassLoader()).loadClass("Solution");
+        } catch (ClassNotFoundException e) {
+            emit("SKIP no Solution class");
+            return;
+        }
+
+        Method entry = pickEntry(solution, template);
+        if (entry == null) {
+            emit("SKIP no public Solution method with generatable parameters");
+            return;
+        }
+        Constructor<?> constructor = null;
+        if (!Modifier.isStatic(entry.getModifiers())) {
+            try {
+                constructor = solution.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                emit("SKIP Solution has no no-arg constructor");
+                return;
+            }
+        }
+        entry.setAccessible(true);
+        emit("ENTRY " + describe(entry));
+        new ComplexityProbe(entry, constructor).run(maxSize);
+    }
+
+    private void run(int maxSize) {
+        long start = System.nanoTime();
+        try {
+            Object[] args = arguments(MIN_SIZE);
+            Object[] before = copyOf(args);
+            call(args);
+            pure = Arrays.deepEquals(args, before);
+
+            // Warm-up at the smallest size so timings below are compiled code
+            long warmUpEnd = System.nanoTime() + WARM_UP_NANOS;
+            for (int i = 0; i < 20_000 && System.nanoTime() < warmUpEnd; i++) {
+                args = arguments(MIN_SIZE);
+                long t0 = System.nanoTime();
+                for (int r = 0; r < repeat; r++) {
+                    sink += System.identityHashCode(call(args));
+                }
+                adjustRepeat(System.nanoTime() - t0);
+            }
+        } catch (Throwable t) {
+            emit("STOP " + MIN_SIZE + " " + reason(t));
+            return;
+        }
+
+        for (int n = MIN_SIZE; n <= maxSize; n <<= 1) {
+            long sizeStart = System.nanoTime();
+            long[] times = new long[MAX_CALLS];
+            long minBytes = Long.MAX_VALUE;
+            long measured = 0;
+            int calls = 0;
+            int metric = n;
+            try {
+                while (calls < MAX_CALLS
+                        && (calls < MIN_CALLS || measured < SIZE_MEASURED_NANOS)
+                        && System.nanoTime() - sizeStart < SIZE_WALL_NANOS) {
+                    Object[] args = arguments(n);
+                    metric = sizeOf(args, n);
+                    Object target = constructor != null ? constructor.newInstance() : null;
+                    long bytesBefore = allocatedBytes();
+                    long t0 = System.nanoTime();
+                    for (int r = 0; r < repeat; r++) {
+                        sink += System.identityHashCode(method.invoke(target, args));
+                    }
+                    long elapsed = System.nanoTime() - t0;
+                    long bytes = allocatedBytes() - bytesBefore;
+                    times[calls++] = elapsed / repeat;
+                    measured += elapsed;
+                    minBytes = Math.min(minBytes, bytes / repeat);
+                    adjustRepeat(elapsed);
+                }
+            } catch (Throwable t) {
+                emit("STOP " + n + " " + reason(t));
+                return;
+            }
+            Arrays.sort(times, 0, calls);
+            long median = times[calls / 2];
+            emit("POINT " + metric + " " + median + " " + (threads != null ? minBytes : -1));
+
+            if (median > SLOWEST_CALL_NANOS || System.nanoTime() - start > TOTAL_BUDGET_NANOS) {
+                return;
+            }
+        }
+    }
+
+    // Pure methods: grow the batch until it spans BATCH_NANOS, shrink when far above
+    private void adjustRepeat(long elapsed) {
+        if (!pure) return;
+        if (elapsed < BATCH_NANOS && repeat < MAX_REPEAT) repeat <<= 1;
+        else if (elapsed > 8 * BATCH_NANOS && repeat > 1) repeat >>= 1;
+    }
+
+    private Object call(Object[] args) throws ReflectiveOperationException {
+        Object target = constructor != null ? constructor.newInstance() : null;
+        return method.invoke(target, args);
+    }
+
+    private long allocatedBytes() {
+        return threads != null ? threads.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    // ---- Entry point selection ----
+
+    /**
+     * First public method in source order whose parameters can all be generated
+     * and at least one of which scales with n.
+     */
+    static Method pickEntry(Class<?> solution, String source) {
+        List<Method> candidates = new ArrayList<>();
+        for (Method m : solution.getDeclaredMethods()) {
+            if (Modifier.isPublic(m.getModifiers()) && !m.isSynthetic() && supported(m.getParameterTypes())) {
+                candidates.add(m);
+            }
+        }
+        candidates.sort(Comparator.comparingInt(m -> {
+            int at = source.indexOf(" " + m.getName() + "(");
+            return at < 0 ? Integer.MAX_VALUE : at;
+        }));
+        return candidates.isEmpty() ? null : candidates.get(0);
+    }
+
+    private static boolean supported(Class<?>[] types) {
+        if (types.length == 0) return false;
+        for (Class<?> t : types) {
+            if (!(t == int.class || t == long.class || t == double.class || t == boolean.class
+                    || t == int[].class || t == long[].class || t == double[].class || t == char[].class
+                    || t == int[][].class || t == char[][].class || t == String.class
+                    || t == String[].class || t == List.class)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String describe(Method m) {
+        StringBuilder sb = new StringBuilder(m.getDeclaringClass().getSimpleName()).append('.')
+            .append(m.getName()).append('(');
+        Class<?>[] types = m.getParameterTypes();
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(types[i].getSimpleName());
+        }
+        return sb.append(')').toString();
+    }
+
+    // ---- Input generation ----
+
+    /**
+     * Arguments of size n. Arrays are shuffled permutations of 1..n (valid input
+     * for index-as-value patterns like cyclic sort), strings are random lowercase,
+     * 2-D arrays are sqrt(n) x sqrt(n) 0/1 grids. An int is n itself when nothing
+     * else scales (fibonacci(n)), otherwise n / 2 (a k, target or bound).
+     */
+    private Object[] arguments(int n) {
+        Class<?>[] types = method.getParameterTypes();
+        boolean intsScale = true;
+        for (Class<?> t : types) {
+            if (!t.isPrimitive()) intsScale = false;
+        }
+        int side = Math.max(1, (int) Math.round(Math.sqrt(n)));
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Class<?> t = types[i];
+            if (t == int.class) args[i] = intsScale ? n : n / 2;
+            else if (t == long.class) args[i] = (long) (intsScale ? n : n / 2);
+            else if (t == double.class) args[i] = 0.5;
+            else if (t == boolean.class) args[i] = Boolean.FALSE;
+            else if (t == int[].class) args[i] = permutation(n);
+            else if (t == long[].class) args[i] = Arrays.stream(permutation(n)).asLongStream().toArray();
+            else if (t == double[].class) args[i] = random.doubles(n).toArray();
+            else if (t == char[].class) args[i] = letters(n).toCharArray();
+            else if (t == String.class) args[i] = letters(n);
+            else if (t == String[].class) args[i] = words(n);
+            else if (t == List.class) args[i] = boxed(permutation(n));
+            else if (t == int[][].class) args[i] = intGrid(side);
+            else if (t == char[][].class) args[i] = charGrid(side);
+        }
+        return args;
+    }
+
+    private static Object[] copyOf(Object[] args) {
+        Object[] copy = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            if (arg instanceof int[][]) {
+                int[][] grid = ((int[][]) arg).clone();
+                for (int r = 0; r < grid.length; r++) grid[r] = grid[r].clone();
+                copy[i] = grid;
+            } else if (arg instanceof char[][]) {
+                char[][] grid = ((char[][]) arg).clone();
+                for (int r = 0; r < grid.length; r++) grid[r] = grid[r].clone();
+                copy[i] = grid;
+            } else if (arg instanceof int[]) copy[i] = ((int[]) arg).clone();
+            else if (arg instanceof long[]) copy[i] = ((long[]) arg).clone();
+            else if (arg instanceof double[]) copy[i] = ((double[]) arg).clone();
+            else if (arg instanceof char[]) copy[i] = ((char[]) arg).clone();
+            else if (arg instanceof String[]) copy[i] = ((String[]) arg).clone();
+            else if (arg instanceof List) copy[i] = new ArrayList<>((List<?>) arg);
+            else copy[i] = arg;
+        }
+        return copy;
+    }
+
+    // The n the point is reported at: cells for grids, otherwise the requested size
+    private static int sizeOf(Object[] args, int n) {
+        for (Object arg : args) {
+            if (arg instanceof int[][]) return ((int[][]) arg).length * ((int[][]) arg).length;
+            if (arg instanceof char[][]) return ((char[][]) arg).length * ((char[][]) arg).length;
+        }
+        return n;
+    }
+
+    private int[] permutation(int n) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = i + 1;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+        return values;
+    }
+
+    private String letters(int n) {
+        char[] chars = new char[n];
+        for (int i = 0; i < n; i++) chars[i] = (char) ('a' + random.nextInt(26));
+        return new String(chars);
+    }
+
+    private String[] words(int n) {
+        String[] words = new String[n];
+        for (int i = 0; i < n; i++) words[i] = letters(5);
+        return words;
+    }
+
+    private static List<Integer> boxed(int[] values) {
+        List<Integer> list = new ArrayList<>(values.length);
+        for (int v : values) list.add(v);
+        return list;
+    }
+
+    private int[][] intGrid(int side) {
+        int[][] grid = new int[side][side];
+        for (int[] row : grid) {
+            for (int j = 0; j < side; j++) row[j] = random.nextInt(2);
+        }
+        return grid;
+    }
+
+    private char[][] charGrid(int side) {
+        char[][] grid = new char[side][side];
+        for (char[] row : grid) {
+            for (int j = 0; j < side; j++) row[j] = random.nextBoolean() ? '1' : '0';
+        }
+        return grid;
+    }
+
+    // ---- Helpers ----
+
+    static String stripFences(String template) {
+        String trimmed = template.trim();
+        if (trimmed.startsWith("```")) {
+            int firstLine = trimmed.indexOf('\n');
+            trimmed = firstLine < 0 ? "" : trimmed.substring(firstLine + 1);
+        }
+        if (trimmed.endsWith("```")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 3);
+        }
+        return trimmed;
+    }
+
+    private static String reason(Throwable t) {
+        Throwable cause = t instanceof InvocationTargetException && t.getCause() != null ? t.getCause() : t;
+        return cause.getClass().getSimpleName();
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static void emit(String line) {
+        System.out.println(line);
+        System.out.flush();
+    }
+}
@@ -0,0 +1,180 @@
+package pattern;
+
+import util.WorkerPools;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * SOLID - Open/Closed Principle + Composite Pattern
+ * Scatter-gather over N shard PatternSources.
+ * Every query fans out to all shards in parallel; a shard that does not answer
+ * within the per-shard timeout (or fails) contributes nothing instead of stalling
+ * the query. Keyword results are merged and ranked by PatternScorer.
+ *
+ * Shards are plain PatternSources, so a shard can be a directory on disk,
+ * an in-memory partition, or a client for a remote node.
+ */
+public class CompositePatternSource implements PatternSource {
+    private static final long DEFAULT_SHARD_TIMEOUT_MS = 250;
+
+    private final List<PatternSource> shards;
+    private final long shardTimeoutMillis;
+    private final ExecutorService executor;
+    private volatile boolean isLoaded = false;
+
+    public CompositePatternSource(List<PatternSource> shards, long shardTimeoutMillis) {
+        this.shards = List.copyOf(shards);
+        this.shardTimeoutMillis = shardTimeoutMillis;
+        this.executor = WorkerPools.newPerTaskExecutor("pattern-shard", Math.max(4, shards.size() * 4));
+    }
+
+    /**
+     * One FilePatternSource shard per category directory under {@code resourcesRoot}.
+     */
+    public static CompositePatternSource byCategoryDirectory(Path resourcesRoot) {
+        List<PatternSource> shards = new ArrayList<>();
+        try (Stream<Path> dirs = Files.list(resourcesRoot)) {
+            dirs.filter(Files::isDirectory)
+                .sorted()
+                .forEach(dir -> shards.add(new FilePatternSource(dir)));
+        } catch (IOException e) {
+            System.err.println("[CompositePatternSource] Cannot list " + resourcesRoot + ": " + e.getMessage());
+        }
+        return new CompositePatternSource(shards, DEFAULT_SHARD_TIMEOUT_MS);
+    }
+
+    /**
+     * Partition an existing source into {@code shardCount} in-memory shards by key hash.
+     */
+    public static CompositePatternSource byKeyHash(PatternSource source, int shardCount) {
+        source.loadPatterns();
+        List<List<DSAPattern>> partitions = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (Map.Entry<String, DSAPattern> entry : source.getAllPatterns().entrySet()) {
+            partitions.get(Math.floorMod(entry.getKey().hashCode(), shardCount)).add(entry.getValue());
+        }
+
+        List<PatternSource> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new InMemoryPatternSource("shard-" + i, partitions.get(i)));
+        }
+        return new CompositePatternSource(shards, DEFAULT_SHARD_TIMEOUT_MS);
+    }
+
+    @Override
+    public synchronized void loadPatterns() {
+        if (isLoaded) return;
+        // Loading is not subject to the query timeout
+        CompletableFuture.allOf(shards.stream()
+                .map(shard -> CompletableFuture.runAsync(shard::loadPatterns, executor))
+                .toArray(CompletableFuture[]::new))
+            .join();
+        isLoaded = true;
+        System.out.println("[CompositePatternSource] Loaded " + shards.size() + " shards");
+    }
+
+    @Override
+    public Optional<DSAPattern> findByKey(String key) {
+        if (!isLoaded) loadPatterns();
+        return scatter(shard -> shard.findByKey(key), Optional.<DSAPattern>empty()).stream()
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .findFirst();
+    }
+
+    /**
+     * All matches from every shard, best score first.
+     */
+    @Override
+    public List<DSAPattern> searchByKeyword(String keyword) {
+        return searchTopK(keyword, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Top-k keyword matches across shards, merged by PatternScorer score.
+     */
+    public List<DSAPattern> searchTopK(String keyword, int k) {
+        if (!isLoaded) loadPatterns();
+        return scatter(shard -> shard.searchByKeyword(keyword), Collections.<DSAPattern>emptyList()).stream()
+            .flatMap(List::stream)
+            .distinct()
+            .sorted(Comparator.comparingDouble((DSAPattern p) -> PatternScorer.score(p, keyword)).reversed()
+                .thenComparing(DSAPattern::getKey))
+            .limit(k)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<DSAPattern> getByCategory(String category) {
+        if (!isLoaded) loadPatterns();
+        return scatter(shard -> shard.getByCategory(category), Collections.<DSAPattern>emptyList()).stream()
+            .flatMap(List::stream)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<String, DSAPattern> getAllPatterns() {
+        if (!isLoaded) loadPatterns();
+        Map<String, DSAPattern> all = new HashMap<>();
+        for (PatternSource shard : shards) {
+            all.putAll(shard.getAllPatterns());
+        }
+        return all;
+    }
+
+    @Override
+    public void forEachPattern(Consumer<? super DSAPattern> action) {
+        if (!isLoaded) loadPatterns();
+        for (PatternSource shard : shards) {
+            shard.forEachPattern(action);
+        }
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return isLoaded;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Run {@code query} on every shard in parallel and gather the answers.
+     * A shard that times out or fails yields {@code fallback}.
+     */
+    private <T> List<T> scatter(Function<PatternSource, T> query, T fallback) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (PatternSource shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(shard), executor)
+                .completeOnTimeout(null, shardTimeoutMillis, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    System.err.println("[CompositePatternSource] Shard " + shard + " failed: " + e.getMessage());
+                    return fallback;
+                }));
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            T result = futures.get(i).join();
+            if (result == null) {
+                System.err.println("[CompositePatternSource] Shard " + shards.get(i) + " timed out");
+                result = fallback;
+            }
+            results.add(result);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,65 @@
+package pattern;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * DSAPattern whose Java template is kept deflated by a shared TemplateCodec.
+ * Every other field stays a plain String; the template, by far the largest and most
+ * repetitive field, is inflated only when something reads it, and the codec's LRU
+ * keeps recently shown ones decoded.
+ */
+public class CompressedDSAPattern extends DSAPattern {
+
+    private final TemplateCodec codec;
+    private volatile byte[] template;
+    private volatile int templateLength;
+
+    private CompressedDSAPattern(DSAPattern source, TemplateCodec codec) {
+        super.setKey(source.getKey());
+        super.setName(source.getName());
+        super.setAliases(source.getAliases());
+        super.setCategory(source.getCategory());
+        super.setDifficulty(source.getDifficulty());
+        super.setDescription(source.getDescription());
+        super.setIntuition(source.getIntuition());
+        super.setWhenToUse(source.getWhenToUse());
+        super.setTimeComplexity(source.getTimeComplexity());
+        super.setSpaceComplexity(source.getSpaceComplexity());
+        super.setCommonMistakes(source.getCommonMistakes());
+        super.setExampleProblems(source.getExampleProblems());
+        this.codec = codec;
+        setJavaTemplate(source.getJavaTemplate());
+    }
+
+    /**
+     * Copy a parsed pattern, compressing its template with {@code codec}.
+     */
+    public static CompressedDSAPattern copyOf(DSAPattern source, TemplateCodec codec) {
+        return new CompressedDSAPattern(source, codec);
+    }
+
+    @Override
+    public String getJavaTemplate() {
+        byte[] data = template;
+        return data == null ? null : codec.decode(this, data, templateLength);
+    }
+
+    @Override
+    public synchronized void setJavaTemplate(String javaTemplate) {
+        if (javaTemplate == null) {
+            template = null;
+        } else {
+            templateLength = javaTemplate.getBytes(StandardCharsets.UTF_8).length;
+            template = codec.compress(javaTemplate);
+        }
+        codec.evict(this);
+    }
+
+    /**
+     * Bytes the template occupies compressed (0 if there is none).
+     */
+    public int compressedBytes() {
+        byte[] data = template;
+        return data == null ? 0 : data.length;
+    }
+}
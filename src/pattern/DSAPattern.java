@@ -98,7 +98,7 @@ public class DSAPattern {
                 
                 Example Problems:
                 %s
-                """.formatted(key, category, difficulty, timeComplexity, spaceComplexity,
-                        description, whenToUse, javaTemplate, exampleProblems);
+                """.formatted(getKey(), getCategory(), getDifficulty(), getTimeComplexity(), getSpaceComplexity(),
+                        getDescription(), getWhenToUse(), getJavaTemplate(), getExampleProblems());
     }
 }
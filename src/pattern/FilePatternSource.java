@@ -1,5 +1,7 @@
 package pattern;
 
+import util.Settings;
+
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -7,6 +9,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -18,14 +21,89 @@ import java.util.stream.Stream;
 public class FilePatternSource implements PatternSource {
     private static final String RESOURCES_BASE = "resources";
     private final Map<String, DSAPattern> patterns = new ConcurrentHashMap<>();
-    private boolean isLoaded = false;
+    private final Map<String, String> mergedInto = new ConcurrentHashMap<>();
+    private final Path resourcesPath;
+    private final StorageMode storageMode;
+    private final DedupeMode dedupeMode;
+    private final PatternTextArena arena;
+    private volatile NearDuplicateDetector.Report dedupeReport;
+    private volatile boolean isLoaded = false;
+
+    /**
+     * Where loaded pattern text is kept.
+     * HEAP     - plain Strings (default)
+     * OFF_HEAP - one direct-buffer PatternTextArena, decoded on access;
+     *            keeps the live heap small for very large corpora
+     * COMPRESSED - templates deflated against a dictionary trained on the
+     *            corpus (TemplateCodec), inflated into a small LRU when read
+     */
+    public enum StorageMode {
+        HEAP, OFF_HEAP, COMPRESSED;
+
+        /**
+         * From DSA_PATTERN_STORAGE ("heap", "offheap" or "compressed"), defaulting to HEAP.
+         */
+        public static StorageMode fromEnvironment() {
+            String value = Settings.setting("DSA_PATTERN_STORAGE", "heap");
+            String normalized = value.trim().replace("-", "").replace("_", "");
+            if (normalized.equalsIgnoreCase("heap")) return HEAP;
+            if (normalized.equalsIgnoreCase("offheap")) return OFF_HEAP;
+            if (normalized.equalsIgnoreCase("compressed")) return COMPRESSED;
+            System.err.println("[FilePatternSource] Invalid DSA_PATTERN_STORAGE '" + value + "', using HEAP");
+            return HEAP;
+        }
+    }
+
+    /**
+     * What the load-time near-duplicate check does (DSA_DEDUPE).
+     * OFF   - skip the check
+     * FLAG  - log near-duplicate pairs, keep everything (default)
+     * MERGE - keep one pattern per pair; the other's key and aliases become
+     *         aliases and its key still resolves through findByKey, also when
+     *         the survivor is later merged into a third pattern
+     */
+    public enum DedupeMode {
+        OFF, FLAG, MERGE;
+
+        public static DedupeMode fromEnvironment() {
+            String value = Settings.setting("DSA_DEDUPE", "FLAG");
+            if (value.isBlank()) return FLAG;
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.err.println("[FilePatternSource] Invalid DSA_DEDUPE '" + value + "', using FLAG");
+                return FLAG;
+            }
+        }
+    }
+
+    public FilePatternSource() {
+        this(Paths.get(RESOURCES_BASE));
+    }
+
+    /**
+     * @param resourcesPath Directory to scan recursively for pattern .txt files
+     */
+    public FilePatternSource(Path resourcesPath) {
+        this(resourcesPath, StorageMode.fromEnvironment());
+    }
+
+    public FilePatternSource(Path resourcesPath, StorageMode storageMode) {
+        this(resourcesPath, storageMode, DedupeMode.fromEnvironment());
+    }
+
+    public FilePatternSource(Path resourcesPath, StorageMode storageMode, DedupeMode dedupeMode) {
+        this.resourcesPath = resourcesPath;
+        this.storageMode = storageMode;
+        this.dedupeMode = dedupeMode;
+        this.arena = storageMode == StorageMode.OFF_HEAP ? new PatternTextArena() : null;
+    }
 
     @Override
-    public void loadPatterns() {
+    public synchronized void loadPatterns() {
         if (isLoaded) return;
 
         try {
-            Path resourcesPath = Paths.get(RESOURCES_BASE);
             if (!Files.exists(resourcesPath)) {
                 System.err.println("[FilePatternSource] Resource directory not found: " + resourcesPath.toAbsolutePath());
                 isLoaded = true;
@@ -33,30 +111,126 @@ public class FilePatternSource implements PatternSource {
             }
 
             // Load all .txt files from all subdirectories
+            Map<String, DSAPattern> parsed = new LinkedHashMap<>();
             try (Stream<Path> paths = Files.walk(resourcesPath)) {
                 paths.filter(p -> p.toString().endsWith(".txt"))
-                     .forEach(this::loadPatternFile);
+                     .sorted()
+                     .forEach(p -> loadPatternFile(p, parsed));
+            }
+            if (dedupeMode != DedupeMode.OFF) {
+                dedupe(parsed);
+            }
+            TemplateCodec codec = storageMode == StorageMode.COMPRESSED ? trainCodec(parsed) : null;
+            long templateBytes = 0;
+            long compressedBytes = 0;
+            for (Map.Entry<String, DSAPattern> entry : parsed.entrySet()) {
+                DSAPattern pattern = entry.getValue();
+                if (arena != null) {
+                    pattern = OffHeapDSAPattern.copyOf(pattern, arena);
+                } else if (codec != null) {
+                    templateBytes += length(pattern.getJavaTemplate());
+                    CompressedDSAPattern compressed = CompressedDSAPattern.copyOf(pattern, codec);
+                    compressedBytes += compressed.compressedBytes();
+                    pattern = compressed;
+                }
+                patterns.put(entry.getKey(), pattern);
             }
             isLoaded = true;
-            System.out.println("[FilePatternSource] Loaded " + patterns.size() + " patterns");
+            System.out.println("[FilePatternSource] Loaded " + patterns.size() + " patterns from " + resourcesPath
+                + (arena != null ? " (" + arena.usedBytes() / 1024 + " KB text off-heap)" : "")
+                + (codec != null ? " (templates " + templateBytes / 1024 + " KB -> " + compressedBytes / 1024
+                    + " KB compressed, " + codec.dictionaryBytes() / 1024 + " KB dictionary)" : ""));
         } catch (IOException e) {
             System.err.println("[FilePatternSource] Error loading patterns: " + e.getMessage());
             isLoaded = true;
         }
     }
 
-    private void loadPatternFile(Path filePath) {
+    private static TemplateCodec trainCodec(Map<String, DSAPattern> parsed) {
+        List<String> templates = new ArrayList<>(parsed.size());
+        for (DSAPattern pattern : parsed.values()) {
+            templates.add(pattern.getJavaTemplate());
+        }
+        return TemplateCodec.train(templates);
+    }
+
+    private void loadPatternFile(Path filePath, Map<String, DSAPattern> parsed) {
         try {
             String content = new String(Files.readAllBytes(filePath), StandardCharsets.UTF_8);
             DSAPattern pattern = PatternParser.parse(content);
             if (pattern != null && pattern.getKey() != null && !pattern.getKey().isEmpty()) {
-                patterns.put(pattern.getKey().toUpperCase(), pattern);
+                parsed.put(pattern.getKey().toUpperCase(), pattern);
             }
         } catch (IOException e) {
             System.err.println("[FilePatternSource] Error reading " + filePath + ": " + e.getMessage());
         }
     }
 
+    /**
+     * Flag or merge near-duplicates (MinHash/LSH over template + intuition).
+     * On merge the pattern with the longer template survives.
+     */
+    private void dedupe(Map<String, DSAPattern> parsed) {
+        NearDuplicateDetector.Report report = new NearDuplicateDetector().detect(parsed);
+        dedupeReport = report;
+        if (report.isClean()) return;
+
+        for (NearDuplicateDetector.Duplicate d : report.duplicates) {
+            System.out.println("[FilePatternSource] Near-duplicate: " + d);
+            if (dedupeMode != DedupeMode.MERGE) continue;
+
+            // A pattern merged away earlier is represented by the one it went into
+            DSAPattern first = parsed.get(mergedRoot(d.first));
+            DSAPattern second = parsed.get(mergedRoot(d.second));
+            if (first == null || second == null || first == second) continue;
+            boolean keepFirst = length(first.getJavaTemplate()) >= length(second.getJavaTemplate());
+            DSAPattern survivor = keepFirst ? first : second;
+            DSAPattern dropped = keepFirst ? second : first;
+
+            String droppedName = dropped.getKey().replace('_', ' ').toLowerCase();
+            survivor.setAliases(mergeAliases(survivor.getAliases(), droppedName, dropped.getAliases()));
+            String droppedKey = dropped.getKey().toUpperCase();
+            String survivorKey = survivor.getKey().toUpperCase();
+            parsed.remove(droppedKey);
+            // Keys merged into the dropped pattern earlier now resolve to the survivor too
+            mergedInto.replaceAll((from, into) -> into.equals(droppedKey) ? survivorKey : into);
+            mergedInto.put(droppedKey, survivorKey);
+            System.out.println("[FilePatternSource] Merged " + dropped.getKey() + " into " + survivor.getKey());
+        }
+    }
+
+    private String mergedRoot(String key) {
+        String normalized = key.toUpperCase();
+        return mergedInto.getOrDefault(normalized, normalized);
+    }
+
+    /**
+     * Comma-separated union of alias lists, first spelling kept, case-insensitively unique.
+     */
+    private static String mergeAliases(String... lists) {
+        Map<String, String> merged = new LinkedHashMap<>();
+        for (String list : lists) {
+            if (list == null) continue;
+            for (String alias : list.split(",")) {
+                String trimmed = alias.trim();
+                if (!trimmed.isEmpty()) merged.putIfAbsent(trimmed.toLowerCase(), trimmed);
+            }
+        }
+        return String.join(", ", merged.values());
+    }
+
+    private static int length(String text) {
+        return text == null ? 0 : text.length();
+    }
+
+    /**
+     * Near-duplicate report from the last load, or null if the check was off.
+     */
+    public NearDuplicateDetector.Report getDedupeReport() {
+        if (!isLoaded) loadPatterns();
+        return dedupeReport;
+    }
+
     private DSAPattern parsePatternFile(String content) {
         // Delegate to PatternParser for enhanced format
         return PatternParser.parse(content);
@@ -65,7 +239,7 @@ public class FilePatternSource implements PatternSource {
     @Override
     public Optional<DSAPattern> findByKey(String key) {
         if (!isLoaded) loadPatterns();
-        return Optional.ofNullable(patterns.get(key.toUpperCase()));
+        return Optional.ofNullable(patterns.get(mergedRoot(key)));
     }
 
     @Override
@@ -92,13 +266,24 @@ public class FilePatternSource implements PatternSource {
             .collect(Collectors.toList());
     }
 
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
+
     @Override
     public boolean isLoaded() {
         return isLoaded;
     }
 
+    @Override
     public Map<String, DSAPattern> getAllPatterns() {
         if (!isLoaded) loadPatterns();
-        return new HashMap<>(patterns);
+        return Collections.unmodifiableMap(patterns);
+    }
+
+    @Override
+    public void forEachPattern(Consumer<? super DSAPattern> action) {
+        if (!isLoaded) loadPatterns();
+        patterns.values().forEach(action);
     }
 }
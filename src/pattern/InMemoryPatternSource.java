@@ -0,0 +1,68 @@
+package pattern;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * PatternSource over patterns that are already in memory.
+ * Serves as a shard of a CompositePatternSource and as a local-process
+ * stand-in for a remote pattern node.
+ */
+public class InMemoryPatternSource implements PatternSource {
+    private final String name;
+    private final Map<String, DSAPattern> patterns = new ConcurrentHashMap<>();
+
+    public InMemoryPatternSource(String name, Collection<DSAPattern> patterns) {
+        this.name = name;
+        for (DSAPattern pattern : patterns) {
+            this.patterns.put(pattern.getKey().toUpperCase(), pattern);
+        }
+    }
+
+    @Override
+    public Optional<DSAPattern> findByKey(String key) {
+        return Optional.ofNullable(patterns.get(key.toUpperCase()));
+    }
+
+    @Override
+    public List<DSAPattern> searchByKeyword(String keyword) {
+        return patterns.values().stream()
+            .filter(p -> PatternScorer.score(p, keyword) > 0)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<DSAPattern> getByCategory(String category) {
+        String normalizedCategory = category.toLowerCase();
+        return patterns.values().stream()
+            .filter(p -> p.getCategory() != null && p.getCategory().toLowerCase().contains(normalizedCategory))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<String, DSAPattern> getAllPatterns() {
+        return Collections.unmodifiableMap(patterns);
+    }
+
+    @Override
+    public void forEachPattern(Consumer<? super DSAPattern> action) {
+        patterns.values().forEach(action);
+    }
+
+    @Override
+    public void loadPatterns() {
+        // Already in memory
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + patterns.size() + " patterns)";
+    }
+}
@@ -0,0 +1,87 @@
+package pattern;
+
+import java.util.*;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Term -> pattern postings over the descriptive fields, so multi-word keyword
+ * queries touch only the patterns containing their terms instead of scanning
+ * every pattern's text.
+ *
+ * Each posting carries the weight of the strongest field the term appears in
+ * (key > aliases > when-to-use > description > examples).
+ */
+public class InvertedIndex {
+
+    private static final float KEY_WEIGHT = 1.0f;
+    private static final float ALIAS_WEIGHT = 0.8f;
+    private static final float WHEN_TO_USE_WEIGHT = 0.5f;
+    private static final float DESCRIPTION_WEIGHT = 0.4f;
+    private static final float EXAMPLES_WEIGHT = 0.3f;
+
+    private final Map<String, Map<String, Float>> postings = new HashMap<>();
+    private final int documentCount;
+
+    public InvertedIndex(Collection<DSAPattern> patterns) {
+        for (DSAPattern p : patterns) {
+            String key = p.getKey();
+            add(key, key.replace('_', ' '), KEY_WEIGHT);
+            add(key, p.getAliases(), ALIAS_WEIGHT);
+            add(key, p.getWhenToUse(), WHEN_TO_USE_WEIGHT);
+            add(key, p.getDescription(), DESCRIPTION_WEIGHT);
+            add(key, p.getExampleProblems(), EXAMPLES_WEIGHT);
+        }
+        this.documentCount = patterns.size();
+    }
+
+    private void add(String key, String field, float weight) {
+        if (field == null || field.isEmpty()) return;
+        for (String term : TextTokenizer.terms(field)) {
+            postings.computeIfAbsent(term, t -> new HashMap<>()).merge(key, weight, Math::max);
+        }
+    }
+
+    /**
+     * Score every pattern containing at least one query term. A score is the
+     * idf-weighted fraction of the query terms matched, scaled by field weight,
+     * so it lies in [0, 1].
+     */
+    public Map<String, Float> search(List<String> queryTerms) {
+        Map<String, Float> scores = new HashMap<>();
+        float totalIdf = 0;
+        for (String term : queryTerms) {
+            Map<String, Float> docs = postings.get(term);
+            float idf = idf(docs == null ? 0 : docs.size());
+            totalIdf += idf;
+            if (docs == null) continue;
+            for (Map.Entry<String, Float> posting : docs.entrySet()) {
+                scores.merge(posting.getKey(), idf * posting.getValue(), Float::sum);
+            }
+        }
+        if (totalIdf > 0) {
+            float norm = totalIdf;
+            scores.replaceAll((key, score) -> score / norm);
+        }
+        return scores;
+    }
+
+    /**
+     * Total postings across the query terms: the work {@link #search} will do.
+     */
+    public int postingCount(List<String> queryTerms) {
+        int count = 0;
+        for (String term : queryTerms) {
+            Map<String, Float> docs = postings.get(term);
+            if (docs != null) count += docs.size();
+        }
+        return count;
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    private float idf(int documentFrequency) {
+        return (float) (Math.log((documentCount + 1.0) / (documentFrequency + 1.0)) + 1.0);
+    }
+}
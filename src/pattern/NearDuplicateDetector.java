@@ -0,0 +1,240 @@
+package pattern;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for finding near-duplicate patterns in a corpus.
+ *
+ * Each pattern's template and intuition are split into word 3-shingles and reduced
+ * to a MinHash signature; the fraction of equal signature slots estimates the
+ * Jaccard similarity of the shingle sets. Signatures are cut into LSH bands and
+ * only patterns sharing a band bucket are compared, so the work grows with the
+ * number of similar pairs rather than with n^2.
+ *
+ * Also a CI gate: {@code java -cp out pattern.NearDuplicateDetector [dir] [threshold]}
+ * prints the report and exits with status 1 when near-duplicates exist.
+ */
+public class NearDuplicateDetector {
+
+    public static final double DEFAULT_THRESHOLD = 0.8;
+
+    private static final int SIGNATURE_SIZE = 128;
+    private static final int SHINGLE_WORDS = 3;
+
+    private final double threshold;
+    private final int bands;
+    private final int rows;
+    private final long[] seeds = new long[SIGNATURE_SIZE];
+
+    public NearDuplicateDetector() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threshold Minimum estimated Jaccard similarity to report a pair
+     */
+    public NearDuplicateDetector(double threshold) {
+        this.threshold = threshold;
+        // Band shape whose candidate cut-off (1/b)^(1/r) sits just below the threshold,
+        // so pairs at the threshold are almost always compared: 0.8 -> 16 x 8 (~0.71)
+        int bestRows = 1;
+        for (int r = 1; r <= SIGNATURE_SIZE; r <<= 1) {
+            double cutOff = Math.pow(1.0 / (SIGNATURE_SIZE / r), 1.0 / r);
+            if (cutOff <= threshold - 0.05) bestRows = r;
+        }
+        this.rows = bestRows;
+        this.bands = SIGNATURE_SIZE / bestRows;
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            seeds[i] = mix(seed);
+        }
+    }
+
+    /**
+     * All pairs at or above the threshold, most similar first.
+     */
+    public Report detect(Map<String, DSAPattern> patterns) {
+        List<String> keys = new ArrayList<>(patterns.keySet());
+        Collections.sort(keys);
+        long[][] signatures = new long[keys.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            signatures[i] = signature(patterns.get(keys.get(i)));
+        }
+
+        // Band buckets -> candidate pairs (each pair once)
+        Set<Long> candidates = new HashSet<>();
+        for (int band = 0; band < bands; band++) {
+            Map<Long, List<Integer>> buckets = new HashMap<>();
+            for (int i = 0; i < signatures.length; i++) {
+                if (signatures[i] == null) continue;
+                buckets.computeIfAbsent(bandHash(signatures[i], band), b -> new ArrayList<>()).add(i);
+            }
+            for (List<Integer> bucket : buckets.values()) {
+                for (int a = 0; a < bucket.size(); a++) {
+                    for (int b = a + 1; b < bucket.size(); b++) {
+                        candidates.add(((long) bucket.get(a) << 32) | bucket.get(b));
+                    }
+                }
+            }
+        }
+
+        List<Duplicate> duplicates = new ArrayList<>();
+        for (long pair : candidates) {
+            int a = (int) (pair >>> 32);
+            int b = (int) pair;
+            double similarity = similarity(signatures[a], signatures[b]);
+            if (similarity >= threshold) {
+                duplicates.add(new Duplicate(keys.get(a), keys.get(b), similarity));
+            }
+        }
+        duplicates.sort(Comparator.comparingDouble((Duplicate d) -> -d.similarity)
+            .thenComparing(d -> d.first).thenComparing(d -> d.second));
+        return new Report(keys.size(), candidates.size(), threshold, bands, rows, duplicates);
+    }
+
+    /**
+     * MinHash signature of template + intuition shingles, or null if both are empty.
+     */
+    long[] signature(DSAPattern pattern) {
+        List<Long> shingles = new ArrayList<>();
+        addShingles(pattern.getJavaTemplate(), shingles);
+        addShingles(pattern.getIntuition(), shingles);
+        if (shingles.isEmpty()) return null;
+
+        long[] signature = new long[SIGNATURE_SIZE];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long shingle : shingles) {
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                long h = mix(shingle ^ seeds[i]);
+                if (h < signature[i]) signature[i] = h;
+            }
+        }
+        return signature;
+    }
+
+    private static void addShingles(String text, List<Long> shingles) {
+        if (text == null || text.isEmpty()) return;
+        String[] words = text.toLowerCase().split("[^a-z0-9]+");
+        List<String> tokens = new ArrayList<>(words.length);
+        for (String w : words) {
+            if (!w.isEmpty()) tokens.add(w);
+        }
+        if (tokens.size() < SHINGLE_WORDS) {
+            if (!tokens.isEmpty()) shingles.add(hash(String.join(" ", tokens)));
+            return;
+        }
+        for (int i = 0; i + SHINGLE_WORDS <= tokens.size(); i++) {
+            shingles.add(hash(String.join(" ", tokens.subList(i, i + SHINGLE_WORDS))));
+        }
+    }
+
+    private static double similarity(long[] a, long[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (a[i] == b[i]) equal++;
+        }
+        return (double) equal / SIGNATURE_SIZE;
+    }
+
+    private long bandHash(long[] signature, int band) {
+        long h = band;
+        for (int i = band * rows; i < (band + 1) * rows; i++) {
+            h = mix(h * 31 + signature[i]);
+        }
+        return h;
+    }
+
+    private static long hash(String text) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            h ^= text.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * One near-duplicate pair, keys in sorted order.
+     */
+    public static final class Duplicate {
+        public final String first;
+        public final String second;
+        public final double similarity;
+
+        Duplicate(String first, String second, double similarity) {
+            this.first = first;
+            this.second = second;
+            this.similarity = similarity;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s ~ %s (%.2f)", first, second, similarity);
+        }
+    }
+
+    /**
+     * Result of one detection run.
+     */
+    public static final class Report {
+        public final int patternCount;
+        public final int candidatePairs;
+        public final double threshold;
+        public final List<Duplicate> duplicates;
+        private final int bands;
+        private final int rows;
+
+        Report(int patternCount, int candidatePairs, double threshold, int bands, int rows,
+               List<Duplicate> duplicates) {
+            this.patternCount = patternCount;
+            this.candidatePairs = candidatePairs;
+            this.threshold = threshold;
+            this.bands = bands;
+            this.rows = rows;
+            this.duplicates = Collections.unmodifiableList(duplicates);
+        }
+
+        public boolean isClean() {
+            return duplicates.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Near-duplicate report: %d patterns, %d LSH candidate pairs (%d bands x %d rows), threshold %.2f%n",
+                patternCount, candidatePairs, bands, rows, threshold));
+            if (duplicates.isEmpty()) {
+                sb.append("No near-duplicates found.\n");
+            }
+            for (Duplicate d : duplicates) {
+                sb.append("  ").append(d).append('\n');
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * CI gate: exit status 1 if the corpus contains near-duplicates.
+     */
+    public static void main(String[] args) {
+        Path dir = args.length > 0 ? Paths.get(args[0]) : Paths.get("resources");
+        double threshold = args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_THRESHOLD;
+
+        FilePatternSource source = new FilePatternSource(dir, FilePatternSource.StorageMode.HEAP,
+            FilePatternSource.DedupeMode.OFF);
+        Report report = new NearDuplicateDetector(threshold).detect(source.getAllPatterns());
+        System.out.print(report);
+        System.exit(report.isClean() ? 0 : 1);
+    }
+}
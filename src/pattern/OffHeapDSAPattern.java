@@ -0,0 +1,74 @@
+package pattern;
+
+/**
+ * DSAPattern whose bulky text fields live in a PatternTextArena.
+ * Key, name, aliases, category and difficulty stay on the heap because indexing and
+ * scoring read them constantly; descriptions, templates and the like are decoded from
+ * off-heap UTF-8 on each access. Instances are read-only.
+ */
+public class OffHeapDSAPattern extends DSAPattern {
+
+    private static final int DESCRIPTION = 0;
+    private static final int INTUITION = 1;
+    private static final int WHEN_TO_USE = 2;
+    private static final int JAVA_TEMPLATE = 3;
+    private static final int TIME_COMPLEXITY = 4;
+    private static final int SPACE_COMPLEXITY = 5;
+    private static final int COMMON_MISTAKES = 6;
+    private static final int EXAMPLE_PROBLEMS = 7;
+
+    private final PatternTextArena arena;
+    private final int record;
+
+    private OffHeapDSAPattern(DSAPattern source, PatternTextArena arena) {
+        super.setKey(source.getKey());
+        super.setName(source.getName());
+        super.setAliases(source.getAliases());
+        super.setCategory(source.getCategory());
+        super.setDifficulty(source.getDifficulty());
+        this.arena = arena;
+        this.record = arena.store(
+            source.getDescription(),
+            source.getIntuition(),
+            source.getWhenToUse(),
+            source.getJavaTemplate(),
+            source.getTimeComplexity(),
+            source.getSpaceComplexity(),
+            source.getCommonMistakes(),
+            source.getExampleProblems());
+    }
+
+    /**
+     * Move the text of a parsed pattern into the arena.
+     */
+    public static OffHeapDSAPattern copyOf(DSAPattern source, PatternTextArena arena) {
+        return new OffHeapDSAPattern(source, arena);
+    }
+
+    @Override public String getDescription() { return arena.get(record, DESCRIPTION); }
+    @Override public String getIntuition() { return arena.get(record, INTUITION); }
+    @Override public String getWhenToUse() { return arena.get(record, WHEN_TO_USE); }
+    @Override public String getJavaTemplate() { return arena.get(record, JAVA_TEMPLATE); }
+    @Override public String getTimeComplexity() { return arena.get(record, TIME_COMPLEXITY); }
+    @Override public String getSpaceComplexity() { return arena.get(record, SPACE_COMPLEXITY); }
+    @Override public String getCommonMistakes() { return arena.get(record, COMMON_MISTAKES); }
+    @Override public String getExampleProblems() { return arena.get(record, EXAMPLE_PROBLEMS); }
+
+    @Override public void setKey(String key) { throw readOnly(); }
+    @Override public void setName(String name) { throw readOnly(); }
+    @Override public void setAliases(String aliases) { throw readOnly(); }
+    @Override public void setCategory(String category) { throw readOnly(); }
+    @Override public void setDifficulty(String difficulty) { throw readOnly(); }
+    @Override public void setDescription(String description) { throw readOnly(); }
+    @Override public void setIntuition(String intuition) { throw readOnly(); }
+    @Override public void setWhenToUse(String whenToUse) { throw readOnly(); }
+    @Override public void setJavaTemplate(String javaTemplate) { throw readOnly(); }
+    @Override public void setTimeComplexity(String timeComplexity) { throw readOnly(); }
+    @Override public void setSpaceComplexity(String spaceComplexity) { throw readOnly(); }
+    @Override public void setCommonMistakes(String commonMistakes) { throw readOnly(); }
+    @Override public void setExampleProblems(String exampleProblems) { throw readOnly(); }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Off-heap patterns are read-only");
+    }
+}
@@ -1,32 +1,205 @@
 package pattern;
 
+import util.Settings;
+import util.WorkerPools;
+
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 /**
  * SOLID - Facade Pattern + Single Responsibility
  * Orchestrates offline pattern retrieval.
  * Provides single point of entry for pattern searching.
+ *
+ * Warm-up runs in two phases, tracked by {@link Readiness}:
+ *   INDEXED - corpus loaded, key cache and trie built; exact, prefix and keyword
+ *             search work. Queries issued earlier wait for this phase.
+ *   READY   - semantic vector index built from the heavy text fields; until then
+ *             searchPatterns degrades to prefix + keyword only.
+ *
+ * Engines over the default corpus record every search in a QueryStats log. Once
+ * READY, the hottest logged queries are run ahead of time into a small result
+ * cache, and pattern popularity breaks near-ties in ranking.
+ *
+ * Patterns get dense ids when indexed. {@link #search(String, ResultSink)} pushes
+ * (id, score) pairs into a caller's sink and allocates nothing when the query is
+ * cached; the List-returning methods are adapters over it.
  */
 public class OfflinePatternEngine {
-    private final PatternSearchService searchService;
-    private final Map<String, DSAPattern> cache = new HashMap<>();
+
+    public enum Readiness {
+        LOADING, INDEXED, READY
+    }
+
+    private final Map<String, DSAPattern> cache = new ConcurrentHashMap<>();
+    private final CompletableFuture<PatternSearchService> indexed = new CompletableFuture<>();
+    private final CompletableFuture<Readiness> ready = new CompletableFuture<>();
+    private volatile Readiness readiness = Readiness.LOADING;
+    private volatile VectorIndex vectorIndex;
+    private volatile QueryPlanner planner;
+    private volatile QueryStats queryStats;
+    private volatile DSAPattern[] byId = new DSAPattern[0];
+    private volatile Map<String, Integer> idByKey = Collections.emptyMap();
+
+    private static final int MAX_RESULTS = 5;
+    private static final int RESULT_CACHE_SIZE = 256;
+    private static final int PREWARM_QUERIES = 64;
+
+    // Results by normalized query; filled only once READY, so answers never change under it
+    private final ResultCache resultCache = new ResultCache(RESULT_CACHE_SIZE, MAX_RESULTS);
+    // Per-thread results of the search in progress, reused so cache hits allocate nothing
+    private final ThreadLocal<ResultBuffer> searchBuffer =
+        ThreadLocal.withInitial(() -> new ResultBuffer(MAX_RESULTS));
 
     public OfflinePatternEngine() {
-        this(new FilePatternSource());
+        this(defaultSource());
+        recordQueries(QueryStats.openDefault());
     }
 
+    /**
+     * Warm up synchronously: returns with the engine READY.
+     */
     public OfflinePatternEngine(PatternSource source) {
-        this.searchService = new PatternSearchService(source);
-        prewarmCache();
+        this(source, Runnable::run);
+    }
+
+    /**
+     * Warm up on the given executor and return immediately in LOADING state.
+     */
+    public OfflinePatternEngine(PatternSource source, Executor warmUpExecutor) {
+        warmUpExecutor.execute(() -> warmUp(source));
+    }
+
+    /**
+     * Engine over the default corpus, warmed up on a background thread.
+     */
+    public static OfflinePatternEngine warmUpAsync() {
+        ExecutorService executor = WorkerPools.newBoundedExecutor("pattern-warm-up", 1);
+        OfflinePatternEngine engine = new OfflinePatternEngine(defaultSource(), executor);
+        engine.ready.whenComplete((state, error) -> executor.shutdown());
+        engine.recordQueries(QueryStats.openDefault());
+        return engine;
+    }
+
+    /**
+     * Log searches to {@code stats} (null to not log); once READY its hottest
+     * queries are prewarmed into the result cache.
+     */
+    public void recordQueries(QueryStats stats) {
+        queryStats = stats;
+        if (stats == null) return;
+        indexed.thenRun(() -> stats.setKnownKeys(cache.keySet()));
+        ready.thenRunAsync(this::prewarmResults,
+            command -> WorkerPools.threadFactory("result-prewarm").newThread(command).start());
+    }
+
+    private void prewarmResults() {
+        QueryStats stats = queryStats;
+        if (stats == null) return;
+        long start = System.nanoTime();
+        List<String> hot = stats.hotQueries(PREWARM_QUERIES);
+        ResultBuffer results = new ResultBuffer(MAX_RESULTS);
+        for (String query : hot) {
+            results.clear();
+            rank(query, results);
+            resultCache.put(query, results);
+        }
+        if (!hot.isEmpty()) {
+            System.out.println("[OfflinePatternEngine] Prewarmed " + hot.size() + " hot queries in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+    }
+
+    /**
+     * Corpus layout from DSA_CORPUS_SHARDING:
+     *   unset      - single FilePatternSource over resources/
+     *   category   - one shard per category directory, queried in parallel
+     *   N (number) - N in-memory shards partitioned by key hash
+     */
+    private static PatternSource defaultSource() {
+        String sharding = Settings.setting("DSA_CORPUS_SHARDING", "");
+        if (sharding.isBlank()) {
+            return new FilePatternSource();
+        }
+        if (sharding.trim().equalsIgnoreCase("category")) {
+            return CompositePatternSource.byCategoryDirectory(Paths.get("resources"));
+        }
+        try {
+            return CompositePatternSource.byKeyHash(new FilePatternSource(), Integer.parseInt(sharding.trim()));
+        } catch (NumberFormatException e) {
+            System.err.println("[OfflinePatternEngine] Invalid DSA_CORPUS_SHARDING '" + sharding + "', using single source");
+            return new FilePatternSource();
+        }
+    }
+
+    /**
+     * Phase 1: load and index (unblocks queries). Phase 2: semantic index.
+     */
+    private void warmUp(PatternSource source) {
+        long start = System.nanoTime();
+        List<DSAPattern> all;
+        try {
+            PatternSearchService service = new PatternSearchService(source);
+            all = service.getAllPatterns();
+            all.sort(Comparator.comparing(DSAPattern::getKey));
+            Map<String, Integer> ids = new HashMap<>(all.size() * 2);
+            for (DSAPattern p : all) {
+                cache.put(p.getKey(), p);
+                ids.put(p.getKey(), ids.size());
+            }
+            byId = all.toArray(new DSAPattern[0]);
+            idByKey = ids;
+            planner = new QueryPlanner(cache, service, () -> vectorIndex, this::popularity);
+            readiness = Readiness.INDEXED;
+            indexed.complete(service);
+            System.out.println("[OfflinePatternEngine] Indexed " + cache.size() + " patterns in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (RuntimeException e) {
+            System.err.println("[OfflinePatternEngine] Warm-up failed: " + e.getMessage());
+            indexed.completeExceptionally(e);
+            ready.completeExceptionally(e);
+            return;
+        }
+
+        try {
+            vectorIndex = VectorIndex.fromPatterns(all);
+            System.out.println("[OfflinePatternEngine] Semantic index ready after "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (RuntimeException e) {
+            // Prefix and keyword search keep working without it
+            System.err.println("[OfflinePatternEngine] Semantic index unavailable: " + e.getMessage());
+        }
+        readiness = Readiness.READY;
+        ready.complete(Readiness.READY);
+    }
+
+    /**
+     * Search service once INDEXED; blocks callers that arrive during LOADING.
+     */
+    private PatternSearchService service() {
+        return indexed.join();
+    }
+
+    public Readiness getReadiness() {
+        return readiness;
+    }
+
+    /**
+     * Completes when exact, prefix and keyword search are available.
+     */
+    public CompletableFuture<Void> whenIndexed() {
+        return indexed.thenApply(service -> (Void) null);
     }
 
     /**
-     * Load all patterns into memory for fastest retrieval.
+     * Completes when every search stage, including semantic search, is available.
      */
-    private void prewarmCache() {
-        List<DSAPattern> all = searchService.getAllPatterns();
-        all.forEach(p -> cache.put(p.getKey(), p));
-        System.out.println("[OfflinePatternEngine] Cache prewarmed with " + cache.size() + " patterns");
+    public CompletableFuture<Void> whenReady() {
+        return ready.thenApply(state -> (Void) null);
     }
 
     /**
@@ -34,53 +207,139 @@ public class OfflinePatternEngine {
      * Returns wrapped result for UI consistency.
      */
     public Optional<PatternResult> findPattern(String key) {
-        Optional<DSAPattern> pattern = searchService.findByKey(key);
+        Optional<DSAPattern> pattern = service().findByKey(key);
         return pattern.map(p -> new PatternResult(p, PatternResult.Source.OFFLINE));
     }
 
     /**
      * Search patterns intelligently.
-     * - First tries exact prefix match
-     * - Then tries keyword search
+     * QueryPlanner picks strategies by query shape (exact key, prefix, fuzzy,
+     * inverted-index keyword, phrase scan, semantic once READY) and stops as soon
+     * as it has enough confident results.
      * - Returns top 5 results
      */
     public List<PatternResult> searchPatterns(String query) {
-        if (query == null || query.trim().isEmpty()) {
-            return Collections.emptyList();
+        ResultBuffer results = new ResultBuffer(MAX_RESULTS);
+        search(query, results);
+        List<PatternResult> wrapped = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            wrapped.add(new PatternResult(pattern(results.id(i)), PatternResult.Source.OFFLINE));
+        }
+        return wrapped;
+    }
+
+    /**
+     * Same search as {@link #searchPatterns}, pushing (pattern id, score) pairs,
+     * best first, into {@code sink} instead of building a list. Once READY a
+     * repeated query is answered from the result cache and, with a reused sink
+     * such as a ResultBuffer, allocates nothing; other queries run the planner.
+     * The sink must not start another search on the same thread.
+     *
+     * @return number of results pushed
+     */
+    public int search(String query, ResultSink sink) {
+        if (query == null || query.isBlank()) return 0;
+
+        service();
+        ResultBuffer results = searchBuffer.get();
+        results.clear();
+        if (readiness != Readiness.READY || resultCache.get(query, results) < 0) {
+            rank(query, results);
+            if (readiness == Readiness.READY) resultCache.put(query, results);
+        }
+        QueryStats stats = queryStats;
+        if (stats != null) {
+            stats.record(query, results.size() == 0 ? null : byId[results.id(0)].getKey());
+        }
+        int pushed = 0;
+        while (pushed < results.size()) {
+            boolean more = sink.accept(results.id(pushed), results.score(pushed));
+            pushed++;
+            if (!more) break;
         }
+        return pushed;
+    }
 
-        // Try prefix search (fast Trie lookup)
-        List<DSAPattern> prefixResults = searchService.searchByPrefix(query);
-        
-        // If prefix has matches, return top 5
-        if (!prefixResults.isEmpty()) {
-            return prefixResults.stream()
-                .limit(5)
-                .map(p -> new PatternResult(p, PatternResult.Source.OFFLINE))
-                .toList();
+    private void rank(String query, ResultBuffer results) {
+        Map<String, Integer> ids = idByKey;
+        for (QueryPlanner.Hit hit : planner.rank(query, MAX_RESULTS)) {
+            Integer id = ids.get(hit.pattern.getKey());
+            if (id != null) results.accept(id, hit.score);
         }
+    }
 
-        // Fall back to keyword search
-        List<DSAPattern> keywordResults = searchService.searchByKeyword(query);
-        return keywordResults.stream()
-            .limit(5)
-            .map(p -> new PatternResult(p, PatternResult.Source.OFFLINE))
-            .toList();
+    /**
+     * Pattern with the given id, as pushed by {@link #search(String, ResultSink)}.
+     */
+    public DSAPattern pattern(int id) {
+        return byId[id];
+    }
+
+    /**
+     * Number of indexed patterns; ids run from 0 to this minus one.
+     */
+    public int patternCount() {
+        return byId.length;
+    }
+
+    private double popularity(String key) {
+        QueryStats stats = queryStats;
+        return stats == null ? 0 : stats.popularity(key);
+    }
+
+    /**
+     * Patterns most often returned as the top result, hottest first (empty when
+     * searches are not logged).
+     */
+    public List<DSAPattern> getHotPatterns(int n) {
+        QueryStats stats = queryStats;
+        if (stats == null) return Collections.emptyList();
+        service();
+        List<DSAPattern> hot = new ArrayList<>();
+        for (String key : stats.hotPatterns(n)) {
+            DSAPattern pattern = cache.get(key);
+            if (pattern != null) hot.add(pattern);
+        }
+        return hot;
+    }
+
+    /**
+     * Per-strategy call, hit and latency counters of the query planner.
+     */
+    public String getPlannerStats() {
+        QueryPlanner current = planner;
+        return current == null ? "not indexed" : current.stats();
+    }
+
+    /**
+     * Open a prefix cursor for live autocomplete. One cursor per input field.
+     */
+    public PrefixCursor prefixCursor() {
+        return service().prefixCursor();
     }
 
     /**
      * Get patterns by category.
      */
     public List<PatternResult> getByCategory(String category) {
-        return searchService.getByCategory(category).stream()
+        return service().getByCategory(category).stream()
             .map(p -> new PatternResult(p, PatternResult.Source.OFFLINE))
             .toList();
     }
 
+    /**
+     * Every loaded pattern.
+     */
+    public List<DSAPattern> getAllPatterns() {
+        service();
+        return new ArrayList<>(cache.values());
+    }
+
     /**
      * Get all available pattern keys (for UI autocomplete).
      */
     public List<String> getAllPatternKeys() {
+        service();
         return new ArrayList<>(cache.keySet());
     }
 
@@ -88,6 +347,7 @@ public class OfflinePatternEngine {
      * Check if pattern exists.
      */
     public boolean patternExists(String key) {
+        service();
         return cache.containsKey(key);
     }
 
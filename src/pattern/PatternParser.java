@@ -1,17 +1,20 @@
 package pattern;
 
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Parses DSA pattern files with the enhanced format.
- * Extracts fields: KEY, ALIASES, CATEGORY, WHEN_TO_USE, INTUITION, 
- * JAVA_TEMPLATE, TIME_COMPLEXITY, SPACE_COMPLEXITY, COMMON_MISTAKES
+ * Extracts fields: KEY, ALIASES, CATEGORY, DIFFICULTY, DESCRIPTION, WHEN_TO_USE, INTUITION, 
+ * JAVA_TEMPLATE, TIME_COMPLEXITY, SPACE_COMPLEXITY, COMMON_MISTAKES, EXAMPLE_PROBLEMS
  */
 public class PatternParser {
     
-    private static final String FIELD_SEPARATOR = "^";
+    private static final String[] FIELD_NAMES = {
+        "KEY", "ALIASES", "CATEGORY", "DIFFICULTY", "DESCRIPTION",
+        "WHEN_TO_USE", "INTUITION", "JAVA_TEMPLATE",
+        "TIME_COMPLEXITY", "SPACE_COMPLEXITY", "COMMON_MISTAKES", "EXAMPLE_PROBLEMS"
+    };
     
     /**
      * Parse a pattern file content into DSAPattern object.
@@ -26,16 +29,22 @@ public class PatternParser {
         pattern.setKey(getField(fields, "KEY"));
         pattern.setName(pattern.getKey());
         pattern.setCategory(getField(fields, "CATEGORY"));
-        pattern.setDescription(getField(fields, "INTUITION")); // Beginner-friendly explanation
+        pattern.setDifficulty(getField(fields, "DIFFICULTY"));
+        
+        // Older files use DESCRIPTION, newer ones INTUITION; each falls back to the other
+        String intuition = getField(fields, "INTUITION");
+        String description = getField(fields, "DESCRIPTION");
+        pattern.setDescription(description.isEmpty() ? intuition : description); // Beginner-friendly explanation
         
         // Store additional fields for UI display
         pattern.setAliases(getField(fields, "ALIASES"));
         pattern.setWhenToUse(getField(fields, "WHEN_TO_USE"));
-        pattern.setIntuition(getField(fields, "INTUITION"));
+        pattern.setIntuition(intuition.isEmpty() ? description : intuition);
         pattern.setJavaTemplate(getField(fields, "JAVA_TEMPLATE"));
         pattern.setTimeComplexity(getField(fields, "TIME_COMPLEXITY"));
         pattern.setSpaceComplexity(getField(fields, "SPACE_COMPLEXITY"));
         pattern.setCommonMistakes(getField(fields, "COMMON_MISTAKES"));
+        pattern.setExampleProblems(getField(fields, "EXAMPLE_PROBLEMS"));
         
         return pattern;
     }
@@ -43,6 +52,7 @@ public class PatternParser {
     /**
      * Extract all fields from pattern content.
      * Field format: KEY: value ... VALUE ... KEY: next_value
+     * Fields may appear in any order and any of them may be missing.
      * 
      * @param content File content
      * @return Map of field names to values
@@ -50,18 +60,8 @@ public class PatternParser {
     private static Map<String, String> extractFields(String content) {
         Map<String, String> fields = new HashMap<>();
         
-        // Define field order for parsing
-        String[] fieldNames = {
-            "KEY", "ALIASES", "CATEGORY", "DIFFICULTY", 
-            "WHEN_TO_USE", "INTUITION", "JAVA_TEMPLATE",
-            "TIME_COMPLEXITY", "SPACE_COMPLEXITY", "COMMON_MISTAKES"
-        };
-        
-        for (int i = 0; i < fieldNames.length; i++) {
-            String fieldName = fieldNames[i];
-            String nextFieldName = (i < fieldNames.length - 1) ? fieldNames[i + 1] : null;
-            
-            String value = extractFieldValue(content, fieldName, nextFieldName);
+        for (String fieldName : FIELD_NAMES) {
+            String value = extractFieldValue(content, fieldName);
             if (value != null && !value.trim().isEmpty()) {
                 fields.put(fieldName, value.trim());
             }
@@ -72,26 +72,25 @@ public class PatternParser {
     
     /**
      * Extract value for a specific field.
+     * The value ends at the next known field header, whichever field that is.
      * 
      * @param content Full content
      * @param fieldName Field to extract
-     * @param nextFieldName Field that marks end of current field
      * @return Field value or empty string
      */
-    private static String extractFieldValue(String content, String fieldName, String nextFieldName) {
-        String pattern = fieldName + ":";
-        int startIdx = content.indexOf(pattern);
+    private static String extractFieldValue(String content, String fieldName) {
+        int startIdx = findHeader(content, fieldName, 0);
         
         if (startIdx == -1) {
             return "";
         }
         
-        int valueStart = startIdx + pattern.length();
+        int valueStart = startIdx + fieldName.length() + 1;
         int endIdx = content.length();
         
-        if (nextFieldName != null) {
-            int nextIdx = content.indexOf(nextFieldName + ":", valueStart);
-            if (nextIdx != -1) {
+        for (String other : FIELD_NAMES) {
+            int nextIdx = findHeader(content, other, valueStart);
+            if (nextIdx != -1 && nextIdx < endIdx) {
                 endIdx = nextIdx;
             }
         }
@@ -99,6 +98,21 @@ public class PatternParser {
         return content.substring(valueStart, endIdx).trim();
     }
     
+    /**
+     * Find "NAME:" at the start of a line, at or after {@code from}.
+     */
+    private static int findHeader(String content, String fieldName, int from) {
+        String header = fieldName + ":";
+        int idx = content.indexOf(header, from);
+        while (idx != -1) {
+            if (idx == 0 || content.charAt(idx - 1) == '\n') {
+                return idx;
+            }
+            idx = content.indexOf(header, idx + 1);
+        }
+        return -1;
+    }
+    
     /**
      * Get field value with fallback to empty string.
      * 
@@ -0,0 +1,35 @@
+package pattern;
+
+/**
+ * Relevance score of a pattern for a keyword, used to merge and rank results
+ * coming from different sources. Higher is better; 0 means no match.
+ */
+public class PatternScorer {
+
+    public static final double EXACT_KEY = 100;
+    public static final double KEY_PREFIX = 50;
+    public static final double KEY_CONTAINS = 30;
+    public static final double ALIAS = 20;
+    public static final double WHEN_TO_USE = 10;
+    public static final double DESCRIPTION = 8;
+    public static final double EXAMPLES = 5;
+
+    public static double score(DSAPattern pattern, String keyword) {
+        if (keyword == null || keyword.isEmpty() || pattern.getKey() == null) return 0;
+        String kw = keyword.toLowerCase();
+        String key = pattern.getKey().toLowerCase();
+
+        if (key.equals(kw)) return EXACT_KEY;
+        if (key.startsWith(kw)) return KEY_PREFIX;
+        if (key.contains(kw)) return KEY_CONTAINS;
+        if (contains(pattern.getAliases(), kw)) return ALIAS;
+        if (contains(pattern.getWhenToUse(), kw)) return WHEN_TO_USE;
+        if (contains(pattern.getDescription(), kw)) return DESCRIPTION;
+        if (contains(pattern.getExampleProblems(), kw)) return EXAMPLES;
+        return 0;
+    }
+
+    private static boolean contains(String field, String lowerKeyword) {
+        return field != null && field.toLowerCase().contains(lowerKeyword);
+    }
+}
@@ -1,7 +1,6 @@
 package pattern;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * SOLID - Single Responsibility Principle
@@ -20,10 +19,7 @@ public class PatternSearchService {
 
     private void initialize() {
         source.loadPatterns();
-        if (source instanceof FilePatternSource) {
-            FilePatternSource fileSource = (FilePatternSource) source;
-            trieIndex.indexAll(fileSource.getAllPatterns().keySet());
-        }
+        source.forEachPattern(p -> trieIndex.index(p.getKey().toUpperCase()));
     }
 
     /**
@@ -43,11 +39,18 @@ public class PatternSearchService {
         }
 
         List<String> matchingKeys = trieIndex.search(prefix);
-        return matchingKeys.stream()
-            .map(key -> source.findByKey(key))
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .collect(Collectors.toList());
+        List<DSAPattern> results = new ArrayList<>(matchingKeys.size());
+        for (String key : matchingKeys) {
+            source.findByKey(key).ifPresent(results::add);
+        }
+        return results;
+    }
+
+    /**
+     * Stateful cursor for incremental prefix search (search-as-you-type).
+     */
+    public PrefixCursor prefixCursor() {
+        return trieIndex.cursor();
     }
 
     /**
@@ -55,15 +58,14 @@ public class PatternSearchService {
      * Searches description, when_to_use, and examples.
      */
     public List<DSAPattern> searchByKeyword(String keyword) {
-        List<DSAPattern> results = source.searchByKeyword(keyword);
+        List<DSAPattern> results = new ArrayList<>(source.searchByKeyword(keyword));
         // Sort by relevance (exact matches first, then partial matches)
-        return results.stream()
-            .sorted((a, b) -> {
-                boolean aExact = a.getKey().equalsIgnoreCase(keyword);
-                boolean bExact = b.getKey().equalsIgnoreCase(keyword);
-                return Boolean.compare(bExact, aExact);
-            })
-            .collect(Collectors.toList());
+        results.sort((a, b) -> {
+            boolean aExact = a.getKey().equalsIgnoreCase(keyword);
+            boolean bExact = b.getKey().equalsIgnoreCase(keyword);
+            return Boolean.compare(bExact, aExact);
+        });
+        return results;
     }
 
     /**
@@ -94,9 +96,8 @@ public class PatternSearchService {
      * Get all available patterns.
      */
     public List<DSAPattern> getAllPatterns() {
-        if (source instanceof FilePatternSource) {
-            return new ArrayList<>(((FilePatternSource) source).getAllPatterns().values());
-        }
-        return Collections.emptyList();
+        List<DSAPattern> all = new ArrayList<>();
+        source.forEachPattern(all::add);
+        return all;
     }
 }
@@ -1,6 +1,7 @@
 package pattern;
 
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * SOLID - Interface Segregation Principle
@@ -33,6 +34,21 @@ public interface PatternSource {
      */
     java.util.List<DSAPattern> getByCategory(String category);
 
+    /**
+     * Every pattern, keyed by upper-case pattern key. Read-only: it may be a view
+     * of the source's own map, so callers that mutate or keep it must copy it.
+     */
+    java.util.Map<String, DSAPattern> getAllPatterns();
+
+    /**
+     * Visit every pattern without building a snapshot.
+     * The default walks getAllPatterns(); sources holding a concurrent map override
+     * it to iterate that map directly.
+     */
+    default void forEachPattern(Consumer<? super DSAPattern> action) {
+        getAllPatterns().values().forEach(action);
+    }
+
     /**
      * Load all patterns.
      */
@@ -0,0 +1,113 @@
+package pattern;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for holding pattern text outside the Java heap.
+ *
+ * All text lives as UTF-8 in one direct buffer. Each stored pattern gets a record of
+ * (offset, length) pairs, one per field, written into the same buffer; the pattern
+ * object itself keeps only the record's offset. A length of -1 encodes a null field.
+ * The GC sees a single buffer object instead of several large Strings per pattern.
+ *
+ * Appends are synchronized; reads use absolute gets and are safe once appended.
+ */
+public class PatternTextArena {
+
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    private static final int NULL_LENGTH = -1;
+
+    private volatile ByteBuffer buffer;
+    private int position;
+
+    public PatternTextArena() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public PatternTextArena(int initialCapacity) {
+        this.buffer = allocate(Math.max(initialCapacity, 64));
+    }
+
+    /**
+     * Store the given fields and return the record offset for {@link #get}.
+     */
+    public synchronized int store(String... fields) {
+        byte[][] encoded = new byte[fields.length][];
+        int needed = fields.length * 2 * Integer.BYTES;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                encoded[i] = fields[i].getBytes(StandardCharsets.UTF_8);
+                needed += encoded[i].length;
+            }
+        }
+        ensureCapacity(needed);
+
+        ByteBuffer buf = buffer;
+        int record = position;
+        int textOffset = record + fields.length * 2 * Integer.BYTES;
+        for (int i = 0; i < fields.length; i++) {
+            int slot = record + i * 2 * Integer.BYTES;
+            if (encoded[i] == null) {
+                buf.putInt(slot, 0);
+                buf.putInt(slot + Integer.BYTES, NULL_LENGTH);
+            } else {
+                buf.putInt(slot, textOffset);
+                buf.putInt(slot + Integer.BYTES, encoded[i].length);
+                buf.put(textOffset, encoded[i]);
+                textOffset += encoded[i].length;
+            }
+        }
+        position = textOffset;
+        return record;
+    }
+
+    /**
+     * Decode field {@code index} of the record at {@code record}.
+     */
+    public String get(int record, int index) {
+        ByteBuffer buf = buffer;
+        int slot = record + index * 2 * Integer.BYTES;
+        int length = buf.getInt(slot + Integer.BYTES);
+        if (length == NULL_LENGTH) return null;
+        if (length == 0) return "";
+        byte[] bytes = new byte[length];
+        buf.get(buf.getInt(slot), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Bytes in use (records + text).
+     */
+    public synchronized long usedBytes() {
+        return position;
+    }
+
+    /**
+     * Bytes reserved off-heap.
+     */
+    public long capacityBytes() {
+        return buffer.capacity();
+    }
+
+    private void ensureCapacity(int needed) {
+        long required = (long) position + needed;
+        if (required <= buffer.capacity()) return;
+        if (required > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Pattern text arena is full (" + position + " bytes)");
+        }
+        long capacity = buffer.capacity();
+        while (capacity < required) {
+            capacity = Math.min(capacity * 2, Integer.MAX_VALUE);
+        }
+        ByteBuffer grown = allocate((int) capacity);
+        grown.put(0, buffer, 0, position);
+        buffer = grown;
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    }
+}
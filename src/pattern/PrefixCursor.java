@@ -0,0 +1,121 @@
+package pattern;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Stateful prefix cursor over a TrieIndex for search-as-you-type.
+ *
+ * Instead of walking from the root on every keystroke, the cursor keeps the path of
+ * trie nodes for the current prefix on a stack. Typing a character moves one node
+ * down, backspace pops one node, so each keystroke costs O(1). Characters typed past
+ * a dead end are only counted, so backspacing out of them is O(1) as well.
+ * Results are a read-only view of the current node's keys and are not copied.
+ *
+ * Not thread-safe: use one cursor per input field.
+ */
+public class PrefixCursor {
+
+    private final TrieIndex.TrieNode root;
+    private final Deque<TrieIndex.TrieNode> path = new ArrayDeque<>();
+    private final StringBuilder prefix = new StringBuilder();
+    private int deadChars; // characters typed after the prefix left the trie
+
+    PrefixCursor(TrieIndex.TrieNode root) {
+        this.root = root;
+        path.push(root);
+    }
+
+    /**
+     * Extend the prefix by one character.
+     *
+     * @return true if some key still matches
+     */
+    public boolean advance(char c) {
+        prefix.append(c);
+        if (deadChars == 0) {
+            TrieIndex.TrieNode next = path.peek().children.get(Character.toUpperCase(c));
+            if (next != null) {
+                path.push(next);
+                return true;
+            }
+        }
+        deadChars++;
+        return false;
+    }
+
+    /**
+     * Remove the last character of the prefix (backspace).
+     */
+    public void retreat() {
+        if (prefix.length() == 0) return;
+        prefix.setLength(prefix.length() - 1);
+        if (deadChars > 0) {
+            deadChars--;
+        } else {
+            path.pop();
+        }
+    }
+
+    /**
+     * Move the cursor to {@code text}, reusing the longest common prefix with the
+     * current position. A single typed or deleted character costs one step.
+     */
+    public void moveTo(CharSequence text) {
+        int common = 0;
+        int max = Math.min(prefix.length(), text.length());
+        while (common < max && prefix.charAt(common) == text.charAt(common)) {
+            common++;
+        }
+        while (prefix.length() > common) {
+            retreat();
+        }
+        for (int i = common; i < text.length(); i++) {
+            advance(text.charAt(i));
+        }
+    }
+
+    public void reset() {
+        path.clear();
+        path.push(root);
+        prefix.setLength(0);
+        deadChars = 0;
+    }
+
+    public boolean hasMatches() {
+        return deadChars == 0 && prefix.length() > 0 && !path.peek().keys.isEmpty();
+    }
+
+    public String getPrefix() {
+        return prefix.toString();
+    }
+
+    /**
+     * Keys matching the current prefix, as a read-only view (no copy).
+     */
+    public List<String> matches() {
+        if (!hasMatches()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(path.peek().keys);
+    }
+
+    /**
+     * Lazily iterate the matching keys.
+     */
+    public Iterator<String> iterator() {
+        return matches().iterator();
+    }
+
+    /**
+     * Copy at most {@code limit} matching keys.
+     */
+    public List<String> matches(int limit) {
+        List<String> all = matches();
+        return new ArrayList<>(all.subList(0, Math.min(limit, all.size())));
+    }
+}
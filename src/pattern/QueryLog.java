@@ -0,0 +1,347 @@
+package pattern;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for recording searches: an append-only, memory-mapped log of
+ * fixed-size binary records, one per query.
+ *
+ * Appends are lock-free: a writer claims a sequence number from an atomic
+ * position and fills the matching slot of the mapped file. The file is a ring of
+ * {@code capacity} slots, so it never grows; the compactor (QueryStats) drains it
+ * into frequency tables long before it wraps, and records it misses are counted
+ * as lost. Each slot carries its sequence number, stored last with release
+ * semantics, so a reader can tell a complete record from a half-written or
+ * overwritten one. The page cache keeps the records across a JVM crash.
+ * A log has one owner: open takes an exclusive lock on the file, held until close.
+ *
+ * Record layout (128 bytes, native byte order):
+ *   0  long   sequence + 1 (0 = never written)
+ *   8  long   epoch millis
+ *   16 long   hash of the top result's key (0 = no result)
+ *   24 short  query length in bytes; the high bit marks a truncated query
+ *   26 byte[] normalized query, UTF-8
+ */
+public class QueryLog implements AutoCloseable {
+
+    public static final int RECORD_SIZE = 128;
+    static final int MAX_QUERY_BYTES = RECORD_SIZE - 26;
+    private static final int TRUNCATED = 0x8000;
+
+    private static final VarHandle LONGS =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    // Files owned in this JVM. File locks are per process, and closing any channel to
+    // a file may drop them all, so a second open must fail before it opens a channel
+    private static final Set<Path> OWNED = ConcurrentHashMap.newKeySet();
+
+    private final Path file;
+    private final Path owned;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final AtomicLong position;
+
+    private QueryLog(Path file, Path owned, FileChannel channel, MappedByteBuffer buffer, int capacity,
+                     long position) {
+        this.file = file;
+        this.owned = owned;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.position = new AtomicLong(position);
+    }
+
+    /**
+     * Open or create a log of {@code capacity} records. The append position is
+     * recovered from the highest sequence number found in the file.
+     *
+     * @throws IOException also when another process (or another open log in this
+     *                     one) already owns the file
+     */
+    public static QueryLog open(Path file, int capacity) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        // Resolved through the directory, so two spellings of one file are one owner
+        Path owned = file.toAbsolutePath().getParent().toRealPath().resolve(file.getFileName());
+        if (!OWNED.add(owned)) throw new IOException("Query log is already open in this process");
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException | RuntimeException e) {
+            OWNED.remove(owned);
+            throw e;
+        }
+        try {
+            lockExclusively(channel);
+            long size = (long) capacity * RECORD_SIZE;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.nativeOrder());
+            long next = 0;
+            for (int slot = 0; slot < capacity; slot++) {
+                next = Math.max(next, (long) LONGS.getAcquire(buffer, slot * RECORD_SIZE));
+            }
+            return new QueryLog(file, owned, channel, buffer, capacity, next);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            OWNED.remove(owned);
+            throw e;
+        }
+    }
+
+    // Two owners would claim the same sequence numbers and both rewrite the tables
+    // kept next to the log; the lock is released when the channel closes
+    private static void lockExclusively(FileChannel channel) throws IOException {
+        FileLock lock = channel.tryLock();
+        if (lock == null) throw new IOException("Query log is in use by another process");
+    }
+
+    /**
+     * Record a query and the key of its top result (null if nothing matched).
+     * Safe to call from any number of threads.
+     */
+    public void append(String query, String topKey) {
+        long sequence = position.getAndIncrement();
+        int offset = slot(sequence);
+        LONGS.setRelease(buffer, offset, 0L);
+        // Release only orders what came before the zero stamp; without the fence the
+        // payload below could become visible first, and a reader that lapped the ring
+        // would take the old stamp with half of the new record
+        VarHandle.storeStoreFence();
+        buffer.putLong(offset + 8, System.currentTimeMillis());
+        buffer.putLong(offset + 16, topKey == null ? 0 : keyHash(topKey));
+        buffer.putShort(offset + 24, (short) putNormalized(query, offset + 26));
+        LONGS.setRelease(buffer, offset, sequence + 1);
+    }
+
+    /**
+     * Write normalize(query) as UTF-8 straight into the slot, without building the
+     * string, stopping before the first character that does not fit.
+     *
+     * @return the record header: byte length, plus TRUNCATED if cut short
+     */
+    private int putNormalized(String query, int at) {
+        if (query == null) return 0;
+        int length = 0;
+        boolean space = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = length > 0;
+                continue;
+            }
+            int codePoint = Character.toLowerCase(c);
+            if (Character.isHighSurrogate(c) && i + 1 < query.length() && Character.isLowSurrogate(query.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(c, query.charAt(++i));
+            } else if (Character.isSurrogate(c)) {
+                codePoint = '?';    // what String.getBytes writes for a lone surrogate
+            }
+            int needed = (space ? 1 : 0) + utf8Length(codePoint);
+            if (length + needed > MAX_QUERY_BYTES) return length | TRUNCATED;
+            if (space) buffer.put(at + length++, (byte) ' ');
+            length += putUtf8(codePoint, at + length);
+            space = false;
+        }
+        return length;
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) return 1;
+        if (codePoint < 0x800) return 2;
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+
+    private int putUtf8(int codePoint, int at) {
+        int length = utf8Length(codePoint);
+        switch (length) {
+            case 1:
+                buffer.put(at, (byte) codePoint);
+                break;
+            case 2:
+                buffer.put(at, (byte) (0xC0 | codePoint >> 6));
+                buffer.put(at + 1, (byte) (0x80 | codePoint & 0x3F));
+                break;
+            case 3:
+                buffer.put(at, (byte) (0xE0 | codePoint >> 12));
+                buffer.put(at + 1, (byte) (0x80 | codePoint >> 6 & 0x3F));
+                buffer.put(at + 2, (byte) (0x80 | codePoint & 0x3F));
+                break;
+            default:
+                buffer.put(at, (byte) (0xF0 | codePoint >> 18));
+                buffer.put(at + 1, (byte) (0x80 | codePoint >> 12 & 0x3F));
+                buffer.put(at + 2, (byte) (0x80 | codePoint >> 6 & 0x3F));
+                buffer.put(at + 3, (byte) (0x80 | codePoint & 0x3F));
+        }
+        return length;
+    }
+
+    /**
+     * Next sequence number to be written; records [0, appended()) have been claimed.
+     */
+    public long appended() {
+        return position.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Read the record with the given sequence number.
+     *
+     * @return the record, or null if it is not written yet, still being written
+     *         or already overwritten by a later one
+     */
+    Record read(long sequence) {
+        int offset = slot(sequence);
+        long stamp = (long) LONGS.getAcquire(buffer, offset);
+        if (stamp != sequence + 1) return null;
+        long millis = buffer.getLong(offset + 8);
+        long keyHash = buffer.getLong(offset + 16);
+        int header = buffer.getShort(offset + 24) & 0xFFFF;
+        int length = Math.min(header & ~TRUNCATED, MAX_QUERY_BYTES);
+        byte[] text = new byte[length];
+        buffer.get(offset + 26, text, 0, length);
+        VarHandle.acquireFence();
+        // Re-check: a writer that lapped the ring may have changed the slot meanwhile
+        if ((long) LONGS.getAcquire(buffer, offset) != stamp) return null;
+        return new Record(millis, keyHash, new String(text, StandardCharsets.UTF_8),
+            (header & TRUNCATED) != 0);
+    }
+
+    /**
+     * Whether the record with this sequence number has been claimed but not yet
+     * completed (as opposed to completed or overwritten).
+     */
+    boolean inFlight(long sequence) {
+        long stamp = (long) LONGS.getAcquire(buffer, slot(sequence));
+        return stamp < sequence + 1;
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % capacity) * RECORD_SIZE;
+    }
+
+    /**
+     * Canonical form used for logging and counting: trimmed, lower case, single spaces.
+     */
+    public static String normalize(String query) {
+        if (query == null) return "";
+        StringBuilder sb = new StringBuilder(query.length());
+        boolean space = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+            } else {
+                if (space) sb.append(' ');
+                space = false;
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 64-bit FNV-1a of normalize(query), computed without building it.
+     */
+    public static long normalizedHash(String query) {
+        long hash = 0xcbf29ce484222325L;
+        if (query == null) return hash;
+        boolean space = false;
+        boolean any = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = any;
+                continue;
+            }
+            if (space) hash = (hash ^ ' ') * 0x100000001b3L;
+            hash = (hash ^ Character.toLowerCase(c)) * 0x100000001b3L;
+            space = false;
+            any = true;
+        }
+        return hash;
+    }
+
+    /**
+     * Whether normalize(query) equals {@code normalized}, compared in place.
+     */
+    public static boolean normalizesTo(String query, String normalized) {
+        int j = 0;
+        boolean space = false;
+        for (int i = 0; query != null && i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = j > 0;
+                continue;
+            }
+            if (space && (j == normalized.length() || normalized.charAt(j++) != ' ')) return false;
+            if (j == normalized.length() || normalized.charAt(j++) != Character.toLowerCase(c)) return false;
+            space = false;
+        }
+        return j == normalized.length();
+    }
+
+    /**
+     * 64-bit FNV-1a of a pattern key, never 0.
+     */
+    public static long keyHash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            OWNED.remove(owned);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "QueryLog(" + file + ", " + capacity + " slots, " + appended() + " appended)";
+    }
+
+    /**
+     * One logged search.
+     */
+    static final class Record {
+        final long millis;
+        final long keyHash;
+        final String query;
+        final boolean truncated;
+
+        Record(long millis, long keyHash, String query, boolean truncated) {
+            this.millis = millis;
+            this.keyHash = keyHash;
+            this.query = query;
+            this.truncated = truncated;
+        }
+    }
+}
@@ -0,0 +1,488 @@
+package pattern;
+
+import util.WorkerPools;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for deciding how a search query is answered.
+ *
+ * The query is classified by shape (a single key-like token, a short phrase, or a
+ * long problem statement) and mapped to a plan: stages of strategies tried in
+ * order. Within a stage strategies run cheapest-first on the calling thread, or
+ * concurrently when their estimated cost is high enough to pay for the hand-off.
+ * Estimates start from per-strategy priors (scaled by corpus or posting size)
+ * and are calibrated by the latency actually recorded for each strategy.
+ *
+ * Planning stops as soon as an exact key matches or k confident results exist;
+ * strategies still running see the flag and abandon their scans. Later stages
+ * (and, on the calling thread, costlier strategies within a stage) run only
+ * while fewer than k confident results have been found, so a single confident
+ * prefix hit still leaves room for the keyword and semantic runners-up.
+ *
+ * Final ranking adds a small popularity prior (how often a pattern was the top
+ * result in the query log), enough to order near-ties but never to beat a
+ * clearly better match.
+ */
+public class QueryPlanner {
+
+    public enum QueryShape {
+        KEY, PHRASE, STATEMENT
+    }
+
+    public enum Strategy {
+        EXACT_KEY(1.0f), PREFIX(0.9f), FUZZY(0.7f), KEYWORD(0.8f), PHRASE_SCAN(0.6f), SEMANTIC(0.6f);
+
+        final float weight;
+
+        Strategy(float weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final Map<QueryShape, List<List<Strategy>>> PLANS = Map.of(
+        QueryShape.KEY, List.of(
+            List.of(Strategy.EXACT_KEY, Strategy.PREFIX),
+            List.of(Strategy.FUZZY, Strategy.KEYWORD),
+            List.of(Strategy.PHRASE_SCAN, Strategy.SEMANTIC)),
+        QueryShape.PHRASE, List.of(
+            List.of(Strategy.EXACT_KEY, Strategy.PREFIX),
+            List.of(Strategy.KEYWORD, Strategy.PHRASE_SCAN),
+            List.of(Strategy.SEMANTIC, Strategy.FUZZY)),
+        QueryShape.STATEMENT, List.of(
+            List.of(Strategy.KEYWORD, Strategy.SEMANTIC)));
+
+    private static final int MAX_PHRASE_WORDS = 4;
+    private static final float CONFIDENT = 0.5f;
+    private static final float MIN_SEMANTIC_SCORE = 0.12f;
+    private static final double PARALLEL_THRESHOLD_MICROS = 500;
+    private static final long STAGE_TIMEOUT_MS = 250;
+    private static final float POPULARITY_WEIGHT = 0.05f;
+
+    private static final ExecutorService EXECUTOR = WorkerPools.newBoundedExecutor("query-planner", 4);
+
+    private final Map<String, DSAPattern> byKey;
+    private final PatternSearchService searchService;
+    private final InvertedIndex invertedIndex;
+    private final Map<String, String[]> fuzzyNames;
+    private final Supplier<VectorIndex> vectorIndex;
+    private final ToDoubleFunction<String> popularity;
+    private final Map<Strategy, StrategyStats> stats = new EnumMap<>(Strategy.class);
+
+    /**
+     * @param byKey         All patterns by key
+     * @param searchService Trie-backed prefix search
+     * @param vectorIndex   Semantic index, or null while it is still being built
+     */
+    public QueryPlanner(Map<String, DSAPattern> byKey, PatternSearchService searchService,
+                        Supplier<VectorIndex> vectorIndex) {
+        this(byKey, searchService, vectorIndex, key -> 0);
+    }
+
+    /**
+     * @param popularity Prior in [0, 1] per pattern key, e.g. from QueryStats
+     */
+    public QueryPlanner(Map<String, DSAPattern> byKey, PatternSearchService searchService,
+                        Supplier<VectorIndex> vectorIndex, ToDoubleFunction<String> popularity) {
+        this.byKey = byKey;
+        this.searchService = searchService;
+        this.invertedIndex = new InvertedIndex(byKey.values());
+        this.fuzzyNames = fuzzyNames(byKey.values());
+        this.vectorIndex = vectorIndex;
+        this.popularity = popularity;
+        for (Strategy strategy : Strategy.values()) {
+            stats.put(strategy, new StrategyStats());
+        }
+    }
+
+    /**
+     * Best patterns for the query, most relevant first, at most k.
+     */
+    public List<DSAPattern> search(String query, int k) {
+        List<DSAPattern> patterns = new ArrayList<>(k);
+        for (Hit hit : rank(query, k)) {
+            patterns.add(hit.pattern);
+        }
+        return patterns;
+    }
+
+    /**
+     * Best patterns for the query with their ranking scores, most relevant first, at most k.
+     */
+    public List<Hit> rank(String query, int k) {
+        Query q = new Query(query);
+        Collector collector = new Collector(k);
+        for (List<Strategy> stage : PLANS.get(q.shape)) {
+            runStage(stage, q, collector);
+            // Later stages are fallbacks: only worth their cost until k confident results settle the answer
+            if (collector.isDone()) break;
+        }
+        collector.finish();
+        return collector.top();
+    }
+
+    public static QueryShape classify(String query) {
+        return shapeOf(words(query).size());
+    }
+
+    private static QueryShape shapeOf(int wordCount) {
+        if (wordCount <= 1) return QueryShape.KEY;
+        if (wordCount <= MAX_PHRASE_WORDS) return QueryShape.PHRASE;
+        return QueryShape.STATEMENT;
+    }
+
+    /**
+     * Per-strategy call count, hit count and mean latency.
+     */
+    public String stats() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Strategy, StrategyStats> entry : stats.entrySet()) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(entry.getKey()).append('{').append(entry.getValue()).append('}');
+        }
+        return sb.toString();
+    }
+
+    // ===== Stage execution =====
+
+    private void runStage(List<Strategy> stage, Query q, Collector collector) {
+        List<Strategy> ordered = new ArrayList<>(stage);
+        ordered.removeIf(s -> s == Strategy.SEMANTIC && vectorIndex.get() == null);
+        ordered.sort(Comparator.comparingDouble(s -> estimateMicros(s, q)));
+
+        double total = 0;
+        for (Strategy s : ordered) total += estimateMicros(s, q);
+
+        if (ordered.size() < 2 || total < PARALLEL_THRESHOLD_MICROS) {
+            for (Strategy s : ordered) {
+                // Cheapest first, so k confident hits skip the costlier strategies
+                if (collector.isDone()) return;
+                execute(s, q, collector);
+            }
+            return;
+        }
+
+        CompletableFuture<?>[] running = new CompletableFuture<?>[ordered.size()];
+        for (int i = 0; i < running.length; i++) {
+            Strategy s = ordered.get(i);
+            running[i] = CompletableFuture.runAsync(() -> {
+                if (!collector.isDone()) execute(s, q, collector);
+            }, EXECUTOR);
+        }
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(running), collector.done)
+                .get(STAGE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            collector.finish();
+        } catch (Exception e) {
+            // Timeout or strategy failure: keep whatever the stage produced so far
+            System.err.println("[QueryPlanner] Stage " + ordered + " incomplete: " + e.getClass().getSimpleName());
+        }
+    }
+
+    private void execute(Strategy strategy, Query q, Collector collector) {
+        long start = System.nanoTime();
+        Map<String, Float> hits;
+        try {
+            hits = run(strategy, q, collector);
+        } catch (RuntimeException e) {
+            System.err.println("[QueryPlanner] " + strategy + " failed: " + e.getMessage());
+            hits = Collections.emptyMap();
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0;
+        stats.get(strategy).record(micros, prior(strategy, q), !hits.isEmpty());
+        collector.merge(strategy, hits);
+    }
+
+    private Map<String, Float> run(Strategy strategy, Query q, Collector collector) {
+        switch (strategy) {
+            case EXACT_KEY: return exactKey(q);
+            case PREFIX: return prefix(q);
+            case FUZZY: return fuzzy(q, collector);
+            case KEYWORD: return invertedIndex.search(q.terms());
+            case PHRASE_SCAN: return phraseScan(q, collector);
+            case SEMANTIC: return semantic(q);
+            default: return Collections.emptyMap();
+        }
+    }
+
+    // ===== Cost model =====
+
+    /**
+     * Prior cost in microseconds, before calibration.
+     */
+    private double prior(Strategy strategy, Query q) {
+        int n = byKey.size();
+        switch (strategy) {
+            case EXACT_KEY: return 1;
+            case PREFIX: return 5 + q.keyForm.length();
+            case FUZZY: return 0.5 * n;
+            case KEYWORD: return 5 + 0.1 * invertedIndex.postingCount(q.terms());
+            case PHRASE_SCAN: return 2.0 * n;
+            case SEMANTIC: return 0.5 * n;
+            default: return n;
+        }
+    }
+
+    private double estimateMicros(Strategy strategy, Query q) {
+        return prior(strategy, q) * stats.get(strategy).calibration();
+    }
+
+    // ===== Strategies =====
+
+    private Map<String, Float> exactKey(Query q) {
+        DSAPattern pattern = byKey.get(q.keyForm.toUpperCase());
+        return pattern == null ? Collections.emptyMap() : Map.of(pattern.getKey(), 1.0f);
+    }
+
+    private Map<String, Float> prefix(Query q) {
+        Map<String, Float> hits = new HashMap<>();
+        for (DSAPattern p : searchService.searchByPrefix(q.keyForm)) {
+            hits.put(p.getKey(), 0.6f + 0.4f * q.keyForm.length() / Math.max(1, p.getKey().length()));
+        }
+        return hits;
+    }
+
+    private Map<String, Float> fuzzy(Query q, Collector collector) {
+        String target = q.keyForm.toLowerCase();
+        int maxDistance = target.length() <= 4 ? 1 : 2;
+        Map<String, Float> hits = new HashMap<>();
+        for (Map.Entry<String, String[]> entry : fuzzyNames.entrySet()) {
+            if (collector.isDone()) break;
+            int best = maxDistance + 1;
+            for (String name : entry.getValue()) {
+                best = Math.min(best, distance(target, name, name.length(), maxDistance));
+                if (name.length() > target.length()) {
+                    // Misspelled leading word(s): "djikstra" vs "dijkstra_algorithm"
+                    best = Math.min(best, distance(target, name, target.length(), maxDistance));
+                }
+            }
+            if (best <= maxDistance) {
+                hits.put(entry.getKey(), 1.0f - (float) best / (maxDistance + 1));
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Lower-case key and alias spellings per pattern, in key form ("two_pointers").
+     */
+    private static Map<String, String[]> fuzzyNames(Collection<DSAPattern> patterns) {
+        Map<String, String[]> names = new HashMap<>();
+        for (DSAPattern p : patterns) {
+            List<String> forms = new ArrayList<>();
+            forms.add(p.getKey().toLowerCase());
+            if (p.getAliases() != null) {
+                for (String alias : p.getAliases().split(",")) {
+                    String form = String.join("_", words(alias)).toLowerCase();
+                    if (!form.isEmpty()) forms.add(form);
+                }
+            }
+            names.put(p.getKey(), forms.toArray(new String[0]));
+        }
+        return names;
+    }
+
+    private Map<String, Float> phraseScan(Query q, Collector collector) {
+        Map<String, Float> hits = new HashMap<>();
+        for (DSAPattern p : byKey.values()) {
+            if (collector.isDone()) break;
+            double score = PatternScorer.score(p, q.text);
+            if (score > 0) {
+                hits.put(p.getKey(), (float) Math.min(1.0, score / PatternScorer.ALIAS));
+            }
+        }
+        return hits;
+    }
+
+    private Map<String, Float> semantic(Query q) {
+        VectorIndex index = vectorIndex.get();
+        if (index == null) return Collections.emptyMap();
+        Map<String, Float> hits = new HashMap<>();
+        for (VectorIndex.Hit hit : index.search(q.text, 5, MIN_SEMANTIC_SCORE)) {
+            hits.put(hit.id, Math.min(1.0f, hit.score / 0.4f));
+        }
+        return hits;
+    }
+
+    /**
+     * Levenshtein distance between {@code a} and the first {@code bLength} chars of
+     * {@code b}, or maxDistance + 1 once it is known to exceed maxDistance. Only the
+     * diagonal band of width 2 * maxDistance + 1 is computed.
+     */
+    static int distance(String a, String b, int bLength, int maxDistance) {
+        int aLength = a.length();
+        int over = maxDistance + 1;
+        if (Math.abs(aLength - bLength) > maxDistance) return over;
+        int[] previous = new int[bLength + 1];
+        int[] current = new int[bLength + 1];
+        for (int j = 0; j <= bLength; j++) previous[j] = j;
+        for (int i = 1; i <= aLength; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(bLength, i + maxDistance);
+            current[from - 1] = from == 1 ? i : over;
+            int rowMin = current[from - 1];
+            char ca = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                int up = j <= i - 1 + maxDistance ? previous[j] + 1 : over;
+                int value = Math.min(Math.min(current[j - 1] + 1, up), previous[j - 1] + cost);
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (to < bLength) current[to + 1] = over;
+            if (rowMin > maxDistance) return over;
+            int[] swap = previous; previous = current; current = swap;
+        }
+        return Math.min(previous[bLength], over);
+    }
+
+    /**
+     * Words split on whitespace and underscores.
+     */
+    private static List<String> words(String query) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= query.length(); i++) {
+            boolean separator = i == query.length() || query.charAt(i) == '_' || Character.isWhitespace(query.charAt(i));
+            if (separator) {
+                if (start >= 0) words.add(query.substring(start, i));
+                start = -1;
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+        return words;
+    }
+
+    // ===== Per-query state =====
+
+    private static final class Query {
+        final String text;
+        final String keyForm;        // words joined with '_', as pattern keys are written
+        final QueryShape shape;
+        private List<String> terms;  // tokenized on first use; only some strategies need it
+
+        Query(String query) {
+            this.text = query.trim();
+            List<String> words = words(text);
+            this.keyForm = String.join("_", words);
+            this.shape = shapeOf(words.size());
+        }
+
+        synchronized List<String> terms() {
+            if (terms == null) {
+                terms = TextTokenizer.terms(text);
+            }
+            return terms;
+        }
+    }
+
+    /**
+     * Merges strategy results; signals completion for early termination.
+     */
+    private final class Collector {
+        private final int k;
+        private final Map<String, Float> scores = new HashMap<>();
+        private int confident;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Collector(int k) {
+            this.k = k;
+        }
+
+        boolean isDone() {
+            return done.isDone();
+        }
+
+        synchronized void merge(Strategy strategy, Map<String, Float> hits) {
+            if (isDone()) return;
+            for (Map.Entry<String, Float> hit : hits.entrySet()) {
+                float before = scores.getOrDefault(hit.getKey(), 0f);
+                float after = before + strategy.weight * hit.getValue();
+                scores.put(hit.getKey(), after);
+                if (before < CONFIDENT && after >= CONFIDENT) confident++;
+            }
+            if (confident >= k || (strategy == Strategy.EXACT_KEY && !hits.isEmpty())) {
+                done.complete(null);
+            }
+        }
+
+        void finish() {
+            done.complete(null);
+        }
+
+        synchronized List<Hit> top() {
+            Map<String, Double> ranked = new HashMap<>(scores.size() * 2);
+            for (Map.Entry<String, Float> e : scores.entrySet()) {
+                ranked.put(e.getKey(), e.getValue() + POPULARITY_WEIGHT * popularity.applyAsDouble(e.getKey()));
+            }
+            return ranked.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()))
+                .filter(e -> byKey.containsKey(e.getKey()))
+                .limit(k)
+                .map(e -> new Hit(byKey.get(e.getKey()), e.getValue().floatValue()))
+                .toList();
+        }
+    }
+
+    /**
+     * One ranked result: the pattern and its combined strategy and popularity score.
+     */
+    public static final class Hit {
+        public final DSAPattern pattern;
+        public final float score;
+
+        Hit(DSAPattern pattern, float score) {
+            this.pattern = pattern;
+            this.score = score;
+        }
+
+        @Override
+        public String toString() {
+            return pattern.getKey() + String.format("(%.3f)", score);
+        }
+    }
+
+    /**
+     * Latency and hit counters for one strategy. The calibration factor is an
+     * exponential moving average of measured / prior cost.
+     */
+    private static final class StrategyStats {
+        private static final double ALPHA = 0.2;
+
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+        private volatile double calibration = 1.0;
+
+        synchronized void record(double micros, double priorMicros, boolean hit) {
+            calls.increment();
+            if (hit) hits.increment();
+            totalMicros.add((long) micros);
+            double ratio = micros / Math.max(priorMicros, 1);
+            calibration = calibration + ALPHA * (ratio - calibration);
+        }
+
+        double calibration() {
+            return calibration;
+        }
+
+        @Override
+        public String toString() {
+            long n = calls.sum();
+            return "calls=" + n + ", hits=" + hits.sum()
+                + ", avgUs=" + (n == 0 ? 0 : totalMicros.sum() / n)
+                + String.format(", calibration=%.2f", calibration);
+        }
+    }
+}
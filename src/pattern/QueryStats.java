@@ -0,0 +1,303 @@
+package pattern;
+
+import util.Settings;
+import util.WorkerPools;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for knowing which queries and patterns are hot.
+ *
+ * Searches are appended to a QueryLog; a background compactor periodically
+ * drains the new records into two frequency tables (normalized query -> count,
+ * pattern key -> count) saved next to the log, so the counts survive restarts
+ * while the log itself stays a fixed-size ring. The tables drive startup
+ * prewarming (hottest queries and patterns first) and a popularity prior that
+ * breaks near-ties in ranking.
+ *
+ * Configured by DSA_QUERY_LOG: the log file (default query-log/queries.bin), or
+ * "off" to disable.
+ */
+public class QueryStats implements AutoCloseable {
+
+    private static final String DEFAULT_LOG = "query-log/queries.bin";
+    private static final int LOG_CAPACITY = 16_384;          // 2 MiB of records
+    private static final long COMPACT_INTERVAL_SECONDS = 30;
+    private static final int MAX_QUERIES = 2_048;            // rarest dropped beyond this
+    private static final long DECAY_TOTAL = 1L << 20;        // halve all counts past this many hits
+    private static final int MAGIC = 0x51535431;             // "QST1"
+
+    private final QueryLog log;
+    private final Path tableFile;
+    private final Map<String, Long> queryCounts = new HashMap<>();
+    private final Map<String, Long> patternCounts = new HashMap<>();
+    private final ScheduledExecutorService compactor;
+    private Map<Long, String> keysByHash = Collections.emptyMap();
+    private long compacted;             // next log sequence to fold in
+    private long stalledAt = -1;        // in-flight record seen by the previous pass
+    private long lost;
+    private long total;
+    private volatile long maxPatternCount;
+    private volatile Map<String, Long> patternSnapshot = Collections.emptyMap();
+
+    private QueryStats(QueryLog log, Path tableFile) throws IOException {
+        this.log = log;
+        this.tableFile = tableFile;
+        loadTables();
+        if (compacted > log.appended()) {
+            // The log was deleted or replaced; start over from its beginning
+            compacted = 0;
+        }
+        publishSnapshot();
+        this.compactor = Executors.newSingleThreadScheduledExecutor(WorkerPools.threadFactory("query-log-compactor"));
+        compactor.scheduleWithFixedDelay(this::compactQuietly,
+            COMPACT_INTERVAL_SECONDS, COMPACT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Open the log and tables named by DSA_QUERY_LOG, or null when disabled or
+     * unavailable, e.g. because another running instance owns the log.
+     */
+    public static QueryStats openDefault() {
+        String setting = Settings.setting("DSA_QUERY_LOG", DEFAULT_LOG).trim();
+        if (setting.equalsIgnoreCase("off")) return null;
+        Path logFile = Paths.get(setting.isEmpty() ? DEFAULT_LOG : setting);
+        try {
+            QueryStats stats = open(logFile, LOG_CAPACITY);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    stats.close();
+                } catch (IOException e) {
+                    System.err.println("[QueryStats] Final compaction failed: " + e.getMessage());
+                }
+            }, "query-log-close"));
+            return stats;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[QueryStats] Query log unavailable (" + logFile + "), queries are not recorded: "
+                + e.getMessage());
+            return null;
+        }
+    }
+
+    public static QueryStats open(Path logFile, int capacity) throws IOException {
+        QueryLog log = QueryLog.open(logFile, capacity);
+        try {
+            return new QueryStats(log, logFile.resolveSibling(logFile.getFileName() + ".stats"));
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Record one search; lock-free, called on the search path.
+     */
+    public void record(String query, String topKey) {
+        log.append(query, topKey);
+    }
+
+    /**
+     * Pattern keys the compactor may meet as hashes in the log.
+     */
+    public synchronized void setKnownKeys(Collection<String> keys) {
+        Map<Long, String> byHash = new HashMap<>(keys.size() * 2);
+        for (String key : keys) byHash.put(QueryLog.keyHash(key), key);
+        keysByHash = byHash;
+    }
+
+    /**
+     * Fold every completed record appended since the last pass into the tables
+     * and save them.
+     *
+     * @return number of records folded in
+     */
+    public synchronized int compact() throws IOException {
+        long end = log.appended();
+        if (end - compacted > log.capacity()) {
+            // The ring wrapped past records never compacted
+            lost += end - log.capacity() - compacted;
+            compacted = end - log.capacity();
+        }
+        int folded = 0;
+        while (compacted < end) {
+            QueryLog.Record record = log.read(compacted);
+            if (record == null && log.inFlight(compacted) && stalledAt != compacted) {
+                // Still being written: pick it up next pass (or skip it if it never completes)
+                stalledAt = compacted;
+                break;
+            }
+            if (record == null) {
+                lost++;
+            } else {
+                fold(record);
+                folded++;
+            }
+            compacted++;
+        }
+        if (folded > 0) {
+            decayIfNeeded();
+            trimQueries();
+            saveTables();
+            publishSnapshot();
+        }
+        return folded;
+    }
+
+    private void fold(QueryLog.Record record) {
+        total++;
+        if (!record.truncated && !record.query.isEmpty()) {
+            queryCounts.merge(record.query, 1L, Long::sum);
+        }
+        if (record.keyHash != 0) {
+            String key = keysByHash.get(record.keyHash);
+            if (key != null) patternCounts.merge(key, 1L, Long::sum);
+        }
+    }
+
+    // Old interest fades: past DECAY_TOTAL hits every count is halved
+    private void decayIfNeeded() {
+        if (total < DECAY_TOTAL) return;
+        total /= 2;
+        queryCounts.replaceAll((q, c) -> c / 2);
+        patternCounts.replaceAll((k, c) -> c / 2);
+        queryCounts.values().removeIf(c -> c == 0);
+        patternCounts.values().removeIf(c -> c == 0);
+    }
+
+    private void trimQueries() {
+        if (queryCounts.size() <= MAX_QUERIES) return;
+        List<String> kept = top(queryCounts, MAX_QUERIES);
+        queryCounts.keySet().retainAll(new HashSet<>(kept));
+    }
+
+    private void compactQuietly() {
+        try {
+            int folded = compact();
+            if (folded > 0) {
+                System.out.println("[QueryStats] Compacted " + folded + " queries (" + this + ")");
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[QueryStats] Compaction failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Most frequent queries (normalized), most frequent first.
+     */
+    public synchronized List<String> hotQueries(int n) {
+        return top(queryCounts, n);
+    }
+
+    /**
+     * Keys of the most frequently returned patterns, most frequent first.
+     */
+    public List<String> hotPatterns(int n) {
+        return top(patternSnapshot, n);
+    }
+
+    /**
+     * Popularity of a pattern in [0, 1]: log-scaled hit count relative to the
+     * hottest pattern, so a few hundred hits do not bury a rarely used exact match.
+     */
+    public double popularity(String key) {
+        long max = maxPatternCount;
+        if (max == 0) return 0;
+        Long count = patternSnapshot.get(key);
+        return count == null ? 0 : Math.log1p(count) / Math.log1p(max);
+    }
+
+    private void publishSnapshot() {
+        patternSnapshot = Map.copyOf(patternCounts);
+        long max = 0;
+        for (long count : patternCounts.values()) max = Math.max(max, count);
+        maxPatternCount = max;
+    }
+
+    private static List<String> top(Map<String, Long> counts, int n) {
+        return counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()))
+            .limit(n)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    // ===== Table file =====
+
+    private void loadTables() throws IOException {
+        if (!Files.exists(tableFile)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(tableFile)))) {
+            if (in.readInt() != MAGIC) {
+                System.err.println("[QueryStats] Ignoring unrecognised " + tableFile);
+                return;
+            }
+            compacted = in.readLong();
+            total = in.readLong();
+            readCounts(in, queryCounts);
+            readCounts(in, patternCounts);
+        } catch (EOFException e) {
+            System.err.println("[QueryStats] Truncated " + tableFile + ", starting fresh");
+            queryCounts.clear();
+            patternCounts.clear();
+            compacted = 0;
+            total = 0;
+        }
+    }
+
+    private static void readCounts(DataInputStream in, Map<String, Long> counts) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            counts.put(in.readUTF(), in.readLong());
+        }
+    }
+
+    // Written to a temporary file and moved into place, so a crash never leaves half a table.
+    // Only the process owning the log's lock saves, so the temporary name cannot collide
+    private void saveTables() throws IOException {
+        Path temp = tableFile.resolveSibling(tableFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(compacted);
+            out.writeLong(total);
+            writeCounts(out, queryCounts);
+            writeCounts(out, patternCounts);
+        }
+        Files.move(temp, tableFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeCounts(DataOutputStream out, Map<String, Long> counts) throws IOException {
+        out.writeInt(counts.size());
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    /**
+     * Final compaction, then release the log.
+     */
+    @Override
+    public void close() throws IOException {
+        compactor.shutdownNow();
+        try {
+            compact();
+        } finally {
+            log.close();
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "queries=" + queryCounts.size() + ", patterns=" + patternCounts.size()
+            + ", logged=" + log.appended() + ", lost=" + lost;
+    }
+}
@@ -0,0 +1,53 @@
+package pattern;
+
+import java.util.Arrays;
+
+/**
+ * ResultSink that collects into primitive arrays, meant to be reused.
+ * Callers keep one per thread and clear() it before each search; once it has
+ * grown to the largest result count, collecting allocates nothing.
+ * Not thread-safe.
+ */
+public class ResultBuffer implements ResultSink {
+
+    private int[] ids;
+    private float[] scores;
+    private int size;
+
+    public ResultBuffer() {
+        this(8);
+    }
+
+    public ResultBuffer(int capacity) {
+        ids = new int[Math.max(1, capacity)];
+        scores = new float[ids.length];
+    }
+
+    @Override
+    public boolean accept(int patternId, float score) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+        }
+        ids[size] = patternId;
+        scores[size] = score;
+        size++;
+        return true;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int id(int index) {
+        return ids[index];
+    }
+
+    public float score(int index) {
+        return scores[index];
+    }
+}
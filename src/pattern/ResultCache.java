@@ -0,0 +1,101 @@
+package pattern;
+
+import dsa.LongIntHashMap;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for remembering ranked results of recent queries.
+ *
+ * Entries are found by the hash of the normalized query (QueryLog.normalizedHash)
+ * and confirmed against the stored normalized text in place, so a lookup never
+ * builds the normalized string. Results sit in preallocated primitive arrays,
+ * k (id, score) pairs per slot, and a full cache evicts by CLOCK (second chance)
+ * instead of keeping an access-ordered list. A hit therefore allocates nothing.
+ */
+public class ResultCache {
+
+    private final int capacity;
+    private final int k;
+    private final LongIntHashMap slotByHash;    // hash -> slot + 1
+    private final long[] hashes;
+    private final String[] queries;
+    private final int[] counts;
+    private final int[] ids;
+    private final float[] scores;
+    private final boolean[] referenced;
+    private int size;
+    private int hand;
+
+    /**
+     * @param capacity queries kept
+     * @param k        results kept per query
+     */
+    public ResultCache(int capacity, int k) {
+        this.capacity = capacity;
+        this.k = k;
+        this.slotByHash = new LongIntHashMap(capacity);
+        this.hashes = new long[capacity];
+        this.queries = new String[capacity];
+        this.counts = new int[capacity];
+        this.ids = new int[capacity * k];
+        this.scores = new float[capacity * k];
+        this.referenced = new boolean[capacity];
+    }
+
+    /**
+     * Push the cached results for {@code query} into {@code sink}.
+     * The sink is called under the cache lock and must not block.
+     *
+     * @return number of results pushed, or -1 if the query is not cached
+     */
+    public synchronized int get(String query, ResultSink sink) {
+        int slot = slotByHash.get(QueryLog.normalizedHash(query)) - 1;
+        if (slot < 0 || !QueryLog.normalizesTo(query, queries[slot])) return -1;
+        referenced[slot] = true;
+        int base = slot * k;
+        int pushed = 0;
+        while (pushed < counts[slot]) {
+            boolean more = sink.accept(ids[base + pushed], scores[base + pushed]);
+            pushed++;
+            if (!more) break;
+        }
+        return pushed;
+    }
+
+    /**
+     * Cache the first k of {@code results} for {@code query}, replacing any entry
+     * with the same normalized hash.
+     */
+    public synchronized void put(String query, ResultBuffer results) {
+        long hash = QueryLog.normalizedHash(query);
+        int slot = slotByHash.get(hash) - 1;
+        if (slot < 0) {
+            slot = size < capacity ? size++ : evict();
+            hashes[slot] = hash;
+            slotByHash.put(hash, slot + 1);
+        }
+        queries[slot] = QueryLog.normalize(query);
+        counts[slot] = Math.min(results.size(), k);
+        for (int i = 0; i < counts[slot]; i++) {
+            ids[slot * k + i] = results.id(i);
+            scores[slot * k + i] = results.score(i);
+        }
+        referenced[slot] = false;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Sweep to the first slot not used since the last pass and free it
+    private int evict() {
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = (hand + 1) % capacity;
+        }
+        int slot = hand;
+        hand = (hand + 1) % capacity;
+        slotByHash.remove(hashes[slot]);
+        return slot;
+    }
+}
@@ -0,0 +1,15 @@
+package pattern;
+
+/**
+ * Receiver for ranked search results, pushed one at a time, best first.
+ * Results are dense pattern ids (see OfflinePatternEngine#pattern(int)) with
+ * their ranking score, so a search need not build a list or wrapper objects.
+ */
+@FunctionalInterface
+public interface ResultSink {
+
+    /**
+     * @return false to stop receiving further results
+     */
+    boolean accept(int patternId, float score);
+}
@@ -0,0 +1,181 @@
+package pattern;
+
+import util.Settings;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for keeping Java templates compressed and decoding them on demand.
+ *
+ * Templates repeat the same scaffolding (class Solution, loop headers, imports),
+ * which a single template is too short to profit from. The codec is trained on the
+ * corpus first: the lines that save the most bytes (occurrences x length) go into a
+ * preset Deflater dictionary of up to 32 KB, the deflate window, with the most
+ * valuable lines last where back-references are shortest. Every template is then
+ * raw-deflated against that dictionary, so even a short template compresses.
+ *
+ * Decoded templates are kept in a small LRU (DSA_TEMPLATE_CACHE, default 64), so
+ * the pattern on screen is inflated once, not on every repaint. Inflaters hold
+ * native zlib memory, so a few are pooled and reused rather than made per thread
+ * (a server may run each request on a new virtual thread). Thread-safe.
+ */
+public class TemplateCodec {
+
+    private static final int MAX_DICTIONARY = 32 * 1024;
+    private static final int TRAINING_SAMPLE = 4_096;
+    private static final int CACHE_SIZE = Settings.intSetting("DSA_TEMPLATE_CACHE", 64);
+    private static final int POOLED_INFLATERS = 4;
+
+    private final byte[] dictionary;
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+    private final Deque<Inflater> inflaters = new ArrayDeque<>();
+    private final Map<Object, String> decoded = new LinkedHashMap<Object, String>(32, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private TemplateCodec(byte[] dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Build a codec whose dictionary is trained on (a sample of) the given templates.
+     */
+    public static TemplateCodec train(Collection<String> templates) {
+        List<String> all = new ArrayList<>(templates);
+        int stride = Math.max(1, all.size() / TRAINING_SAMPLE);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < all.size(); i += stride) {
+            String template = all.get(i);
+            if (template == null) continue;
+            int start = 0;
+            while (start < template.length()) {
+                int newline = template.indexOf('\n', start);
+                int end = newline < 0 ? template.length() : newline + 1;
+                if (end - start > 3) counts.merge(template.substring(start, end), 1, Integer::sum);
+                start = end;
+            }
+        }
+
+        // A line seen once saves nothing; the rest are ranked by the bytes they save
+        List<Map.Entry<String, Integer>> lines = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() > 1) lines.add(entry);
+        }
+        lines.sort(Comparator.comparingLong((Map.Entry<String, Integer> e) ->
+            (long) (e.getValue() - 1) * e.getKey().length()).reversed());
+
+        Deque<byte[]> chosen = new ArrayDeque<>();
+        int size = 0;
+        for (Map.Entry<String, Integer> entry : lines) {
+            byte[] line = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            if (size + line.length > MAX_DICTIONARY) continue;
+            chosen.addFirst(line);    // most valuable ends up last
+            size += line.length;
+        }
+        byte[] dictionary = new byte[size];
+        int offset = 0;
+        for (byte[] line : chosen) {
+            System.arraycopy(line, 0, dictionary, offset, line.length);
+            offset += line.length;
+        }
+        return new TemplateCodec(dictionary);
+    }
+
+    public synchronized byte[] compress(String template) {
+        byte[] input = template.getBytes(StandardCharsets.UTF_8);
+        deflater.reset();
+        if (dictionary.length > 0) deflater.setDictionary(dictionary);
+        deflater.setInput(input);
+        deflater.finish();
+        byte[] output = new byte[input.length / 2 + 64];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == output.length) output = Arrays.copyOf(output, output.length * 2);
+            length += deflater.deflate(output, length, output.length - length);
+        }
+        return Arrays.copyOf(output, length);
+    }
+
+    /**
+     * Template for {@code owner}: from the LRU, or inflated from {@code data}.
+     *
+     * @param length UTF-8 length of the original template
+     */
+    public String decode(Object owner, byte[] data, int length) {
+        synchronized (decoded) {
+            String cached = decoded.get(owner);
+            if (cached != null) return cached;
+        }
+        String template = decompress(data, length);
+        synchronized (decoded) {
+            decoded.put(owner, template);
+        }
+        return template;
+    }
+
+    /**
+     * Drop a cached template, e.g. after it was replaced.
+     */
+    public void evict(Object owner) {
+        synchronized (decoded) {
+            decoded.remove(owner);
+        }
+    }
+
+    String decompress(byte[] data, int length) {
+        Inflater inflater;
+        synchronized (inflaters) {
+            inflater = inflaters.poll();
+        }
+        if (inflater == null) inflater = new Inflater(true);
+        try {
+            return inflate(inflater, data, length);
+        } finally {
+            release(inflater);
+        }
+    }
+
+    // Back to the pool, or freed now instead of whenever the GC gets to it
+    private void release(Inflater inflater) {
+        synchronized (inflaters) {
+            if (inflaters.size() < POOLED_INFLATERS) {
+                inflaters.push(inflater);
+                return;
+            }
+        }
+        inflater.end();
+    }
+
+    private String inflate(Inflater inflater, byte[] data, int length) {
+        inflater.reset();
+        if (dictionary.length > 0) inflater.setDictionary(dictionary);
+        inflater.setInput(data);
+        byte[] output = new byte[length];
+        try {
+            int done = 0;
+            while (done < length && !inflater.finished()) {
+                int n = inflater.inflate(output, done, length - done);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                done += n;
+            }
+            if (done != length) {
+                throw new IllegalStateException("Template decoded to " + done + " of " + length + " bytes");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed template", e);
+        }
+        return new String(output, StandardCharsets.UTF_8);
+    }
+
+    public int dictionaryBytes() {
+        return dictionary.length;
+    }
+}
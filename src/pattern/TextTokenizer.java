@@ -0,0 +1,45 @@
+package pattern;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Shared normalization for text retrieval (VectorIndex, InvertedIndex, QueryPlanner):
+ * lower-case alphanumeric runs, stop words dropped, light suffix stripping.
+ */
+final class TextTokenizer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "by", "can", "do", "does", "find", "for", "from",
+        "given", "how", "i", "if", "in", "into", "is", "it", "its", "me", "of", "on", "or", "return",
+        "that", "the", "then", "this", "to", "use", "using", "we", "what", "when", "where", "which",
+        "with", "you", "your");
+
+    private TextTokenizer() {
+    }
+
+    /**
+     * Stemmed, stop-word-free terms of {@code text}, in order.
+     */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String raw : text.toLowerCase().split("[^a-z0-9]+")) {
+            if (!raw.isEmpty() && !STOP_WORDS.contains(raw)) {
+                terms.add(stem(raw));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Crude suffix stripping so "repeats", "repeating" and "repeated" share a term.
+     */
+    static String stem(String word) {
+        if (word.length() > 5 && word.endsWith("ing")) return word.substring(0, word.length() - 3);
+        if (word.length() > 4 && word.endsWith("ed")) return word.substring(0, word.length() - 2);
+        if (word.length() > 4 && word.endsWith("es")) return word.substring(0, word.length() - 2);
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss")) return word.substring(0, word.length() - 1);
+        return word;
+    }
+}
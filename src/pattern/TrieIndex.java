@@ -8,18 +8,20 @@ import java.util.*;
  * Uses Trie data structure for efficient key searching.
  */
 public class TrieIndex {
-    private static class TrieNode {
+    static class TrieNode {
         Map<Character, TrieNode> children = new HashMap<>();
         List<String> keys = new ArrayList<>();
     }
 
     private final TrieNode root = new TrieNode();
+    private final Set<String> indexed = new HashSet<>();
 
     /**
      * Index a pattern key in the Trie.
+     * Each key is stored once per node, so lookups need no de-duplication.
      */
     public void index(String key) {
-        if (key == null || key.isEmpty()) return;
+        if (key == null || key.isEmpty() || !indexed.add(key)) return;
 
         TrieNode current = root;
         for (char c : key.toUpperCase().toCharArray()) {
@@ -44,8 +46,15 @@ public class TrieIndex {
             }
         }
 
-        // Return unique keys from this node
-        return new ArrayList<>(new HashSet<>(current.keys));
+        return new ArrayList<>(current.keys);
+    }
+
+    /**
+     * Open a stateful cursor for search-as-you-type.
+     * The cursor must not be shared between threads.
+     */
+    public PrefixCursor cursor() {
+        return new PrefixCursor(root);
     }
 
     /**
@@ -63,5 +72,6 @@ public class TrieIndex {
     public void clear() {
         root.children.clear();
         root.keys.clear();
+        indexed.clear();
     }
 }
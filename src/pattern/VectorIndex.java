@@ -0,0 +1,275 @@
+package pattern;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.*;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Offline semantic retrieval: connects problem statements such as
+ * "find the longest substring without repeats" to patterns whose text talks about
+ * the same things, even when no key, alias or exact phrase matches.
+ *
+ * Each document becomes a fixed-size TF-IDF vector built with the hashing trick
+ * (unigrams + bigrams, signed buckets, no vocabulary to store). All vectors live in
+ * one contiguous off-heap float matrix, L2-normalized, so cosine similarity is a
+ * plain dot product. At 100k x 256 a full scan reads ~100 MB and is bound by memory
+ * bandwidth rather than arithmetic.
+ */
+public class VectorIndex {
+
+    public static final int DEFAULT_DIMENSIONS = 256;
+
+    private final int dimensions;
+    private final String[] ids;
+    private final FloatBuffer matrix;   // ids.length rows x dimensions columns, row-major
+    private final float[] idf;
+
+    private VectorIndex(int dimensions, String[] ids, FloatBuffer matrix, float[] idf) {
+        this.dimensions = dimensions;
+        this.ids = ids;
+        this.matrix = matrix;
+        this.idf = idf;
+    }
+
+    /**
+     * Index patterns by key using their descriptive text (not the code template).
+     */
+    public static VectorIndex fromPatterns(Collection<DSAPattern> patterns) {
+        List<String> ids = new ArrayList<>(patterns.size());
+        List<String> texts = new ArrayList<>(patterns.size());
+        for (DSAPattern p : patterns) {
+            ids.add(p.getKey());
+            texts.add(documentText(p));
+        }
+        return build(ids, texts, DEFAULT_DIMENSIONS);
+    }
+
+    /**
+     * Build an index over arbitrary documents.
+     */
+    public static VectorIndex build(List<String> ids, List<String> texts, int dimensions) {
+        int n = ids.size();
+
+        // Pass 1: term frequencies per document, document frequency per bucket
+        float[][] tf = new float[n][];
+        int[] df = new int[dimensions];
+        for (int d = 0; d < n; d++) {
+            tf[d] = termVector(texts.get(d), dimensions);
+            for (int i = 0; i < dimensions; i++) {
+                if (tf[d][i] != 0) df[i]++;
+            }
+        }
+
+        float[] idf = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            idf[i] = (float) (Math.log((n + 1.0) / (df[i] + 1.0)) + 1.0);
+        }
+
+        // Pass 2: weight, normalize and copy into the off-heap matrix
+        FloatBuffer matrix = ByteBuffer.allocateDirect(n * dimensions * Float.BYTES)
+            .order(ByteOrder.nativeOrder())
+            .asFloatBuffer();
+        for (int d = 0; d < n; d++) {
+            float[] row = tf[d];
+            weightAndNormalize(row, idf);
+            matrix.put(d * dimensions, row);
+            tf[d] = null;
+        }
+
+        return new VectorIndex(dimensions, ids.toArray(new String[0]), matrix, idf);
+    }
+
+    /**
+     * Top-k ids by cosine similarity, best first, keeping only scores >= minScore.
+     * Empty when k <= 0.
+     */
+    public List<Hit> search(String query, int k, float minScore) {
+        if (k <= 0) return List.of();
+        float[] q = termVector(query, dimensions);
+        weightAndNormalize(q, idf);
+
+        // Min-heap of the best k rows, kept in two primitive arrays
+        int[] heapRows = new int[k];
+        float[] heapScores = new float[k];
+        int size = 0;
+        float[] scratch = new float[dimensions];
+
+        for (int row = 0; row < ids.length; row++) {
+            float score = dot(row, q, scratch);
+            if (score < minScore) continue;
+            if (size < k) {
+                heapRows[size] = row;
+                heapScores[size] = score;
+                siftUp(heapRows, heapScores, size++);
+            } else if (score > heapScores[0]) {
+                heapRows[0] = row;
+                heapScores[0] = score;
+                siftDown(heapRows, heapScores, size);
+            }
+        }
+
+        Hit[] hits = new Hit[size];
+        for (int i = size - 1; i >= 0; i--) {
+            hits[i] = new Hit(ids[heapRows[0]], heapScores[0]);
+            heapRows[0] = heapRows[i];
+            heapScores[0] = heapScores[i];
+            siftDown(heapRows, heapScores, i);
+        }
+        return Arrays.asList(hits);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Off-heap bytes used by the vector matrix.
+     */
+    public long matrixBytes() {
+        return (long) ids.length * dimensions * Float.BYTES;
+    }
+
+    /**
+     * Cosine similarity of a row with the (normalized) query. The row is bulk-copied
+     * out of the off-heap matrix into {@code scratch} (one memcpy instead of a bounds
+     * check per element), and four independent accumulators break the add dependency chain.
+     */
+    private float dot(int row, float[] q, float[] scratch) {
+        matrix.get(row * dimensions, scratch);
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < dimensions; i += 4) {
+            s0 += scratch[i] * q[i];
+            s1 += scratch[i + 1] * q[i + 1];
+            s2 += scratch[i + 2] * q[i + 2];
+            s3 += scratch[i + 3] * q[i + 3];
+        }
+        for (; i < dimensions; i++) {
+            s0 += scratch[i] * q[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    // ===== Text to vector =====
+
+    private static String documentText(DSAPattern p) {
+        StringBuilder sb = new StringBuilder();
+        // Key and aliases twice: they are the strongest signal
+        String key = p.getKey().replace('_', ' ');
+        sb.append(key).append(' ').append(key).append('\n');
+        append(sb, p.getAliases());
+        append(sb, p.getAliases());
+        append(sb, p.getCategory());
+        append(sb, p.getWhenToUse());
+        append(sb, p.getDescription());
+        append(sb, p.getExampleProblems());
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, String field) {
+        if (field != null && !field.isEmpty()) {
+            sb.append(field).append('\n');
+        }
+    }
+
+    /**
+     * Raw (1 + log tf) counts of hashed unigrams and bigrams, with a hash-derived sign.
+     */
+    private static float[] termVector(String text, int dimensions) {
+        float[] counts = new float[dimensions];
+        String previous = null;
+        for (String term : TextTokenizer.terms(text)) {
+            addTerm(counts, term, 1.0f);
+            if (previous != null) {
+                addTerm(counts, previous + ' ' + term, 0.5f);
+            }
+            previous = term;
+        }
+        for (int i = 0; i < dimensions; i++) {
+            float c = counts[i];
+            if (c != 0) {
+                counts[i] = Math.signum(c) * (float) (1 + Math.log(Math.abs(c)));
+            }
+        }
+        return counts;
+    }
+
+    private static void addTerm(float[] counts, String term, float weight) {
+        int h = mix(term.hashCode());
+        int bucket = Math.floorMod(h, counts.length);
+        counts[bucket] += (h & 0x8000_0000) == 0 ? weight : -weight;
+    }
+
+    private static void weightAndNormalize(float[] v, float[] idf) {
+        double norm = 0;
+        for (int i = 0; i < v.length; i++) {
+            v[i] *= idf[i];
+            norm += v[i] * v[i];
+        }
+        if (norm == 0) return;
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < v.length; i++) {
+            v[i] *= inv;
+        }
+    }
+
+    /**
+     * Murmur3 finalizer: spreads String.hashCode bits across buckets and the sign bit.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    // ===== Heap helpers =====
+
+    private static void siftUp(int[] rows, float[] scores, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= scores[i]) break;
+            swap(rows, scores, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] rows, float[] scores, int size) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) break;
+            int smallest = left + 1 < size && scores[left + 1] < scores[left] ? left + 1 : left;
+            if (scores[i] <= scores[smallest]) break;
+            swap(rows, scores, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(int[] rows, float[] scores, int a, int b) {
+        int r = rows[a]; rows[a] = rows[b]; rows[b] = r;
+        float s = scores[a]; scores[a] = scores[b]; scores[b] = s;
+    }
+
+    /**
+     * A search result: document id and cosine similarity.
+     */
+    public static final class Hit {
+        public final String id;
+        public final float score;
+
+        Hit(String id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        @Override
+        public String toString() {
+            return id + String.format("(%.3f)", score);
+        }
+    }
+}
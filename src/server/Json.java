@@ -0,0 +1,100 @@
+package server;
+
+import java.util.Collection;
+
+/**
+ * Minimal compact JSON writer for the query service (no external dependencies).
+ */
+class Json {
+
+    private final StringBuilder sb = new StringBuilder(256);
+    private boolean needsComma;
+
+    Json beginObject() {
+        separator();
+        sb.append('{');
+        needsComma = false;
+        return this;
+    }
+
+    Json endObject() {
+        sb.append('}');
+        needsComma = true;
+        return this;
+    }
+
+    Json beginArray(String name) {
+        name(name);
+        sb.append('[');
+        needsComma = false;
+        return this;
+    }
+
+    Json endArray() {
+        sb.append(']');
+        needsComma = true;
+        return this;
+    }
+
+    Json field(String name, String value) {
+        if (value == null || value.isEmpty()) return this;
+        name(name);
+        string(value);
+        needsComma = true;
+        return this;
+    }
+
+    Json field(String name, long value) {
+        name(name);
+        sb.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    Json strings(String name, Collection<String> values) {
+        beginArray(name);
+        for (String value : values) {
+            separator();
+            string(value);
+            needsComma = true;
+        }
+        return endArray();
+    }
+
+    private void name(String name) {
+        separator();
+        string(name);
+        sb.append(':');
+        needsComma = false;
+    }
+
+    private void separator() {
+        if (needsComma) sb.append(',');
+    }
+
+    private void string(String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+}
@@ -0,0 +1,249 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import engine.AutocompleteEngine;
+import pattern.DSAPattern;
+import pattern.OfflinePatternEngine.PatternResult;
+import pattern.PrefixCursor;
+import util.WorkerPools;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Headless HTTP query service over a single warm AutocompleteEngine.
+ * Lets other tools share one loaded corpus instead of each paying the load cost.
+ *
+ * Endpoints (GET, compact JSON):
+ *   /search?q=sliding window         - ranked offline search
+ *   /pattern?key=KADANE_ALGORITHM    - full pattern details
+ *   /category?name=dp                - patterns in a category
+ *   /autocomplete?prefix=dij&limit=5 - pattern keys by prefix
+ *   /health                          - liveness, pattern count and query planner stats
+ *
+ * Runs one virtual thread per request (Java 21+), falling back to a bounded pool.
+ * Connections are kept alive (HTTP/1.1 with Content-Length on every response).
+ *
+ * Usage: java -cp out server.QueryServer [port]
+ */
+public class QueryServer {
+
+    private static final int DEFAULT_PORT = 8085;
+    private static final int BACKLOG = 4096;
+    private static final int PLATFORM_FALLBACK_THREADS = 256;
+    private static final int DEFAULT_AUTOCOMPLETE_LIMIT = 10;
+    private static final int MAX_IDLE_CONNECTIONS = 10_000;
+
+    private final AutocompleteEngine engine;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public QueryServer(AutocompleteEngine engine, int port) throws IOException {
+        // Headers and body are written separately; without TCP_NODELAY, Nagle plus delayed
+        // ACKs add ~40 ms to every keep-alive request
+        defaultProperty("sun.net.httpserver.nodelay", "true");
+        // The JDK server closes keep-alive connections beyond 200 idle ones by default
+        defaultProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(MAX_IDLE_CONNECTIONS));
+        this.engine = engine;
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        this.executor = WorkerPools.newPerTaskExecutor("query-server", PLATFORM_FALLBACK_THREADS);
+
+        server.createContext("/search", exchange -> handle(exchange, this::search));
+        server.createContext("/pattern", exchange -> handle(exchange, this::pattern));
+        server.createContext("/category", exchange -> handle(exchange, this::category));
+        server.createContext("/autocomplete", exchange -> handle(exchange, this::autocomplete));
+        server.createContext("/health", exchange -> handle(exchange, this::health));
+        server.setExecutor(executor);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        QueryServer queryServer = new QueryServer(new AutocompleteEngine(), port);
+        queryServer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(queryServer::stop));
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("[QueryServer] Listening on port " + server.getAddress().getPort()
+            + (WorkerPools.usesVirtualThreads() ? " (virtual threads)" : " (platform threads)"));
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // ===== Handlers =====
+
+    private Response search(Map<String, String> params) {
+        String query = params.get("q");
+        if (query == null || query.isBlank()) {
+            return Response.badRequest("Missing parameter: q");
+        }
+        Json json = new Json().beginObject().field("query", query);
+        writeSummaries(json, engine.searchOfflinePatterns(query));
+        return Response.ok(json.endObject());
+    }
+
+    private Response pattern(Map<String, String> params) {
+        String key = params.get("key");
+        if (key == null || key.isBlank()) {
+            return Response.badRequest("Missing parameter: key");
+        }
+        PatternResult result = engine.findPattern(key);
+        if (result == null) {
+            return new Response(404, new Json().beginObject().field("error", "Pattern not found: " + key).endObject());
+        }
+        DSAPattern p = result.pattern;
+        Json json = new Json().beginObject()
+            .field("key", p.getKey())
+            .field("category", p.getCategory())
+            .field("difficulty", p.getDifficulty())
+            .field("aliases", p.getAliases())
+            .field("whenToUse", p.getWhenToUse())
+            .field("intuition", p.getIntuition())
+            .field("javaTemplate", p.getJavaTemplate())
+            .field("timeComplexity", p.getTimeComplexity())
+            .field("spaceComplexity", p.getSpaceComplexity())
+            .field("commonMistakes", p.getCommonMistakes())
+            .field("exampleProblems", p.getExampleProblems())
+            .endObject();
+        return Response.ok(json);
+    }
+
+    private Response category(Map<String, String> params) {
+        String name = params.get("name");
+        if (name == null || name.isBlank()) {
+            return Response.badRequest("Missing parameter: name");
+        }
+        Json json = new Json().beginObject().field("category", name);
+        writeSummaries(json, engine.getPatternsByCategory(name));
+        return Response.ok(json.endObject());
+    }
+
+    private Response autocomplete(Map<String, String> params) {
+        String prefix = params.get("prefix");
+        if (prefix == null || prefix.isBlank()) {
+            return Response.badRequest("Missing parameter: prefix");
+        }
+        int limit = parseLimit(params.get("limit"));
+        PrefixCursor cursor = engine.openPatternCursor();
+        cursor.moveTo(prefix.replace(' ', '_'));
+        Json json = new Json().beginObject()
+            .field("prefix", prefix)
+            .strings("keys", cursor.matches(limit))
+            .endObject();
+        return Response.ok(json);
+    }
+
+    private Response health(Map<String, String> params) {
+        return Response.ok(new Json().beginObject()
+            .field("status", "UP")
+            .field("patterns", engine.getAllPatternNames().size())
+            .field("planner", engine.getPlannerStats())
+            .endObject());
+    }
+
+    private static void writeSummaries(Json json, List<PatternResult> results) {
+        json.beginArray("results");
+        for (PatternResult result : results) {
+            DSAPattern p = result.pattern;
+            json.beginObject()
+                .field("key", p.getKey())
+                .field("category", p.getCategory())
+                .field("difficulty", p.getDifficulty())
+                .field("timeComplexity", p.getTimeComplexity())
+                .field("spaceComplexity", p.getSpaceComplexity())
+                .endObject();
+        }
+        json.endArray();
+    }
+
+    private static int parseLimit(String value) {
+        if (value == null) return DEFAULT_AUTOCOMPLETE_LIMIT;
+        try {
+            return Math.max(1, Math.min(100, Integer.parseInt(value)));
+        } catch (NumberFormatException e) {
+            return DEFAULT_AUTOCOMPLETE_LIMIT;
+        }
+    }
+
+    // ===== Plumbing =====
+
+    private static void defaultProperty(String name, String value) {
+        if (System.getProperty(name) == null) {
+            System.setProperty(name, value);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Response handle(Map<String, String> params);
+    }
+
+    private static void handle(HttpExchange exchange, Handler handler) throws IOException {
+        Response response;
+        try {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                response = new Response(405, new Json().beginObject().field("error", "Only GET is supported").endObject());
+            } else {
+                response = handler.handle(parseQuery(exchange.getRequestURI().getRawQuery()));
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[QueryServer] Error handling " + exchange.getRequestURI() + ": " + e.getMessage());
+            response = new Response(500, new Json().beginObject().field("error", "Internal error").endObject());
+        }
+
+        byte[] body = response.body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static final class Response {
+        final int status;
+        final Json body;
+
+        Response(int status, Json body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Response ok(Json body) {
+            return new Response(200, body);
+        }
+
+        static Response badRequest(String message) {
+            return new Response(400, new Json().beginObject().field("error", message).endObject());
+        }
+    }
+}
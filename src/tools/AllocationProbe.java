@@ -0,0 +1,101 @@
+package tools;
+
+import pattern.FilePatternSource;
+import pattern.OfflinePatternEngine;
+import pattern.QueryStats;
+import pattern.ResultBuffer;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for checking that a cached search allocates nothing.
+ *
+ * Repeats a set of queries (pattern keys, their lower-case spaced forms and padded
+ * prefixes) through OfflinePatternEngine.search into one reused ResultBuffer and
+ * reads the thread's allocated-bytes counter around each round, first without and
+ * then with query recording (into a temporary log, never the real one). Every
+ * measured round must allocate 0 bytes; the first rounds are warm-up, so the
+ * result cache is filled and the search path is compiled before anything counts.
+ *
+ * Usage: {@code java -cp out tools.AllocationProbe [corpusDir]}; exits 1 if a search allocates.
+ */
+public class AllocationProbe {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 5;
+    private static final int REPEATS = 2_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final OfflinePatternEngine engine;
+    private final List<String> queries = new ArrayList<>();
+    private final ResultBuffer buffer = new ResultBuffer();
+    private int failures;
+
+    public AllocationProbe(OfflinePatternEngine engine) {
+        this.engine = engine;
+        int step = Math.max(1, engine.patternCount() / 100);
+        for (int id = 0; id < engine.patternCount(); id += step) {
+            String key = engine.pattern(id).getKey();
+            queries.add(key);
+            queries.add(key.toLowerCase().replace('_', ' '));
+            queries.add("  " + key.substring(0, Math.min(5, key.length())) + "  ");
+        }
+    }
+
+    private long round() {
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int rep = 0; rep < REPEATS; rep++) {
+            for (String query : queries) {
+                buffer.clear();
+                engine.search(query, buffer);
+            }
+        }
+        return THREADS.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    private void measure(String name) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) round();
+        long bytes = 0;
+        for (int i = 0; i < ROUNDS; i++) bytes += round();
+        long searches = (long) ROUNDS * REPEATS * queries.size();
+
+        boolean ok = bytes == 0;
+        if (!ok) failures++;
+        System.out.printf("[AllocationProbe] %s %s: %d bytes over %d searches (%.3f bytes/search)%n",
+            ok ? "OK  " : "FAIL", name, bytes, searches, (double) bytes / searches);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (!THREADS.isThreadAllocatedMemorySupported()) {
+            System.err.println("[AllocationProbe] This JVM does not count allocated bytes per thread");
+            System.exit(1);
+        }
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+
+        Path dir = Paths.get(args.length > 0 ? args[0] : "resources");
+        OfflinePatternEngine engine = new OfflinePatternEngine(new FilePatternSource(dir,
+            FilePatternSource.StorageMode.HEAP, FilePatternSource.DedupeMode.OFF));
+        engine.whenReady().join();
+
+        AllocationProbe probe = new AllocationProbe(engine);
+        probe.measure("cached search");
+
+        Path logDir = Files.createTempDirectory("allocation-probe");
+        try (QueryStats stats = QueryStats.open(logDir.resolve("queries.bin"), 4_096)) {
+            engine.recordQueries(stats);
+            probe.measure("cached search, recorded");
+        }
+
+        System.out.println("[AllocationProbe] " + (probe.failures == 0 ? "All checks passed"
+            : probe.failures + " check(s) failed"));
+        System.exit(probe.failures == 0 ? 0 : 1);
+    }
+}
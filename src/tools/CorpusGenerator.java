@@ -0,0 +1,242 @@
+package tools;
+
+import util.Settings;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for writing synthetic pattern corpora in the resources/ text
+ * format, so the engine can be measured at sizes the hand-written corpus never
+ * reaches.
+ *
+ * Field lengths are drawn from log-normal distributions (median and spread per
+ * field), which gives the long tail real documentation has. Words come from a
+ * DSA vocabulary with Zipf-distributed frequencies, so keyword postings and
+ * TF-IDF weights are skewed the way natural text is; templates are built from
+ * Java line shapes with varying identifiers, so snippet mining sees repetition
+ * as well as variety. The same seed always produces the same corpus.
+ *
+ * Usage: {@code java -cp out tools.CorpusGenerator [outDir] [patterns] [seed]}
+ * Shape settings (environment or -D): DSA_GEN_CATEGORIES (24),
+ * DSA_GEN_TEMPLATE_LINES (median, 24), DSA_GEN_DESCRIPTION_WORDS (median, 60),
+ * DSA_GEN_SPREAD (log-normal sigma, 0.6), DSA_GEN_ALIASES (2).
+ */
+public class CorpusGenerator {
+
+    private static final String[] VOCABULARY = (
+        "array index element sum window pointer left right sorted target pair subarray "
+        + "prefix range query update node edge graph tree root child parent leaf depth level "
+        + "path cycle visit queue stack heap priority minimum maximum count frequency map "
+        + "set hash key value string character substring palindrome sequence subsequence "
+        + "increasing decreasing interval merge split partition pivot binary search middle "
+        + "lower upper bound state transition memo table dynamic programming recursion base "
+        + "case greedy choice optimal local global shortest distance weight cost capacity "
+        + "matrix row column grid neighbor direction island component union find rank "
+        + "parent bit mask xor shift power modulo prime factor divisor digit number integer "
+        + "overflow boundary empty duplicate unique order reverse rotate swap scan traverse "
+        + "linear logarithmic quadratic constant time space complexity invariant monotonic "
+        + "deque trie segment fenwick sparse lazy propagation topological degree source sink "
+        + "flow match pattern prefix suffix border hash rolling window expand shrink valid").split(" ");
+
+    private static final String[] NAME_PARTS = (
+        "sliding two fast slow monotonic prefix suffix binary ternary bidirectional lazy "
+        + "segment fenwick sparse rolling greedy dynamic recursive iterative bitmask "
+        + "topological union disjoint interval cyclic matrix grid tree graph heap deque "
+        + "trie stack queue hash window pointer search sort merge partition scan").split(" ");
+
+    private static final String[] NAME_NOUNS = (
+        "window pointers sum search sort tree traversal path cover partition count "
+        + "merge scan sweep walk fill match decomposition flow order table queue").split(" ");
+
+    private static final String[] DIFFICULTIES = {"Easy", "Medium", "Hard"};
+    private static final String[] COMPLEXITIES = {
+        "O(1)", "O(log n)", "O(n)", "O(n log n)", "O(n^2)", "O(n^3)", "O(2^n)", "O(V + E)", "O(n * m)"};
+
+    private static final String[] TEMPLATE_LINES = {
+        "int %s = 0;",
+        "int %s = %s.length;",
+        "for (int i = 0; i < %s; i++) {",
+        "for (int j = i + 1; j < %s; j++) {",
+        "while (%s < %s) {",
+        "if (%s[i] > %s) {",
+        "if (%s == null) return %s;",
+        "%s = Math.max(%s, %s);",
+        "%s = Math.min(%s, %s);",
+        "%s += %s[i];",
+        "Map<Integer, Integer> %s = new HashMap<>();",
+        "%s.put(%s, %s.getOrDefault(%s, 0) + 1);",
+        "Deque<Integer> %s = new ArrayDeque<>();",
+        "%s.offerLast(i);",
+        "while (!%s.isEmpty() && %s[%s.peekLast()] < %s[i]) %s.pollLast();",
+        "PriorityQueue<int[]> %s = new PriorityQueue<>((a, b) -> a[0] - b[0]);",
+        "int mid = %s + (%s - %s) / 2;",
+        "return %s;",
+        "}",
+    };
+
+    private final Random random;
+    private final int categories;
+    private final int templateLines;
+    private final int descriptionWords;
+    private final double spread;
+    private final int aliases;
+    private final double[] zipf;
+
+    public CorpusGenerator(long seed, int categories, int templateLines, int descriptionWords,
+                           double spread, int aliases) {
+        this.random = new Random(seed);
+        this.categories = categories;
+        this.templateLines = templateLines;
+        this.descriptionWords = descriptionWords;
+        this.spread = spread;
+        this.aliases = aliases;
+        this.zipf = zipfCumulative(VOCABULARY.length, 1.0);
+    }
+
+    /**
+     * Write {@code count} patterns under {@code out}, one directory per category.
+     *
+     * @return total bytes written
+     */
+    public long generate(Path out, int count) throws IOException {
+        List<Path> dirs = new ArrayList<>();
+        for (int c = 0; c < categories; c++) {
+            Path dir = out.resolve(String.format("synthetic_%02d", c));
+            Files.createDirectories(dir);
+            dirs.add(dir);
+        }
+        long bytes = 0;
+        for (int i = 0; i < count; i++) {
+            int category = i % categories;
+            String key = key(i);
+            String text = pattern(key, category);
+            Path file = dirs.get(category).resolve(key.toLowerCase() + ".txt");
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write(text);
+            }
+            bytes += text.length();
+        }
+        return bytes;
+    }
+
+    private String key(int i) {
+        String part = NAME_PARTS[random.nextInt(NAME_PARTS.length)];
+        String noun = NAME_NOUNS[random.nextInt(NAME_NOUNS.length)];
+        return (part + "_" + noun + "_" + i).toUpperCase();
+    }
+
+    String pattern(String key, int category) {
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("KEY: ").append(key).append('\n');
+        if (aliases > 0) {
+            sb.append("ALIASES: ");
+            for (int a = 0; a < aliases; a++) {
+                if (a > 0) sb.append(", ");
+                sb.append(NAME_PARTS[random.nextInt(NAME_PARTS.length)]).append(' ')
+                  .append(NAME_NOUNS[random.nextInt(NAME_NOUNS.length)]);
+            }
+            sb.append('\n');
+        }
+        sb.append("CATEGORY: Synthetic ").append(category).append('\n');
+        sb.append("DIFFICULTY: ").append(DIFFICULTIES[random.nextInt(DIFFICULTIES.length)]).append('\n');
+        sb.append("TIME_COMPLEXITY: ").append(COMPLEXITIES[random.nextInt(COMPLEXITIES.length)]).append('\n');
+        sb.append("SPACE_COMPLEXITY: ").append(COMPLEXITIES[random.nextInt(4)]).append("\n\n");
+
+        sb.append("DESCRIPTION:\n").append(sentence(lengthAround(descriptionWords))).append("\n\n");
+        sb.append("WHEN_TO_USE:\n");
+        for (int b = 0, n = 2 + random.nextInt(5); b < n; b++) {
+            sb.append("- ").append(sentence(lengthAround(6))).append('\n');
+        }
+        sb.append("\nINTUITION:\n").append(sentence(lengthAround(descriptionWords))).append("\n\n");
+
+        sb.append("JAVA_TEMPLATE:\n```java\nclass Solution {\n    public int solve(int[] nums) {\n");
+        for (int l = 0, n = lengthAround(templateLines); l < n; l++) {
+            sb.append("        ").append(templateLine()).append('\n');
+        }
+        sb.append("    }\n}\n```\n\n");
+
+        sb.append("COMMON_MISTAKES:\n");
+        for (int b = 0, n = 1 + random.nextInt(4); b < n; b++) {
+            sb.append("- ").append(sentence(lengthAround(8))).append('\n');
+        }
+        sb.append("\nEXAMPLE_PROBLEMS:\n");
+        for (int b = 0, n = 2 + random.nextInt(4); b < n; b++) {
+            sb.append("- ").append(capitalize(sentence(2 + random.nextInt(3)))).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Log-normal around a median: most values near it, a long tail above
+    private int lengthAround(int median) {
+        return Math.max(1, (int) Math.round(median * Math.exp(spread * random.nextGaussian())));
+    }
+
+    private String sentence(int words) {
+        StringBuilder sb = new StringBuilder(words * 8);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) sb.append(' ');
+            sb.append(word());
+        }
+        return sb.toString();
+    }
+
+    private String word() {
+        int i = Arrays.binarySearch(zipf, random.nextDouble());
+        return VOCABULARY[Math.min(VOCABULARY.length - 1, i < 0 ? -i - 1 : i)];
+    }
+
+    private String templateLine() {
+        String shape = TEMPLATE_LINES[random.nextInt(TEMPLATE_LINES.length)];
+        int slots = shape.split("%s", -1).length - 1;
+        Object[] names = new Object[slots];
+        for (int s = 0; s < slots; s++) {
+            names[s] = identifier();
+        }
+        return String.format(shape, names);
+    }
+
+    private String identifier() {
+        String a = word();
+        String b = word();
+        return random.nextInt(3) == 0 ? a : a + Character.toUpperCase(b.charAt(0)) + b.substring(1);
+    }
+
+    private static String capitalize(String s) {
+        return s.isEmpty() ? s : Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    private static double[] zipfCumulative(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            total += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < n; i++) cumulative[i] /= total;
+        return cumulative;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path out = Paths.get(args.length > 0 ? args[0] : "synthetic-corpus");
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        CorpusGenerator generator = new CorpusGenerator(seed,
+            Settings.intSetting("DSA_GEN_CATEGORIES", 24),
+            Settings.intSetting("DSA_GEN_TEMPLATE_LINES", 24),
+            Settings.intSetting("DSA_GEN_DESCRIPTION_WORDS", 60),
+            Double.parseDouble(Settings.setting("DSA_GEN_SPREAD", "0.6")),
+            Integer.parseInt(Settings.setting("DSA_GEN_ALIASES", "2")));
+
+        long start = System.nanoTime();
+        long bytes = generator.generate(out, count);
+        System.out.printf("[CorpusGenerator] Wrote %d patterns (%.1f MB) to %s in %.1f s%n",
+            count, bytes / 1e6, out, (System.nanoTime() - start) / 1e9);
+    }
+}
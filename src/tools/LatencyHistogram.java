@@ -0,0 +1,103 @@
+package tools;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for recording latencies and reporting their percentiles.
+ *
+ * Log-linear buckets: each power of two of nanoseconds is split into 16 linear
+ * sub-buckets, so every recorded value is known to within ~6% from 1 µs up to
+ * minutes in a few kilobytes. Recording is one atomic increment, safe from any
+ * number of threads and free of allocation.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAGNITUDES = 64 - SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray((MAGNITUDES + 1) * SUB_BUCKETS);
+    private final AtomicLongArray totals = new AtomicLongArray(3);   // count, sum, max
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        totals.incrementAndGet(0);
+        totals.addAndGet(1, value);
+        long max;
+        while (value > (max = totals.get(2)) && !totals.compareAndSet(2, max, value)) {
+            // retry
+        }
+    }
+
+    // Values below 16 ns map one-to-one; above, the top 5 bits pick the bucket
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int magnitude = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS + 1;
+        int sub = (int) (value >>> (magnitude - 1)) & (SUB_BUCKETS - 1);
+        return magnitude * SUB_BUCKETS + sub;
+    }
+
+    // Upper bound of a bucket, so reported percentiles never understate
+    private static long upperBound(int bucket) {
+        int magnitude = bucket / SUB_BUCKETS;
+        int sub = bucket % SUB_BUCKETS;
+        if (magnitude == 0) return sub;
+        return ((long) (SUB_BUCKETS + sub + 1) << (magnitude - 1)) - 1;
+    }
+
+    public long count() {
+        return totals.get(0);
+    }
+
+    public long max() {
+        return totals.get(2);
+    }
+
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) totals.get(1) / count;
+    }
+
+    /**
+     * Smallest bucket bound at or above the given fraction of recorded values.
+     */
+    public long percentile(double fraction) {
+        long count = count();
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int b = 0; b < counts.length(); b++) {
+            seen += counts.get(b);
+            if (seen >= rank) return Math.min(upperBound(b), max());
+        }
+        return max();
+    }
+
+    /**
+     * One-line summary in milliseconds.
+     */
+    public String summary() {
+        return String.format("n=%d mean=%.3f p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f ms",
+            count(), mean() / 1e6, percentile(0.50) / 1e6, percentile(0.90) / 1e6,
+            percentile(0.99) / 1e6, percentile(0.999) / 1e6, max() / 1e6);
+    }
+
+    /**
+     * Cumulative distribution, one line per non-empty bucket: bound, count, fraction.
+     */
+    public String distribution() {
+        StringBuilder sb = new StringBuilder();
+        long count = count();
+        long seen = 0;
+        for (int b = 0; b < counts.length(); b++) {
+            long c = counts.get(b);
+            if (c == 0) continue;
+            seen += c;
+            sb.append(String.format("  <= %10.3f ms %8d  %7.3f%%%n",
+                upperBound(b) / 1e6, c, 100.0 * seen / count));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,395 @@
+package tools;
+
+import engine.AutocompleteEngine;
+import pattern.DSAPattern;
+import pattern.FilePatternSource;
+import pattern.OfflinePatternEngine;
+import pattern.ResultBuffer;
+import util.Settings;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for replaying a query mix against the offline engines at a
+ * fixed rate and reporting how they hold up.
+ *
+ * Open loop: requests are scheduled at t0 + i / qps whether or not earlier ones
+ * have finished, and queue for a fixed worker pool when the engine falls behind.
+ * Latency is measured from each request's intended start, not from when a worker
+ * picked it up, so a stall is charged to every request it delayed instead of
+ * silently lowering the offered load (coordinated omission). Service time (worker
+ * start to finish) is reported beside it; the gap between the two is queueing.
+ *
+ * Queries are drawn from the corpus itself, in a weighted mix of shapes:
+ *   key       - an exact pattern key
+ *   prefix    - the first few characters of a key
+ *   phrase    - a few consecutive words of a WHEN_TO_USE line
+ *   statement - a problem-statement-length run of DESCRIPTION words
+ *   fuzzy     - a key with two letters swapped
+ *   code      - getCodeSuggestions on the start of a JAVA_TEMPLATE line
+ *
+ * Each run reports latency and service-time percentiles per shape, the latency
+ * distribution, bytes allocated per request (ThreadMXBean, on the worker that
+ * served it) and the allocation rate, and collections and pause time per
+ * collector. A warm-up run precedes the measured ones and is discarded.
+ *
+ * Usage: {@code java -cp out tools.LoadGenerator [corpusDir] [qps[,qps...]] [seconds]}
+ * Settings (environment or -D): DSA_LOAD_MIX ("key:20,prefix:20,phrase:20,
+ * statement:20,fuzzy:10,code:10"), DSA_LOAD_WARMUP_SECONDS (10),
+ * DSA_LOAD_THREADS (4), DSA_LOAD_QUERIES (distinct queries, 20000).
+ * DSA_PATTERN_STORAGE selects heap or off-heap pattern text as for the app.
+ */
+public class LoadGenerator {
+
+    public enum Shape {
+        KEY, PREFIX, PHRASE, STATEMENT, FUZZY, CODE
+    }
+
+    private static final String DEFAULT_MIX = "key:20,prefix:20,phrase:20,statement:20,fuzzy:10,code:10";
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+    private final AutocompleteEngine engine;
+    private final List<Request> requests;
+    private final ExecutorService workers;
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final LongAdder resultCount = new LongAdder();   // keeps results observably used
+    // Searches go through the sink API into a reused buffer, as an allocation-conscious caller would
+    private final ThreadLocal<ResultBuffer> results = ThreadLocal.withInitial(ResultBuffer::new);
+
+    /**
+     * @param engine   engine to load, already READY
+     * @param requests query pool, replayed in order and cycled
+     * @param threads  worker threads serving requests
+     */
+    public LoadGenerator(AutocompleteEngine engine, List<Request> requests, int threads) {
+        this.engine = engine;
+        this.requests = requests;
+        // Platform threads: per-thread allocation counters are not kept for virtual threads
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "load-worker-" + counter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        this.threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (threadBean.isThreadAllocatedMemorySupported()) {
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    /**
+     * Offer {@code qps} requests per second for {@code seconds}, then wait for the
+     * backlog to drain.
+     */
+    public Run run(double qps, double seconds) {
+        Run run = new Run(qps);
+        double interval = 1e9 / qps;
+        long total = (long) (qps * seconds);
+        run.begin();
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intended = start + (long) (i * interval);
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Request request = requests.get((int) (i % requests.size()));
+            workers.execute(() -> serve(request, intended, run));
+            run.sent++;
+        }
+        run.drain(DRAIN_TIMEOUT_SECONDS);
+        run.end();
+        return run;
+    }
+
+    private void serve(Request request, long intended, Run run) {
+        long begin = System.nanoTime();
+        long allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+        int results = execute(request);
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        long done = System.nanoTime();
+        resultCount.add(results);
+        run.record(request.shape, done - intended, done - begin, allocated);
+    }
+
+    private int execute(Request request) {
+        if (request.shape == Shape.CODE) {
+            return engine.getCodeSuggestions(request.text).size();
+        }
+        ResultBuffer buffer = results.get();
+        buffer.clear();
+        return engine.searchOfflinePatterns(request.text, buffer);
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // ===== Query pool =====
+
+    /**
+     * One replayed query.
+     */
+    public static final class Request {
+        public final Shape shape;
+        public final String text;
+
+        public Request(Shape shape, String text) {
+            this.shape = shape;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Build {@code count} queries from the corpus, shapes weighted by {@code mix}
+     * ("shape:weight,..."). Shapes a pattern cannot supply (no template, say) fall
+     * back to its key.
+     */
+    public static List<Request> queries(List<DSAPattern> patterns, String mix, int count, long seed) {
+        Map<Shape, Integer> weights = parseMix(mix);
+        int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        Random random = new Random(seed);
+        List<Request> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int pick = random.nextInt(totalWeight);
+            Shape shape = null;
+            for (Map.Entry<Shape, Integer> entry : weights.entrySet()) {
+                pick -= entry.getValue();
+                if (pick < 0) {
+                    shape = entry.getKey();
+                    break;
+                }
+            }
+            DSAPattern pattern = patterns.get(random.nextInt(patterns.size()));
+            String text = query(shape, pattern, random);
+            requests.add(text == null || text.isBlank()
+                ? new Request(Shape.KEY, pattern.getKey())
+                : new Request(shape, text));
+        }
+        return requests;
+    }
+
+    static Map<Shape, Integer> parseMix(String mix) {
+        Map<Shape, Integer> weights = new EnumMap<>(Shape.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) throw new IllegalArgumentException("Bad mix entry '" + part + "'");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) weights.put(Shape.valueOf(pair[0].trim().toUpperCase()), weight);
+        }
+        if (weights.isEmpty()) throw new IllegalArgumentException("Empty query mix '" + mix + "'");
+        return weights;
+    }
+
+    private static String query(Shape shape, DSAPattern pattern, Random random) {
+        String key = pattern.getKey();
+        switch (shape) {
+            case KEY:
+                return key;
+            case PREFIX:
+                return key.substring(0, Math.min(key.length(), 3 + random.nextInt(6))).toLowerCase();
+            case PHRASE:
+                return words(randomLine(pattern.getWhenToUse(), random), 2 + random.nextInt(3), random);
+            case STATEMENT:
+                return words(pattern.getDescription(), 8 + random.nextInt(10), random);
+            case FUZZY:
+                return swapTwo(key.toLowerCase(), random);
+            case CODE:
+                String line = randomLine(pattern.getJavaTemplate(), random);
+                if (line == null || line.length() < 3) return null;
+                return line.substring(0, 2 + random.nextInt(line.length() - 1));
+            default:
+                return null;
+        }
+    }
+
+    private static String randomLine(String text, Random random) {
+        if (text == null) return null;
+        List<String> lines = new ArrayList<>();
+        for (String line : text.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("- ")) trimmed = trimmed.substring(2);
+            if (trimmed.length() > 2 && !trimmed.startsWith("```")) lines.add(trimmed);
+        }
+        return lines.isEmpty() ? null : lines.get(random.nextInt(lines.size()));
+    }
+
+    private static String words(String text, int n, Random random) {
+        if (text == null) return null;
+        String[] words = text.trim().split("\\s+");
+        int from = words.length <= n ? 0 : random.nextInt(words.length - n + 1);
+        return String.join(" ", Arrays.copyOfRange(words, from, Math.min(words.length, from + n)));
+    }
+
+    private static String swapTwo(String s, Random random) {
+        if (s.length() < 4) return s;
+        int i = 1 + random.nextInt(s.length() - 2);
+        char[] chars = s.toCharArray();
+        char c = chars[i];
+        chars[i] = chars[i + 1];
+        chars[i + 1] = c;
+        return new String(chars);
+    }
+
+    // ===== Results =====
+
+    /**
+     * Measurements of one run at one offered rate.
+     */
+    public static final class Run {
+        private final double qps;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram service = new LatencyHistogram();
+        private final Map<Shape, LatencyHistogram> latencyByShape = new EnumMap<>(Shape.class);
+        private final Map<Shape, LatencyHistogram> serviceByShape = new EnumMap<>(Shape.class);
+        private final Map<Shape, LongAdder> allocatedByShape = new EnumMap<>(Shape.class);
+        private final LongAdder allocated = new LongAdder();
+        private final AtomicLong completed = new AtomicLong();
+        private final Map<String, long[]> gcBefore = new LinkedHashMap<>();
+        private final Map<String, long[]> gcDelta = new LinkedHashMap<>();
+        private long sent;
+        private long startNanos;
+        private long elapsedNanos;
+        private MemoryUsage heapAfter;
+
+        Run(double qps) {
+            this.qps = qps;
+            for (Shape shape : Shape.values()) {
+                latencyByShape.put(shape, new LatencyHistogram());
+                serviceByShape.put(shape, new LatencyHistogram());
+                allocatedByShape.put(shape, new LongAdder());
+            }
+        }
+
+        void record(Shape shape, long latencyNanos, long serviceNanos, long allocatedBytes) {
+            latency.record(latencyNanos);
+            service.record(serviceNanos);
+            latencyByShape.get(shape).record(latencyNanos);
+            serviceByShape.get(shape).record(serviceNanos);
+            if (allocatedBytes > 0) {
+                allocated.add(allocatedBytes);
+                allocatedByShape.get(shape).add(allocatedBytes);
+            }
+            completed.incrementAndGet();
+        }
+
+        void begin() {
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcBefore.put(gc.getName(), new long[] {gc.getCollectionCount(), gc.getCollectionTime()});
+            }
+            startNanos = System.nanoTime();
+        }
+
+        void drain(long timeoutSeconds) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            while (completed.get() < sent && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+            }
+        }
+
+        void end() {
+            elapsedNanos = System.nanoTime() - startNanos;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                long[] before = gcBefore.getOrDefault(gc.getName(), new long[2]);
+                gcDelta.put(gc.getName(), new long[] {
+                    gc.getCollectionCount() - before[0], gc.getCollectionTime() - before[1]});
+            }
+            heapAfter = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        }
+
+        public LatencyHistogram latency() {
+            return latency;
+        }
+
+        public String report() {
+            double seconds = elapsedNanos / 1e9;
+            long done = completed.get();
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("[LoadGenerator] Offered %.0f qps: %d sent, %d completed in %.1f s (%.1f qps achieved)%n",
+                qps, sent, done, seconds, done / seconds));
+            if (done < sent) {
+                sb.append(String.format("  %d requests still queued after the %d s drain timeout%n",
+                    sent - done, DRAIN_TIMEOUT_SECONDS));
+            }
+            sb.append("  latency (from intended start)\n");
+            sb.append(String.format("    %-9s %s%n", "all", latency.summary()));
+            for (Shape shape : Shape.values()) {
+                LatencyHistogram h = latencyByShape.get(shape);
+                if (h.count() > 0) sb.append(String.format("    %-9s %s%n", shape.name().toLowerCase(), h.summary()));
+            }
+            sb.append("  service time (worker start to finish)\n");
+            sb.append(String.format("    %-9s %s%n", "all", service.summary()));
+            for (Shape shape : Shape.values()) {
+                LatencyHistogram h = serviceByShape.get(shape);
+                if (h.count() > 0) sb.append(String.format("    %-9s %s%n", shape.name().toLowerCase(), h.summary()));
+            }
+            sb.append("  latency distribution\n").append(latency.distribution());
+            long bytes = allocated.sum();
+            sb.append(String.format("  allocation: %.1f MB/s, %.1f KB/request", bytes / 1e6 / seconds,
+                done == 0 ? 0 : bytes / 1024.0 / done));
+            for (Shape shape : Shape.values()) {
+                long n = latencyByShape.get(shape).count();
+                if (n > 0) {
+                    sb.append(String.format(", %s %.1f KB", shape.name().toLowerCase(),
+                        allocatedByShape.get(shape).sum() / 1024.0 / n));
+                }
+            }
+            sb.append('\n');
+            sb.append("  gc:");
+            for (Map.Entry<String, long[]> entry : gcDelta.entrySet()) {
+                sb.append(String.format(" %s %d collections %d ms;", entry.getKey(),
+                    entry.getValue()[0], entry.getValue()[1]));
+            }
+            sb.append(String.format(" heap %d MB used / %d MB committed%n",
+                heapAfter.getUsed() >> 20, heapAfter.getCommitted() >> 20));
+            return sb.toString();
+        }
+    }
+
+    public static void main(String[] args) {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "resources");
+        String[] rates = (args.length > 1 ? args[1] : "100").split(",");
+        double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 30;
+        String mix = Settings.setting("DSA_LOAD_MIX", DEFAULT_MIX);
+        int warmupSeconds = Settings.intSetting("DSA_LOAD_WARMUP_SECONDS", 10);
+        int threads = Settings.intSetting("DSA_LOAD_THREADS", 4);
+        int queryCount = Settings.intSetting("DSA_LOAD_QUERIES", 20_000);
+
+        long start = System.nanoTime();
+        FilePatternSource source = new FilePatternSource(dir, FilePatternSource.StorageMode.fromEnvironment(),
+            FilePatternSource.DedupeMode.OFF);
+        // Built without a QueryStats, so replayed queries never reach the real query log
+        AutocompleteEngine engine = new AutocompleteEngine(new OfflinePatternEngine(source));
+        engine.whenReady().join();
+        List<DSAPattern> patterns = engine.getAllPatterns();
+        System.out.printf("[LoadGenerator] Loaded %d patterns from %s in %.1f s%n",
+            patterns.size(), dir, (System.nanoTime() - start) / 1e9);
+        if (patterns.isEmpty()) {
+            System.err.println("[LoadGenerator] No patterns under " + dir);
+            System.exit(1);
+        }
+
+        List<Request> requests = queries(patterns, mix, queryCount, 7);
+        LoadGenerator generator = new LoadGenerator(engine, requests, threads);
+        double firstRate = Double.parseDouble(rates[0].trim());
+        System.out.println("[LoadGenerator] Warm-up: " + warmupSeconds + " s at " + rates[0].trim() + " qps");
+        generator.run(firstRate, warmupSeconds);
+        for (String rate : rates) {
+            System.out.print(generator.run(Double.parseDouble(rate.trim()), seconds).report());
+        }
+        generator.shutdown();
+    }
+}
@@ -0,0 +1,224 @@
+package tools;
+
+import ai.GenAIClient;
+import ai.LocalModelBackend;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for standing in for a chat completions server that misbehaves
+ * on cue, so GenAIClient's retries and circuit breaker can be exercised offline.
+ *
+ * Each request is answered by the next fault of a script:
+ *   ok      - a normal completion (streamed as server-sent events if asked to)
+ *   slow:MS - the same completion, after MS milliseconds
+ *   429:N   - 429 Too Many Requests with Retry-After: N seconds
+ *   NNN     - a bare HTTP status, e.g. 500 or 503
+ *   timeout - hold the request open longer than the client is willing to wait
+ *
+ * check (default) runs GenAIClient through a set of scripts against a local
+ * backend pointed at the stub and exits 1 if any outcome is not the expected one.
+ * serve keeps the stub up for the app: point LOCAL_MODEL_URL at it and set
+ * DSA_AI_BACKEND=local; the given faults repeat in a cycle.
+ *
+ * Usage: {@code java -cp out tools.ModelFaultStub [check]}
+ *        {@code java -cp out tools.ModelFaultStub serve [port] [fault,fault,...]}
+ */
+public class ModelFaultStub implements AutoCloseable {
+
+    private static final String OK = "ok";
+    private static final String TIMEOUT = "timeout";
+    private static final int CLIENT_TIMEOUT_SECONDS = 1;
+    private static final long HOLD_MILLIS = (CLIENT_TIMEOUT_SECONDS + 2) * 1000L;
+    private static final String ANSWER = "=== SOLUTION ===\\nclass Solution {}\\n";
+
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private final Deque<String> script = new ArrayDeque<>();
+    private final List<String> cycle;
+    private final AtomicInteger requests = new AtomicInteger();
+    private int next;
+
+    /**
+     * @param port  port to listen on, 0 for any free one
+     * @param cycle faults served once the script is used up; empty means always ok
+     */
+    public ModelFaultStub(int port, List<String> cycle) throws IOException {
+        this.cycle = List.copyOf(cycle);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions";
+    }
+
+    /**
+     * Answer the next requests with {@code faults}, then fall back to the cycle.
+     */
+    public synchronized void script(String... faults) {
+        script.clear();
+        script.addAll(Arrays.asList(faults));
+        requests.set(0);
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    private synchronized String nextFault() {
+        if (!script.isEmpty()) return script.poll();
+        if (cycle.isEmpty()) return OK;
+        String fault = cycle.get(next);
+        next = (next + 1) % cycle.size();
+        return fault;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            requests.incrementAndGet();
+            String fault = nextFault();
+            System.out.println("[ModelFaultStub] " + exchange.getRequestMethod() + " "
+                + exchange.getRequestURI() + " -> " + fault);
+
+            if (fault.equals(TIMEOUT)) {
+                hold(HOLD_MILLIS);
+                exchange.sendResponseHeaders(504, -1);
+            } else if (fault.startsWith("slow:")) {
+                hold(Long.parseLong(fault.substring(5)));
+                answer(exchange, body.contains("\"stream\":true"));
+            } else if (fault.equals(OK)) {
+                answer(exchange, body.contains("\"stream\":true"));
+            } else if (fault.startsWith("429:")) {
+                exchange.getResponseHeaders().set("Retry-After", fault.substring(4));
+                exchange.sendResponseHeaders(429, -1);
+            } else {
+                exchange.sendResponseHeaders(Integer.parseInt(fault), -1);
+            }
+        }
+    }
+
+    private static void hold(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void answer(HttpExchange exchange, boolean stream) throws IOException {
+        String response;
+        if (stream) {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            response = "data: {\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}\n\n"
+                + "data: {\"choices\":[{\"delta\":{\"content\":\"" + ANSWER + "\"}}]}\n\n"
+                + "data: [DONE]\n\n";
+        } else {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            response = "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"" + ANSWER + "\"}}]}";
+        }
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    // --- check ---
+
+    private int failures;
+
+    /**
+     * Run one script on a fresh channel (closed circuit, full rate limiter) and
+     * compare the outcome and the number of requests that reached the stub.
+     */
+    private void expect(String name, boolean answered, int expectedRequests, long minMillis, String... faults) {
+        GenAIClient.useBackend(new LocalModelBackend());
+        script(faults);
+        expectCall(name, answered, expectedRequests, minMillis);
+    }
+
+    private void expectCall(String name, boolean answered, int expectedRequests, long minMillis) {
+        long start = System.nanoTime();
+        Optional<String> response = GenAIClient.generateCode("fault check: " + name);
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        boolean ok = response.isPresent() == answered && requests() == expectedRequests && millis >= minMillis;
+        if (!ok) failures++;
+        System.out.printf("[ModelFaultStub] %-4s %-28s answered=%b requests=%d (expected %b, %d) %d ms%n",
+            ok ? "OK" : "FAIL", name, response.isPresent(), requests(), answered, expectedRequests, millis);
+    }
+
+    private void expectCircuit(String name, String state) {
+        String metrics = GenAIClient.getResilienceMetrics();
+        boolean ok = metrics.contains("circuitBreaker{state=" + state);
+        if (!ok) failures++;
+        System.out.println("[ModelFaultStub] " + (ok ? "OK  " : "FAIL") + " " + name + ": " + metrics);
+    }
+
+    private void check() {
+        expect("retry after 429", true, 2, 1000, "429:1");
+        expect("retry 5xx", true, 3, 0, "500", "503");
+        expect("give up after 3 attempts", false, 3, 0, "500", "502", "503");
+        expect("Retry-After beyond max wait", false, 1, 0, "429:60");
+        expect("4xx is not retried", false, 1, 0, "400");
+        expect("retry after timeout", true, 2, CLIENT_TIMEOUT_SECONDS * 1000L, TIMEOUT);
+
+        // Five consecutive failures open the circuit: 3 on the first call, the
+        // second call's 2nd failure trips it mid-retry, the third never leaves
+        GenAIClient.useBackend(new LocalModelBackend());
+        script("500", "500", "500", "500", "500", "500", "500");
+        expectCall("circuit: first call", false, 3, 0);
+        expectCall("circuit: trips mid-retry", false, 5, 0);
+        expectCircuit("circuit open after 5 failures", "OPEN");
+        expectCall("circuit: open fails fast", false, 5, 0);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String mode = args.length > 0 ? args[0] : "check";
+        if (mode.equals("serve")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+            List<String> faults = args.length > 2 ? Arrays.asList(args[2].split(",")) : List.of(OK);
+            ModelFaultStub stub = new ModelFaultStub(port, faults);
+            System.out.println("[ModelFaultStub] Serving " + faults + " at " + stub.url());
+            return;
+        }
+
+        try (ModelFaultStub stub = new ModelFaultStub(0, List.of())) {
+            System.setProperty("LOCAL_MODEL_URL", stub.url());
+            System.setProperty("LOCAL_MODEL_TIMEOUT_SECONDS", String.valueOf(CLIENT_TIMEOUT_SECONDS));
+            stub.check();
+            System.out.println("[ModelFaultStub] " + (stub.failures == 0 ? "All checks passed"
+                : stub.failures + " check(s) failed"));
+            if (stub.failures > 0) System.exit(1);
+        }
+        System.exit(0);
+    }
+}
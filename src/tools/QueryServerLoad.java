@@ -0,0 +1,370 @@
+package tools;
+
+import engine.AutocompleteEngine;
+import pattern.FilePatternSource;
+import pattern.OfflinePatternEngine;
+import server.QueryServer;
+import util.Settings;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for loading QueryServer over HTTP with many concurrent
+ * keep-alive connections and reporting throughput and latency percentiles.
+ *
+ * Closed loop per connection: each connection keeps one request in flight and
+ * sends the next as soon as the response is complete, so C connections hold C
+ * requests outstanding. Thousands of connections are driven by a few selector
+ * threads (non-blocking NIO, HTTP/1.1 keep-alive) rather than a thread each, so
+ * the client does not run out of threads before the server runs out of capacity.
+ * Latency is send-to-last-byte of each request; only requests sent and answered
+ * inside the measured window count, after a discarded warm-up.
+ *
+ * Requests cycle through /search by key, /search by lowercase words and
+ * /autocomplete by prefix, built from the keys the server itself returns.
+ * Non-2xx responses and broken connections are counted; a broken connection is
+ * replaced, so the number of connections stays constant.
+ *
+ * Usage: {@code java -cp out tools.QueryServerLoad [host:port|local] [connections[,connections...]] [seconds]}
+ * (defaults localhost:8085, 1000, 30). "local" starts a QueryServer over
+ * resources/ in this JVM. Settings (environment or -D): DSA_LOAD_WARMUP_SECONDS
+ * (10), DSA_HTTP_LOAD_THREADS (selector threads, one per CPU).
+ */
+public class QueryServerLoad {
+
+    private static final int HEADER_LIMIT = 8 * 1024;
+    private static final int READ_BUFFER = 64 * 1024;
+    private static final Pattern KEY = Pattern.compile("\"([A-Z0-9_]+)\"");
+
+    private final InetSocketAddress target;
+    private final List<byte[]> requests;
+    private final int threads;
+
+    /**
+     * @param target   server address
+     * @param paths    request paths with query strings, cycled by every connection
+     * @param threads  selector threads sharing the connections
+     */
+    public QueryServerLoad(InetSocketAddress target, List<String> paths, int threads) {
+        this.target = target;
+        this.threads = threads;
+        this.requests = new ArrayList<>(paths.size());
+        String host = target.getHostString() + ":" + target.getPort();
+        for (String path : paths) {
+            String request = "GET " + path + " HTTP/1.1\r\nHost: " + host + "\r\nAccept: application/json\r\n\r\n";
+            requests.add(request.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Counters of one run at a fixed number of connections.
+     */
+    public static final class Run {
+        final int connections;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder failedResponses = new LongAdder();
+        final LongAdder brokenConnections = new LongAdder();
+        volatile long measureFrom = Long.MAX_VALUE;
+        volatile long measureUntil = Long.MAX_VALUE;
+        volatile boolean stopped;
+
+        Run(int connections) {
+            this.connections = connections;
+        }
+
+        void complete(long sentAt, long now, int status) {
+            if (sentAt < measureFrom || now > measureUntil) return;
+            latency.record(now - sentAt);
+            if (status < 200 || status >= 300) failedResponses.increment();
+        }
+
+        public String report() {
+            double seconds = (measureUntil - measureFrom) / 1e9;
+            return String.format("%6d connections: %9.0f req/s  p50=%.3f p99=%.3f p99.9=%.3f max=%.3f ms"
+                    + "  failed=%d broken=%d%n  %s",
+                connections, latency.count() / seconds,
+                latency.percentile(0.50) / 1e6, latency.percentile(0.99) / 1e6,
+                latency.percentile(0.999) / 1e6, latency.max() / 1e6,
+                failedResponses.sum(), brokenConnections.sum(), latency.summary());
+        }
+    }
+
+    /**
+     * Hold {@code connections} open against the server for a warm-up and a measured window.
+     */
+    public Run run(int connections, double warmupSeconds, double seconds) throws InterruptedException {
+        Run run = new Run(connections);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int share = connections / threads + (i < connections % threads ? 1 : 0);
+            Worker worker = new Worker(run, share, i * requests.size() / threads);
+            Thread thread = new Thread(worker, "query-server-load-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            workers.add(thread);
+        }
+        Thread.sleep((long) (warmupSeconds * 1000));
+        run.measureFrom = System.nanoTime();
+        Thread.sleep((long) (seconds * 1000));
+        run.measureUntil = System.nanoTime();
+        run.stopped = true;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return run;
+    }
+
+    /**
+     * One selector thread and its share of the connections.
+     */
+    private final class Worker implements Runnable {
+        private final Run run;
+        private final int connections;
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER);
+        private int requestIndex;
+        private Selector selector;
+
+        Worker(Run run, int connections, int firstRequest) {
+            this.run = run;
+            this.connections = connections;
+            this.requestIndex = firstRequest;
+        }
+
+        @Override
+        public void run() {
+            try (Selector opened = Selector.open()) {
+                selector = opened;
+                for (int i = 0; i < connections; i++) {
+                    connect();
+                }
+                while (!run.stopped) {
+                    selector.select(100);
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            connection.ready(key);
+                        } catch (IOException e) {
+                            run.brokenConnections.increment();
+                            key.channel().close();
+                            connect();
+                        }
+                    }
+                }
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+            } catch (IOException e) {
+                System.err.println("[QueryServerLoad] Worker failed: " + e.getMessage());
+            }
+        }
+
+        private void connect() throws IOException {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_CONNECT);
+            key.attach(new Connection(channel));
+            if (channel.connect(target)) {
+                ((Connection) key.attachment()).send(key);
+            }
+        }
+
+        private byte[] nextRequest() {
+            byte[] request = requests.get(requestIndex);
+            requestIndex = (requestIndex + 1) % requests.size();
+            return request;
+        }
+
+        /**
+         * Request and response state of one keep-alive connection.
+         */
+        private final class Connection {
+            private final SocketChannel channel;
+            private final byte[] header = new byte[HEADER_LIMIT];
+            private ByteBuffer out;
+            private int headerLength;
+            private long bodyRemaining;
+            private int status;
+            private boolean closeAfter;
+            private long sentAt;
+
+            Connection(SocketChannel channel) {
+                this.channel = channel;
+            }
+
+            void ready(SelectionKey key) throws IOException {
+                if (key.isConnectable()) {
+                    channel.finishConnect();
+                    send(key);
+                } else if (key.isWritable()) {
+                    flush(key);
+                } else if (key.isReadable()) {
+                    read(key);
+                }
+            }
+
+            void send(SelectionKey key) throws IOException {
+                out = ByteBuffer.wrap(nextRequest());
+                headerLength = 0;
+                bodyRemaining = -1;
+                sentAt = System.nanoTime();
+                flush(key);
+            }
+
+            private void flush(SelectionKey key) throws IOException {
+                channel.write(out);
+                key.interestOps(out.hasRemaining() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+            }
+
+            private void read(SelectionKey key) throws IOException {
+                readBuffer.clear();
+                if (channel.read(readBuffer) < 0) throw new EOFException("Server closed the connection");
+                readBuffer.flip();
+                while (readBuffer.hasRemaining()) {
+                    if (bodyRemaining < 0) {
+                        if (headerLength == header.length) throw new IOException("Response header too long");
+                        header[headerLength++] = readBuffer.get();
+                        if (headerComplete()) parseHeader();
+                    } else {
+                        int skip = (int) Math.min(bodyRemaining, readBuffer.remaining());
+                        readBuffer.position(readBuffer.position() + skip);
+                        bodyRemaining -= skip;
+                    }
+                    if (bodyRemaining == 0) {
+                        if (readBuffer.hasRemaining()) throw new IOException("Unexpected bytes after response");
+                        break;
+                    }
+                }
+                if (bodyRemaining != 0) return;
+
+                run.complete(sentAt, System.nanoTime(), status);
+                if (closeAfter) {
+                    key.channel().close();
+                    connect();
+                } else {
+                    send(key);
+                }
+            }
+
+            private boolean headerComplete() {
+                return headerLength >= 4 && header[headerLength - 1] == '\n' && header[headerLength - 2] == '\r'
+                    && header[headerLength - 3] == '\n' && header[headerLength - 4] == '\r';
+            }
+
+            private void parseHeader() throws IOException {
+                String text = new String(header, 0, headerLength, StandardCharsets.ISO_8859_1);
+                String[] lines = text.split("\r\n");
+                String[] statusLine = lines[0].split(" ", 3);
+                if (statusLine.length < 2) throw new IOException("Bad status line: " + lines[0]);
+                status = Integer.parseInt(statusLine[1]);
+                bodyRemaining = -1;
+                closeAfter = false;
+                for (int i = 1; i < lines.length; i++) {
+                    String line = lines[i].toLowerCase(Locale.ROOT);
+                    if (line.startsWith("content-length:")) {
+                        bodyRemaining = Long.parseLong(line.substring(15).trim());
+                    } else if (line.startsWith("connection:") && line.contains("close")) {
+                        closeAfter = true;
+                    }
+                }
+                if (bodyRemaining < 0) throw new IOException("Response without Content-Length");
+            }
+        }
+    }
+
+    /**
+     * Request paths built from the pattern keys the server returns for each initial letter.
+     */
+    static List<String> requestPaths(InetSocketAddress target) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        Set<String> keys = new LinkedHashSet<>();
+        for (char c = 'A'; c <= 'Z'; c++) {
+            URI uri = URI.create("http://" + target.getHostString() + ":" + target.getPort()
+                + "/autocomplete?prefix=" + c + "&limit=50");
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+            Matcher m = KEY.matcher(response.body());
+            while (m.find()) keys.add(m.group(1));
+        }
+        List<String> paths = new ArrayList<>();
+        for (String key : keys) {
+            paths.add("/search?q=" + encode(key));
+            paths.add("/search?q=" + encode(key.toLowerCase(Locale.ROOT).replace('_', ' ')));
+            paths.add("/autocomplete?prefix=" + encode(key.substring(0, Math.min(3, key.length()))) + "&limit=5");
+        }
+        return paths;
+    }
+
+    private static String encode(String text) {
+        return URLEncoder.encode(text, StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String where = args.length > 0 ? args[0] : "localhost:8085";
+        String[] levels = (args.length > 1 ? args[1] : "1000").split(",");
+        double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 30;
+        int warmupSeconds = Settings.intSetting("DSA_LOAD_WARMUP_SECONDS", 10);
+        int threads = Settings.intSetting("DSA_HTTP_LOAD_THREADS", Runtime.getRuntime().availableProcessors());
+
+        QueryServer local = null;
+        InetSocketAddress target;
+        if (where.equals("local")) {
+            FilePatternSource source = new FilePatternSource(Paths.get("resources"),
+                FilePatternSource.StorageMode.fromEnvironment(), FilePatternSource.DedupeMode.OFF);
+            // Built without a QueryStats, so load queries never reach the real query log
+            AutocompleteEngine engine = new AutocompleteEngine(new OfflinePatternEngine(source));
+            engine.whenReady().join();
+            local = new QueryServer(engine, 0);
+            local.start();
+            target = new InetSocketAddress("127.0.0.1", local.getPort());
+        } else {
+            int colon = where.lastIndexOf(':');
+            target = new InetSocketAddress(where.substring(0, colon), Integer.parseInt(where.substring(colon + 1)));
+        }
+
+        List<String> paths = requestPaths(target);
+        if (paths.isEmpty()) {
+            System.err.println("[QueryServerLoad] Server returned no pattern keys");
+            System.exit(1);
+        }
+        System.out.printf("[QueryServerLoad] %d request paths against %s, %d selector thread(s), "
+            + "%d s warm-up + %.0f s per level%n", paths.size(), target.getHostString() + ":" + target.getPort(),
+            threads, warmupSeconds, seconds);
+
+        QueryServerLoad load = new QueryServerLoad(target, paths, threads);
+        for (String level : levels) {
+            Run run = load.run(Integer.parseInt(level.trim()), warmupSeconds, seconds);
+            System.out.println("[QueryServerLoad] " + run.report());
+            TimeUnit.MILLISECONDS.sleep(500);   // let the server reap the closed connections
+        }
+        if (local != null) local.stop();
+    }
+}
@@ -0,0 +1,247 @@
+package tools;
+
+import ai.GenAIClient;
+import ai.LocalModelBackend;
+import ai.ResponseSection;
+import engine.AutocompleteEngine;
+import model.TabularPatternResult;
+import pattern.DSAPattern;
+import pattern.FilePatternSource;
+import pattern.OfflinePatternEngine;
+import pattern.OfflinePatternEngine.PatternResult;
+import ui.SearchPipeline;
+
+import javax.swing.SwingUtilities;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for checking, headless, what SearchPipeline delivers to its view.
+ *
+ * The EDT is held while a search runs to completion, so its loading screen and its
+ * result land in the same EdtBatcher batch, the case where a fast result used to
+ * replace the loading update (and the details window never opened). Every search
+ * must show its loading screen first, and a superseded search must show nothing.
+ *
+ * A burst of AI searches, each superseded as soon as its request is queued, then
+ * runs against a ModelFaultStub that answers slowly. Superseded requests must be
+ * interrupted or dropped, not left holding the backend's permit and rate-limit
+ * tokens, so the last search's answer arrives about one slow answer later
+ * instead of after the whole burst has been served.
+ *
+ * Finally a search is superseded on the worker, after its offline stage found
+ * nothing and before its AI request is registered: that request must be cancelled
+ * as it is registered, so only the superseding search's request reaches the server.
+ *
+ * Usage: {@code java -cp out tools.SearchPipelineCheck [corpusDir]}; exits 1 on a failed check.
+ */
+public class SearchPipelineCheck {
+
+    private static final String MISSING = "!!!";
+    private static final int BURST = 20;
+    private static final long SLOW_MILLIS = 500;
+    private static final long LAST_ANSWER_MILLIS = 3_000;
+
+    private final HintHookEngine engine;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final SearchPipeline pipeline;
+    private int failures;
+
+    public SearchPipelineCheck(HintHookEngine engine) {
+        this.engine = engine;
+        this.pipeline = new SearchPipeline(engine, worker);
+    }
+
+    /**
+     * Runs a one-shot action when the pipeline asks for algorithm hints, which the
+     * AI-only stage does after its isCurrent check and before its request starts.
+     */
+    private static final class HintHookEngine extends AutocompleteEngine {
+        private final AtomicReference<Runnable> beforeHints = new AtomicReference<>();
+
+        HintHookEngine(OfflinePatternEngine patternEngine) {
+            super(patternEngine);
+        }
+
+        @Override
+        public List<String> getAlgorithmHints(String problem) {
+            Runnable hook = beforeHints.getAndSet(null);
+            if (hook != null) hook.run();
+            return super.getAlgorithmHints(problem);
+        }
+    }
+
+    /**
+     * Records view calls in the order the EDT makes them.
+     */
+    private static final class RecordingView implements SearchPipeline.View {
+        final List<String> calls = new ArrayList<>();
+
+        @Override public void showLoading(String query) { calls.add("loading " + query); }
+        @Override public void showOffline(DSAPattern pattern, TabularPatternResult tabs, boolean aiPending) {
+            calls.add("offline " + pattern.getKey());
+        }
+        @Override public void showAlternatives(List<PatternResult> alternatives, List<TabularPatternResult> tabs,
+                                               boolean aiPending) {
+            calls.add("alternatives");
+        }
+        @Override public void showAiSection(ResponseSection section, String text) { calls.add("ai section"); }
+        @Override public void showAiInsights(DSAPattern pattern, TabularPatternResult tabs) { calls.add("ai"); }
+        @Override public void showAiOnly(String response) { calls.add("ai only"); }
+        @Override public void showMessage(String message) { calls.add("message"); }
+    }
+
+    /**
+     * Submit each query (offline only) while the EDT is held, let every search
+     * finish, then release the EDT and compare what the view was shown.
+     */
+    private void expect(String name, List<String> expected, String... queries) throws Exception {
+        RecordingView view = new RecordingView();
+        CountDownLatch release = new CountDownLatch(1);
+        SwingUtilities.invokeLater(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        for (String query : queries) {
+            pipeline.submit(query, false, view);
+            settle();
+        }
+        release.countDown();
+        flushEdt();
+
+        boolean ok = view.calls.equals(expected);
+        if (!ok) failures++;
+        System.out.println("[SearchPipelineCheck] " + (ok ? "OK  " : "FAIL") + " " + name + ": "
+            + view.calls + (ok ? "" : " (expected " + expected + ")"));
+    }
+
+    // The worker is single-threaded: once a later task ran, the search and its callbacks are done
+    private void settle() throws InterruptedException, ExecutionException {
+        worker.submit(() -> { }).get();
+    }
+
+    // The batcher drains in an invokeLater queued behind ours; two round trips cover it
+    private static void flushEdt() throws InterruptedException, InvocationTargetException {
+        SwingUtilities.invokeAndWait(() -> { });
+        SwingUtilities.invokeAndWait(() -> { });
+    }
+
+    private void checkOrdering() throws Exception {
+        DSAPattern first = engine.getAllPatterns().get(0);
+        String key = first.getKey();
+        String top = engine.searchOfflinePatterns(key).get(0).pattern.getKey();
+        if (!engine.searchOfflinePatterns(MISSING).isEmpty()) {
+            throw new IllegalStateException("Corpus matches the not-found probe '" + MISSING + "'");
+        }
+
+        expect("loading before a fast result", List.of("loading " + key, "offline " + top), key);
+        expect("loading before not-found", List.of("loading " + MISSING, "message"), MISSING);
+        expect("superseded search shows nothing", List.of("loading " + MISSING, "message"), key, MISSING);
+        expect("superseding search shows its result", List.of("loading " + key, "offline " + top), MISSING, key);
+    }
+
+    /**
+     * @param streamed true for searches with an offline match (streamed augmentation),
+     *                 false for not-found searches (coalesced AI-only generation)
+     */
+    private void checkBurst(String name, boolean streamed) throws Exception {
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; queries.size() < BURST; i++) {
+            String query = streamed ? engine.getAllPatterns().get(i).getKey() : MISSING + "!".repeat(i);
+            if (streamed || engine.searchOfflinePatterns(query).isEmpty()) queries.add(query);
+        }
+
+        try (ModelFaultStub stub = new ModelFaultStub(0, List.of("slow:" + SLOW_MILLIS))) {
+            System.setProperty("LOCAL_MODEL_URL", stub.url());
+            GenAIClient.useBackend(new LocalModelBackend());
+            RecordingView view = new RecordingView();
+            for (String query : queries) {
+                pipeline.submit(query, true, view);
+                settle();
+            }
+
+            long start = System.nanoTime();
+            String answer = streamed ? "ai" : "ai only";
+            while (!shown(view, answer) && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30)) {
+                Thread.sleep(20);
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            boolean ok = shown(view, answer) && millis <= LAST_ANSWER_MILLIS;
+            if (!ok) failures++;
+            System.out.printf("[SearchPipelineCheck] %s %s: last answer after %d ms (limit %d), "
+                    + "%d of %d requests reached the server%n     %s%n",
+                ok ? "OK  " : "FAIL", name, millis, LAST_ANSWER_MILLIS, stub.requests(), BURST,
+                GenAIClient.getResilienceMetrics());
+        }
+    }
+
+    private void checkSupersededBeforeAiStart() throws Exception {
+        String superseded = MISSING + "?";
+        String superseding = MISSING + "??";
+        for (String query : List.of(superseded, superseding)) {
+            if (!engine.searchOfflinePatterns(query).isEmpty()) {
+                throw new IllegalStateException("Corpus matches the not-found probe '" + query + "'");
+            }
+        }
+
+        try (ModelFaultStub stub = new ModelFaultStub(0, List.of("slow:" + SLOW_MILLIS))) {
+            System.setProperty("LOCAL_MODEL_URL", stub.url());
+            GenAIClient.useBackend(new LocalModelBackend());
+            RecordingView view = new RecordingView();
+            engine.beforeHints.set(() -> pipeline.submit(superseding, true, view));
+            pipeline.submit(superseded, true, view);
+            settle();
+            settle();   // the superseding search's offline stage was queued behind the first settle
+
+            long start = System.nanoTime();
+            while (!shown(view, "ai only") && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30)) {
+                Thread.sleep(20);
+            }
+
+            boolean ok = shown(view, "ai only") && stub.requests() == 1;
+            if (!ok) failures++;
+            System.out.println("[SearchPipelineCheck] " + (ok ? "OK  " : "FAIL")
+                + " superseded before its AI request started: " + stub.requests()
+                + " request(s) reached the server (expected 1)");
+        }
+    }
+
+    private static boolean shown(RecordingView view, String call) throws Exception {
+        boolean[] shown = new boolean[1];
+        SwingUtilities.invokeAndWait(() -> shown[0] = view.calls.contains(call));
+        return shown[0];
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "resources");
+        FilePatternSource source = new FilePatternSource(dir, FilePatternSource.StorageMode.HEAP,
+            FilePatternSource.DedupeMode.OFF);
+        // Built without a QueryStats, so check queries never reach the real query log
+        HintHookEngine engine = new HintHookEngine(new OfflinePatternEngine(source));
+        engine.whenReady().join();
+
+        SearchPipelineCheck check = new SearchPipelineCheck(engine);
+        check.checkOrdering();
+        check.checkBurst("superseded streamed augmentations", true);
+        check.checkBurst("superseded coalesced generations", false);
+        check.checkSupersededBeforeAiStart();
+        check.pipeline.shutdown();
+        System.out.println("[SearchPipelineCheck] " + (check.failures == 0 ? "All checks passed"
+            : check.failures + " check(s) failed"));
+        System.exit(check.failures == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,47 @@
+package ui;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes UI updates from background threads to the Event Dispatch Thread in batches.
+ * Updates are keyed by slot: a newer update for the same slot replaces a pending one,
+ * and all pending updates run in a single invokeLater instead of one event per update.
+ */
+public class EdtBatcher {
+
+    private final Map<Object, Runnable> pending = new LinkedHashMap<>();
+    private boolean drainScheduled;
+
+    /**
+     * Queue an update for the EDT. Pending updates for the same slot are replaced (last wins).
+     */
+    public void publish(Object slot, Runnable update) {
+        synchronized (pending) {
+            pending.remove(slot);
+            pending.put(slot, update);
+            if (drainScheduled) return;
+            drainScheduled = true;
+        }
+        SwingUtilities.invokeLater(this::drain);
+    }
+
+    private void drain() {
+        List<Runnable> batch;
+        synchronized (pending) {
+            batch = new ArrayList<>(pending.values());
+            pending.clear();
+            drainScheduled = false;
+        }
+        for (Runnable update : batch) {
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                System.err.println("[EdtBatcher] UI update failed: " + e.getMessage());
+            }
+        }
+    }
+}
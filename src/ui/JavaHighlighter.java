@@ -0,0 +1,246 @@
+package ui;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for splitting text into style runs: Java keywords, literals,
+ * comments and annotations inside code, plain style elsewhere.
+ *
+ * Code is the text between ``` fences, or the whole text when the caller says
+ * so (the template tab). A single left-to-right pass with block comment and
+ * text block state carried across lines; adjacent runs of the same style are
+ * merged, so a document built from the runs has few elements to lay out.
+ * Thread-safe; the attribute sets are shared and must not be modified.
+ */
+public final class JavaHighlighter {
+
+    public static final byte PLAIN = 0;
+    public static final byte KEYWORD = 1;
+    public static final byte STRING = 2;
+    public static final byte COMMENT = 3;
+    public static final byte NUMBER = 4;
+    public static final byte ANNOTATION = 5;
+    public static final byte FENCE = 6;
+
+    private static final String FONT = "Consolas";
+    private static final int FONT_SIZE = 11;
+    private static final AttributeSet[] STYLES = {
+        style(null, false, false),
+        style(new Color(127, 0, 85), true, false),
+        style(new Color(42, 0, 255), false, false),
+        style(new Color(63, 127, 95), false, true),
+        style(new Color(9, 134, 88), false, false),
+        style(new Color(100, 100, 100), false, false),
+        style(new Color(150, 150, 150), false, false),
+    };
+
+    private static final Set<String> KEYWORDS = Set.of(
+        "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+        "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+        "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+        "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp",
+        "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void",
+        "volatile", "while", "var", "record", "yield", "true", "false", "null");
+
+    private JavaHighlighter() {
+    }
+
+    /**
+     * Attributes for a style returned in {@link Runs}; shared, never modify.
+     */
+    public static AttributeSet attributes(byte style) {
+        return STYLES[style];
+    }
+
+    /**
+     * Style runs covering all of {@code text}.
+     *
+     * @param allCode treat the whole text as code instead of only fenced blocks
+     */
+    public static Runs highlight(String text, boolean allCode) {
+        Runs runs = new Runs(Math.max(16, text.length() / 16));
+        boolean inCode = allCode;
+        boolean inComment = false;
+        boolean inTextBlock = false;
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int newline = text.indexOf('\n', lineStart);
+            int lineEnd = newline < 0 ? text.length() : newline + 1;
+            if (isFence(text, lineStart, lineEnd)) {
+                runs.add(lineEnd, FENCE);
+                if (!allCode) inCode = !inCode;
+                inComment = false;
+                inTextBlock = false;
+            } else if (!inCode) {
+                runs.add(lineEnd, PLAIN);
+            } else {
+                int state = lexLine(text, lineStart, lineEnd, inComment, inTextBlock, runs);
+                inComment = state == COMMENT;
+                inTextBlock = state == STRING;
+            }
+            lineStart = lineEnd;
+        }
+        return runs;
+    }
+
+    private static boolean isFence(String text, int from, int to) {
+        int i = from;
+        while (i < to && (text.charAt(i) == ' ' || text.charAt(i) == '\t')) i++;
+        return text.startsWith("```", i);
+    }
+
+    /**
+     * Lex one code line into runs.
+     *
+     * @return COMMENT if a block comment, STRING if a text block, is still open at
+     *         the end of the line; PLAIN otherwise
+     */
+    private static int lexLine(String text, int from, int to, boolean inComment, boolean inTextBlock, Runs runs) {
+        int i = from;
+        if (inComment) {
+            int close = text.indexOf("*/", i);
+            if (close < 0 || close + 2 > to) {
+                runs.add(to, COMMENT);
+                return COMMENT;
+            }
+            i = close + 2;
+            runs.add(i, COMMENT);
+        } else if (inTextBlock) {
+            int close = text.indexOf("\"\"\"", i);
+            if (close < 0 || close + 3 > to) {
+                runs.add(to, STRING);
+                return STRING;
+            }
+            i = close + 3;
+            runs.add(i, STRING);
+        }
+        while (i < to) {
+            char c = text.charAt(i);
+            if (c == '/' && i + 1 < to && text.charAt(i + 1) == '/') {
+                runs.add(to, COMMENT);
+                return PLAIN;
+            }
+            if (c == '/' && i + 1 < to && text.charAt(i + 1) == '*') {
+                int close = text.indexOf("*/", i + 2);
+                if (close < 0 || close + 2 > to) {
+                    runs.add(to, COMMENT);
+                    return COMMENT;
+                }
+                i = close + 2;
+                runs.add(i, COMMENT);
+            } else if (c == '"' && text.startsWith("\"\"\"", i)) {
+                int close = text.indexOf("\"\"\"", i + 3);
+                if (close < 0 || close + 3 > to) {
+                    runs.add(to, STRING);
+                    return STRING;
+                }
+                i = close + 3;
+                runs.add(i, STRING);
+            } else if (c == '"' || c == '\'') {
+                i = skipQuoted(text, i, to, c);
+                runs.add(i, STRING);
+            } else if (c == '@' && i + 1 < to && Character.isJavaIdentifierStart(text.charAt(i + 1))) {
+                i = skipIdentifier(text, i + 1, to);
+                runs.add(i, ANNOTATION);
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int end = skipIdentifier(text, i, to);
+                runs.add(end, KEYWORDS.contains(text.substring(i, end)) ? KEYWORD : PLAIN);
+                i = end;
+            } else if (Character.isDigit(c)) {
+                i = skipNumber(text, i, to);
+                runs.add(i, NUMBER);
+            } else {
+                i++;
+                runs.add(i, PLAIN);
+            }
+        }
+        return PLAIN;
+    }
+
+    private static int skipQuoted(String text, int i, int to, char quote) {
+        int j = i + 1;
+        while (j < to) {
+            char c = text.charAt(j);
+            if (c == '\\') {
+                j += 2;
+                continue;
+            }
+            j++;
+            if (c == quote || c == '\n') break;
+        }
+        return Math.min(j, to);
+    }
+
+    private static int skipIdentifier(String text, int i, int to) {
+        while (i < to && Character.isJavaIdentifierPart(text.charAt(i))) i++;
+        return i;
+    }
+
+    private static int skipNumber(String text, int i, int to) {
+        while (i < to) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '_' || c == '.') {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static AttributeSet style(Color color, boolean bold, boolean italic) {
+        SimpleAttributeSet set = new SimpleAttributeSet();
+        StyleConstants.setFontFamily(set, FONT);
+        StyleConstants.setFontSize(set, FONT_SIZE);
+        if (color != null) StyleConstants.setForeground(set, color);
+        if (bold) StyleConstants.setBold(set, true);
+        if (italic) StyleConstants.setItalic(set, true);
+        return set;
+    }
+
+    /**
+     * Consecutive style runs: run i covers [end(i - 1), end(i)) with style(i).
+     */
+    public static final class Runs {
+        private int[] ends;
+        private byte[] styles;
+        private int count;
+
+        Runs(int capacity) {
+            ends = new int[capacity];
+            styles = new byte[capacity];
+        }
+
+        void add(int end, byte style) {
+            if (count > 0 && styles[count - 1] == style) {
+                ends[count - 1] = end;
+                return;
+            }
+            if (count == ends.length) {
+                ends = Arrays.copyOf(ends, count * 2);
+                styles = Arrays.copyOf(styles, count * 2);
+            }
+            ends[count] = end;
+            styles[count] = style;
+            count++;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public int end(int run) {
+            return ends[run];
+        }
+
+        public byte style(int run) {
+            return styles[run];
+        }
+    }
+}
@@ -1,23 +1,31 @@
 package ui;
 
+import ai.CodeCompileGate;
 import ai.GenAIClient;
-import ai.PromptBuilder;
 import engine.AutocompleteEngine;
-import model.AIResponse;
 import model.TabularPatternResult;
-import pattern.DSAPattern;
-import pattern.OfflinePatternEngine.PatternResult;
+import pattern.OfflinePatternEngine;
+import pattern.PrefixCursor;
 import util.InternetConnectivityChecker;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.management.ManagementFactory;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * SOLID - Single Responsibility Principle
  * Responsible ONLY for UI presentation with tab-based interface.
  * Delegates pattern search, AI generation, and connectivity checks to appropriate services.
+ * Searches run through SearchPipeline on a bounded worker pool; results are shown in
+ * a single reused ResultWindow.
+ * The pattern corpus loads in the background while the window is already visible;
+ * searches submitted before it is indexed wait in the pipeline, off the EDT.
+ * Below the search box a PatternBrowser lists the whole corpus by category.
  * 
  * Tab Structure:
  * 1. Overview Tab - Pattern name, category, aliases
@@ -28,9 +36,13 @@ import java.util.Optional;
  */
 public class MainUI {
 
-    private static boolean isOnline = false;
-    private static final AutocompleteEngine engine = new AutocompleteEngine();
+    private static volatile boolean isOnline = false;
+    private static final AutocompleteEngine engine = new AutocompleteEngine(OfflinePatternEngine.warmUpAsync());
+    private static final SearchPipeline pipeline = new SearchPipeline(engine);
     private static JLabel modeLabel;
+    private static ResultWindow resultWindow;
+    private static final int MAX_SUGGESTIONS = 5;
+    private static final int HOT_PATTERNS = 32;
 
     public static void main(String[] args) {
         SwingUtilities.invokeLater(MainUI::initializeUI);
@@ -57,23 +69,105 @@ public class MainUI {
         searchBtn.setFont(new Font("Arial", Font.PLAIN, 12));
         searchBtn.addActionListener(e -> handleSearch(searchInput));
 
+        // Whole-corpus list; double-click opens a pattern like a search for its key
+        PatternBrowser browser = new PatternBrowser(engine, MainUI::openPattern);
+
+        // Live pattern-key suggestions while typing, once the trie is built
+        JLabel suggestionLabel = new JLabel("Loading patterns...");
+        suggestionLabel.setFont(new Font("Arial", Font.ITALIC, 11));
+        engine.whenIndexed().whenComplete((indexed, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                // Otherwise the label would read "Loading patterns..." forever
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                System.err.println("[MainUI] Patterns failed to load: " + cause.getMessage());
+                suggestionLabel.setText("⚠ Patterns failed to load: " + cause.getMessage());
+                suggestionLabel.setForeground(Color.RED);
+                return;
+            }
+            System.out.println("[MainUI] Ready for first query " + sinceLaunch() + " ms after launch");
+            suggestionLabel.setText(" ");
+            installLiveSuggestions(searchInput, suggestionLabel);
+            browser.load();
+        }));
+        engine.whenReady().whenComplete((ready, error) -> {
+            if (error != null) return;    // same failure as whenIndexed, shown above
+            System.out.println("[MainUI] All search stages ready " + sinceLaunch() + " ms after launch");
+            // Offline tabs of the patterns searched most often, from the query log
+            TabularPatternResult.prewarm(engine.getHotPatterns(HOT_PATTERNS));
+            // After the corpus, so javac's warm-up does not delay the first query
+            CodeCompileGate.warmUpAsync();
+        });
+
+        JPanel actionPanel = new JPanel(new BorderLayout(5, 5));
+        actionPanel.add(suggestionLabel, BorderLayout.NORTH);
+        actionPanel.add(searchBtn, BorderLayout.SOUTH);
+
         // Top panel with mode indicator and search
         JPanel topPanel = new JPanel(new BorderLayout(5, 5));
         topPanel.add(modeLabel, BorderLayout.NORTH);
         topPanel.add(new JScrollPane(searchInput), BorderLayout.CENTER);
-        topPanel.add(searchBtn, BorderLayout.SOUTH);
+        topPanel.add(actionPanel, BorderLayout.SOUTH);
         topPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
         mainFrame.setLayout(new BorderLayout());
         mainFrame.add(topPanel, BorderLayout.NORTH);
+        mainFrame.add(browser.getComponent(), BorderLayout.CENTER);
 
         mainFrame.setSize(1000, 750);
         mainFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         mainFrame.setLocationRelativeTo(null);
+        mainFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                System.out.println("[MainUI] First frame " + sinceLaunch() + " ms after launch"
+                    + " (patterns " + engine.getReadiness() + ")");
+            }
+        });
         mainFrame.setVisible(true);
     }
 
+    /**
+     * Milliseconds since JVM start, for startup phase timings.
+     */
+    private static long sinceLaunch() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    /**
+     * Update suggestions on every edit through a PrefixCursor, so each keystroke
+     * moves one trie node instead of searching from the root.
+     * Spaces map to underscores: "sliding win" suggests SLIDING_WINDOW.
+     */
+    private static void installLiveSuggestions(JTextArea searchInput, JLabel suggestionLabel) {
+        PrefixCursor cursor = engine.openPatternCursor();
+        searchInput.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { update(); }
+            @Override public void removeUpdate(DocumentEvent e) { update(); }
+            @Override public void changedUpdate(DocumentEvent e) { }
+
+            private void update() {
+                String text = searchInput.getText().trim();
+                if (text.startsWith("Enter") || text.indexOf('\n') >= 0) {
+                    cursor.reset();
+                    suggestionLabel.setText(" ");
+                    return;
+                }
+                cursor.moveTo(text.replace(' ', '_'));
+                List<String> matches = cursor.matches(MAX_SUGGESTIONS);
+                suggestionLabel.setText(matches.isEmpty() ? " " : "Suggestions: " + String.join(", ", matches));
+            }
+        });
+    }
+
     private static void checkInternetStatus(JLabel modeLabel) {
+        // A local model backend needs no internet; AI augmentation stays on when air-gapped
+        if (!GenAIClient.getBackend().requiresInternet()) {
+            isOnline = true;
+            modeLabel.setText("🖥 AI-AUGMENTED MODE (Local model)");
+            modeLabel.setForeground(new Color(34, 139, 34)); // Green
+            return;
+        }
+
         InternetConnectivityChecker.checkInternetAsync(available -> {
             isOnline = available;
             SwingUtilities.invokeLater(() -> {
@@ -96,102 +190,17 @@ public class MainUI {
             return;
         }
 
-        // Create output window with tabbed interface
-        JFrame outputFrame = new JFrame("📚 Pattern Details");
-        JTabbedPane tabbedPane = new JTabbedPane();
-        
-        // Create placeholder tabs
-        JTextArea overviewArea = createTextArea();
-        JTextArea explanationArea = createTextArea();
-        JTextArea templateArea = createTextArea();
-        JTextArea complexityArea = createTextArea();
-        JTextArea aiArea = createTextArea();
-        
-        overviewArea.setText("Loading pattern information...");
-        
-        tabbedPane.addTab("📘 Overview", new JScrollPane(overviewArea));
-        tabbedPane.addTab("🧠 Explanation", new JScrollPane(explanationArea));
-        tabbedPane.addTab("💻 Java Template", new JScrollPane(templateArea));
-        tabbedPane.addTab("⏱ Complexity", new JScrollPane(complexityArea));
-        
-        outputFrame.add(tabbedPane);
-        outputFrame.setSize(1000, 700);
-        outputFrame.setLocationRelativeTo(null);
-        outputFrame.setVisible(true);
-
-        // Search on background thread
-        new Thread(() -> {
-            try {
-                List<PatternResult> results = engine.searchOfflinePatterns(userInput);
-                
-                if (!results.isEmpty()) {
-                    DSAPattern pattern = results.get(0).pattern;
-                    String aiInsights = null;
-                    
-                    // If online, fetch AI augmentation
-                    if (isOnline) {
-                        String augmentPrompt = PromptBuilder.buildPatternAugmentationPrompt(userInput, pattern);
-                        Optional<String> aiResponse = GenAIClient.generateCode(augmentPrompt);
-                        if (aiResponse.isPresent()) {
-                            aiInsights = aiResponse.get();
-                        }
-                    }
-                    
-                    // Create tabular result
-                    TabularPatternResult tabResult = TabularPatternResult.from(pattern, aiInsights, isOnline);
-                    
-                    SwingUtilities.invokeLater(() -> {
-                        overviewArea.setText(tabResult.getOverviewTab());
-                        explanationArea.setText(tabResult.getExplanationTab());
-                        templateArea.setText(tabResult.getJavaTemplateTab());
-                        complexityArea.setText(tabResult.getComplexityTab());
-                        
-                        // Add AI tab only if online and insights available
-                        if (isOnline && tabResult.getAiInsightsTab() != null) {
-                            tabbedPane.addTab("🤖 AI Insights", new JScrollPane(aiArea));
-                            aiArea.setText(tabResult.getAiInsightsTab());
-                        }
-                        
-                        outputFrame.setTitle("📚 " + pattern.getName() + " - " + 
-                            (isOnline ? "🌐 Online" : "🔒 Offline"));
-                    });
-                } else if (isOnline) {
-                    // No offline pattern, try AI
-                    String prompt = PromptBuilder.buildPrompt(userInput, engine.getAlgorithmHints(userInput));
-                    Optional<String> aiResponse = GenAIClient.generateCode(prompt);
-                    
-                    if (aiResponse.isPresent()) {
-                        SwingUtilities.invokeLater(() -> {
-                            overviewArea.setText("Pattern not found in offline repository.");
-                            templateArea.setText(aiResponse.get());
-                            outputFrame.setTitle("🤖 AI Generated Response");
-                        });
-                    } else {
-                        SwingUtilities.invokeLater(() -> {
-                            overviewArea.setText("Pattern not found and AI generation failed.");
-                        });
-                    }
-                } else {
-                    SwingUtilities.invokeLater(() -> {
-                        overviewArea.setText("Pattern not found in offline repository.\n" +
-                            "Go online to use AI-augmented search.");
-                    });
-                }
-            } catch (Exception e) {
-                SwingUtilities.invokeLater(() -> {
-                    overviewArea.setText("Error: " + e.getMessage());
-                    e.printStackTrace();
-                });
-            }
-        }).start();
+        openPattern(userInput);
+    }
+
+    /**
+     * Search for a query or a pattern key picked in the browser.
+     */
+    private static void openPattern(String query) {
+        // One details window, reused; the pipeline cancels any search still in flight
+        if (resultWindow == null) {
+            resultWindow = new ResultWindow();
+        }
+        pipeline.submit(query, isOnline, resultWindow);
     }
-    
-    private static JTextArea createTextArea() {
-        JTextArea textArea = new JTextArea();
-        textArea.setEditable(false);
-        textArea.setFont(new Font("Consolas", Font.PLAIN, 11));
-        textArea.setLineWrap(true);
-        textArea.setWrapStyleWord(true);
-        textArea.setMargin(new Insets(10, 10, 10, 10));
-        return textArea;
-    }}
\ No newline at end of file
+}
@@ -0,0 +1,260 @@
+package ui;
+
+import engine.AutocompleteEngine;
+import pattern.DSAPattern;
+import util.WorkerPools;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for browsing the whole corpus: a pattern list filtered by
+ * category, with the selected pattern's detail beside it.
+ *
+ * The list is virtual: the model is an array of the engine's own pattern objects
+ * and rows have a fixed size, so JList paints only the visible rows and never
+ * measures the others. Rows show only the name and category, which stay on the
+ * heap; the bulky detail (template, mistakes) is read on selection, off the EDT,
+ * through a small LRU. Stays responsive at 100k patterns.
+ */
+public class PatternBrowser {
+
+    private static final String ALL_CATEGORIES = "All categories";
+    private static final int DETAIL_CACHE_SIZE = 64;
+    private static final int ROW_HEIGHT = 20;
+    private static final int ROW_WIDTH = 380;
+
+    private final AutocompleteEngine engine;
+    private final Consumer<String> onOpen;
+    private final JPanel panel = new JPanel(new BorderLayout(5, 5));
+    private final JComboBox<String> categoryBox = new JComboBox<>();
+    private final JLabel countLabel = new JLabel("Loading patterns...");
+    private final PatternListModel model = new PatternListModel();
+    private final JList<DSAPattern> list = new JList<>(model);
+    private final JTextArea detailArea = new JTextArea();
+    private final ExecutorService loader = WorkerPools.newBoundedExecutor("pattern-browser", 1);
+    private final EdtBatcher edt = new EdtBatcher();
+
+    private final Map<String, String> details = new LinkedHashMap<String, String>(32, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > DETAIL_CACHE_SIZE;
+        }
+    };
+    private DSAPattern[] allPatterns = new DSAPattern[0];
+    private volatile DSAPattern wanted;
+
+    /**
+     * @param onOpen called with a pattern key on double-click or Enter
+     */
+    public PatternBrowser(AutocompleteEngine engine, Consumer<String> onOpen) {
+        this.engine = engine;
+        this.onOpen = onOpen;
+
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // Fixed row size: JList lays out in O(1) instead of rendering every row to measure it
+        list.setFixedCellHeight(ROW_HEIGHT);
+        list.setFixedCellWidth(ROW_WIDTH);
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> l, Object value, int index,
+                                                          boolean selected, boolean focused) {
+                DSAPattern p = (DSAPattern) value;
+                return super.getListCellRendererComponent(l, p.getName() + "  ·  " + p.getCategory(),
+                    index, selected, focused);
+            }
+        });
+        list.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting() && list.getSelectedValue() != null) {
+                showDetail(list.getSelectedValue());
+            }
+        });
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) openSelected();
+            }
+        });
+        list.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "open");
+        list.getActionMap().put("open", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                openSelected();
+            }
+        });
+
+        detailArea.setEditable(false);
+        detailArea.setFont(new Font("Consolas", Font.PLAIN, 11));
+        detailArea.setMargin(new Insets(10, 10, 10, 10));
+        detailArea.setText("Select a pattern to see its template; double-click to open it.");
+
+        categoryBox.setEnabled(false);
+        categoryBox.addActionListener(e -> filter((String) categoryBox.getSelectedItem()));
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.add(new JLabel("Browse:"));
+        filterPanel.add(categoryBox);
+        filterPanel.add(countLabel);
+
+        JSplitPane split = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT,
+            new JScrollPane(list), new JScrollPane(detailArea));
+        split.setResizeWeight(0.4);
+
+        panel.add(filterPanel, BorderLayout.NORTH);
+        panel.add(split, BorderLayout.CENTER);
+        panel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+    }
+
+    public JComponent getComponent() {
+        return panel;
+    }
+
+    /**
+     * Fill the list from the engine. Call once the corpus is indexed; sorting and
+     * collecting categories happen off the EDT.
+     */
+    public void load() {
+        loader.execute(() -> {
+            long start = System.nanoTime();
+            List<DSAPattern> patterns = engine.getAllPatterns();
+            DSAPattern[] sorted = patterns.toArray(new DSAPattern[0]);
+            Arrays.sort(sorted, Comparator.comparing(DSAPattern::getKey));
+            TreeSet<String> categories = new TreeSet<>();
+            for (DSAPattern p : sorted) {
+                if (p.getCategory() != null) categories.add(p.getCategory());
+            }
+            System.out.println("[PatternBrowser] Listed " + sorted.length + " patterns in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+            edt.publish("load", () -> {
+                allPatterns = sorted;
+                categoryBox.addItem(ALL_CATEGORIES);
+                categories.forEach(categoryBox::addItem);
+                categoryBox.setEnabled(true);
+                categoryBox.setSelectedItem(ALL_CATEGORIES);
+            });
+        });
+    }
+
+    private void filter(String category) {
+        if (category == null) return;
+        DSAPattern[] source = allPatterns;
+        if (category.equals(ALL_CATEGORIES)) {
+            show(source);
+            return;
+        }
+        loader.execute(() -> {
+            List<DSAPattern> matching = new ArrayList<>();
+            for (DSAPattern p : source) {
+                if (category.equals(p.getCategory())) matching.add(p);
+            }
+            DSAPattern[] rows = matching.toArray(new DSAPattern[0]);
+            edt.publish("filter", () -> {
+                if (category.equals(categoryBox.getSelectedItem())) show(rows);
+            });
+        });
+    }
+
+    private void show(DSAPattern[] rows) {
+        list.clearSelection();
+        model.setRows(rows);
+        list.ensureIndexIsVisible(0);
+        countLabel.setText(rows.length + " patterns");
+    }
+
+    /**
+     * Detail from the LRU, or read and rendered on the loader thread. Rows the
+     * user has already scrolled past by the time their turn comes are skipped.
+     */
+    private void showDetail(DSAPattern pattern) {
+        wanted = pattern;
+        String cached;
+        synchronized (details) {
+            cached = details.get(pattern.getKey());
+        }
+        if (cached != null) {
+            setDetail(cached);
+            return;
+        }
+        loader.execute(() -> {
+            if (wanted != pattern) return;
+            String detail = renderDetail(pattern);
+            synchronized (details) {
+                details.put(pattern.getKey(), detail);
+            }
+            edt.publish("detail", () -> {
+                if (wanted == pattern) setDetail(detail);
+            });
+        });
+    }
+
+    private void setDetail(String detail) {
+        detailArea.setText(detail);
+        detailArea.setCaretPosition(0);
+    }
+
+    private void openSelected() {
+        DSAPattern selected = list.getSelectedValue();
+        if (selected != null) onOpen.accept(selected.getKey());
+    }
+
+    private static String renderDetail(DSAPattern p) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(p.getName()).append("  (").append(p.getKey()).append(")\n");
+        sb.append("Category: ").append(p.getCategory());
+        if (p.getDifficulty() != null && !p.getDifficulty().isEmpty()) {
+            sb.append("    Difficulty: ").append(p.getDifficulty());
+        }
+        sb.append("\n\n");
+        appendSection(sb, "⏱️ TIME COMPLEXITY", p.getTimeComplexity());
+        appendSection(sb, "💾 SPACE COMPLEXITY", p.getSpaceComplexity());
+        appendSection(sb, "WHEN TO USE", p.getWhenToUse());
+        appendSection(sb, "JAVA TEMPLATE", p.getJavaTemplate());
+        appendSection(sb, "⚠️ COMMON MISTAKES", p.getCommonMistakes());
+        return sb.toString();
+    }
+
+    private static void appendSection(StringBuilder sb, String title, String text) {
+        if (text == null || text.isEmpty()) return;
+        sb.append(title).append(":\n").append(text).append("\n\n");
+    }
+
+    /**
+     * List model over an array the browser owns; nothing is copied per row.
+     */
+    private static final class PatternListModel extends AbstractListModel<DSAPattern> {
+        private static final long serialVersionUID = 1L;
+
+        private DSAPattern[] rows = new DSAPattern[0];
+
+        void setRows(DSAPattern[] rows) {
+            int previous = this.rows.length;
+            this.rows = new DSAPattern[0];
+            if (previous > 0) fireIntervalRemoved(this, 0, previous - 1);
+            this.rows = rows;
+            if (rows.length > 0) fireIntervalAdded(this, 0, rows.length - 1);
+        }
+
+        @Override
+        public int getSize() {
+            return rows.length;
+        }
+
+        @Override
+        public DSAPattern getElementAt(int index) {
+            return rows[index];
+        }
+    }
+}
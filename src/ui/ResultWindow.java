@@ -0,0 +1,330 @@
+package ui;
+
+import ai.ResponseSection;
+import model.TabularPatternResult;
+import pattern.DSAPattern;
+import pattern.OfflinePatternEngine.PatternResult;
+
+import javax.swing.*;
+import javax.swing.text.DefaultCaret;
+import ui.StyledTextRenderer.Mode;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The single pattern details window, reused across searches.
+ * Implements SearchPipeline.View; all methods run on the EDT.
+ *
+ * When a search matches several patterns, a drop-down switches between them.
+ * Every candidate's tabs are kept as they arrive, so switching redraws from
+ * memory instead of waiting for another search.
+ * Tab text goes through a StyledTextRenderer: Java is highlighted off the EDT and
+ * long answers are added in chunks, so a large response never freezes the window.
+ */
+public class ResultWindow implements SearchPipeline.View {
+
+    private static final String AI_TAB_TITLE = "🤖 AI Insights";
+
+    private final JFrame frame = new JFrame("📚 Pattern Details");
+    private final JTabbedPane tabbedPane = new JTabbedPane();
+    private final StyledTextRenderer renderer = new StyledTextRenderer();
+    private final JTextPane overviewArea = createTextPane();
+    private final JTextPane explanationArea = createTextPane();
+    private final JTextPane templateArea = createTextPane();
+    private final JTextPane complexityArea = createTextPane();
+    private final JTextPane aiArea = createTextPane();
+    private final JScrollPane aiTab = new JScrollPane(aiArea);
+    private static final int OFFLINE_TAB_COUNT = 4;
+
+    // One tab per AI answer section, created as the section starts streaming
+    private final Map<ResponseSection, JTextPane> sectionAreas = new EnumMap<>(ResponseSection.class);
+    private final Map<ResponseSection, JScrollPane> sectionTabs = new EnumMap<>(ResponseSection.class);
+    private final Map<JTextPane, String> shown = new HashMap<>();
+    private boolean aiPlaceholder;
+
+    // Matches of the current search; index 0 is the top match, the one that streams
+    private final List<Candidate> candidates = new ArrayList<>();
+    private final JComboBox<String> candidateBox = new JComboBox<>();
+    private final JPanel candidateBar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+    private int selected;
+    private boolean refreshingBox;
+
+    public ResultWindow() {
+        tabbedPane.addTab("📘 Overview", new JScrollPane(overviewArea));
+        tabbedPane.addTab("🧠 Explanation", new JScrollPane(explanationArea));
+        tabbedPane.addTab("💻 Java Template", new JScrollPane(templateArea));
+        tabbedPane.addTab("⏱ Complexity", new JScrollPane(complexityArea));
+
+        candidateBar.add(new JLabel("Matching pattern:"));
+        candidateBar.add(candidateBox);
+        candidateBar.setVisible(false);
+        candidateBox.addActionListener(e -> {
+            if (!refreshingBox && candidateBox.getSelectedIndex() >= 0) select(candidateBox.getSelectedIndex());
+        });
+
+        frame.add(candidateBar, BorderLayout.NORTH);
+        frame.add(tabbedPane, BorderLayout.CENTER);
+        frame.setSize(1000, 700);
+        frame.setLocationRelativeTo(null);
+    }
+
+    @Override
+    public void showLoading(String query) {
+        clear();
+        show(overviewArea, "Loading pattern information...");
+        frame.setTitle("📚 Pattern Details");
+        frame.setVisible(true);
+        frame.toFront();
+    }
+
+    @Override
+    public void showOffline(DSAPattern pattern, TabularPatternResult tabs, boolean aiPending) {
+        candidates.add(new Candidate(pattern, tabs, aiPending));
+        selected = 0;
+        refreshCandidateBox();
+        showCandidateOffline(candidates.get(0));
+        if (aiPending) {
+            showAiPlaceholder();
+        }
+    }
+
+    @Override
+    public void showAlternatives(List<PatternResult> alternatives, List<TabularPatternResult> tabs,
+                                 boolean aiPending) {
+        for (int i = 0; i < alternatives.size(); i++) {
+            candidates.add(new Candidate(alternatives.get(i).pattern, tabs.get(i), aiPending));
+        }
+        refreshCandidateBox();
+    }
+
+    @Override
+    public void showAiSection(ResponseSection section, String text) {
+        if (candidates.isEmpty()) return;
+        Candidate top = candidates.get(0);
+        top.streamed.put(section, text);
+        if (selected == 0) {
+            showSection(section, text);
+        }
+    }
+
+    private void showSection(ResponseSection section, String text) {
+        if (section == null) {
+            if (tabbedPane.indexOfComponent(aiTab) < 0) {
+                tabbedPane.addTab(AI_TAB_TITLE, aiTab);
+            }
+            aiPlaceholder = false;
+            update(aiArea, text);
+            return;
+        }
+        if (aiPlaceholder) {
+            tabbedPane.remove(aiTab);
+            aiPlaceholder = false;
+        }
+        update(sectionArea(section), text);
+    }
+
+    @Override
+    public void showAiInsights(DSAPattern pattern, TabularPatternResult tabs) {
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate candidate = candidates.get(i);
+            if (candidate.pattern != pattern) continue;
+            candidate.tabs = tabs;
+            candidate.aiPending = false;
+            candidate.streamed.clear();
+            refreshCandidateBox();
+            if (i == selected) {
+                showFinalAi(tabs);
+            }
+            return;
+        }
+    }
+
+    private void showFinalAi(TabularPatternResult tabs) {
+        // Final text is highlighted whole; while streaming, tails were appended plain
+        for (Map.Entry<ResponseSection, String> section : tabs.getAiSections().entrySet()) {
+            show(sectionArea(section.getKey()), section.getValue());
+        }
+        if (tabs.getAiInsightsTab() != null) {
+            setAiTab(tabs.getAiInsightsTab());
+        } else {
+            tabbedPane.remove(aiTab);
+        }
+        aiPlaceholder = false;
+    }
+
+    @Override
+    public void showAiOnly(String response) {
+        show(overviewArea, "Pattern not found in offline repository.");
+        show(templateArea, response);
+        frame.setTitle("🤖 AI Generated Response");
+    }
+
+    @Override
+    public void showMessage(String message) {
+        show(overviewArea, message);
+    }
+
+    /**
+     * Redraw the window for another candidate, staying on the same kind of tab.
+     */
+    private void select(int index) {
+        if (index == selected || index >= candidates.size()) return;
+        String tabTitle = tabbedPane.getSelectedIndex() >= 0
+            ? tabbedPane.getTitleAt(tabbedPane.getSelectedIndex()) : null;
+        selected = index;
+        Candidate candidate = candidates.get(index);
+
+        clearAi();
+        showCandidateOffline(candidate);
+        if (!candidate.aiPending) {
+            showFinalAi(candidate.tabs);
+        } else if (candidate.streamed.isEmpty()) {
+            showAiPlaceholder();
+        } else {
+            for (ResponseSection section : ResponseSection.values()) {
+                String text = candidate.streamed.get(section);
+                if (text != null) showSection(section, text);
+            }
+            if (candidate.streamed.containsKey(null)) showSection(null, candidate.streamed.get(null));
+        }
+
+        int tab = tabTitle != null ? tabbedPane.indexOfTab(tabTitle) : -1;
+        tabbedPane.setSelectedIndex(tab >= 0 ? tab : 0);
+    }
+
+    private void showCandidateOffline(Candidate candidate) {
+        TabularPatternResult tabs = candidate.tabs;
+        show(overviewArea, tabs.getOverviewTab());
+        show(explanationArea, tabs.getExplanationTab());
+        renderer.render(templateArea, tabs.getJavaTemplateTab(), Mode.CODE);
+        show(complexityArea, tabs.getComplexityTab());
+        frame.setTitle("📚 " + candidate.pattern.getName() + " - " + (tabs.isOnline() ? "🌐 Online" : "🔒 Offline"));
+    }
+
+    private void showAiPlaceholder() {
+        setAiTab("Generating AI insights...");
+        aiPlaceholder = true;
+    }
+
+    private void refreshCandidateBox() {
+        refreshingBox = true;
+        candidateBox.removeAllItems();
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate candidate = candidates.get(i);
+            String status = candidate.aiPending ? "  ⏳ AI pending"
+                : candidate.hasAi() ? "  🤖 AI ready" : "";
+            candidateBox.addItem((i + 1) + ". " + candidate.pattern.getName() + status);
+        }
+        if (selected < candidates.size()) candidateBox.setSelectedIndex(selected);
+        refreshingBox = false;
+        candidateBar.setVisible(candidates.size() > 1);
+    }
+
+    private void setAiTab(String text) {
+        if (tabbedPane.indexOfComponent(aiTab) < 0) {
+            tabbedPane.addTab(AI_TAB_TITLE, aiTab);
+        }
+        show(aiArea, text);
+    }
+
+    /**
+     * Tab for a section, inserted after the offline tabs in section order.
+     */
+    private JTextPane sectionArea(ResponseSection section) {
+        JTextPane area = sectionAreas.get(section);
+        if (area == null) {
+            area = createTextPane();
+            // Appends must not drag the view to the end while the user reads from the top
+            ((DefaultCaret) area.getCaret()).setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
+            sectionAreas.put(section, area);
+        }
+        JScrollPane tab = sectionTabs.computeIfAbsent(section, s -> new JScrollPane(sectionAreas.get(s)));
+        if (tabbedPane.indexOfComponent(tab) < 0) {
+            int index = OFFLINE_TAB_COUNT;
+            for (ResponseSection earlier : ResponseSection.values()) {
+                if (earlier == section) break;
+                JScrollPane other = sectionTabs.get(earlier);
+                if (other != null && tabbedPane.indexOfComponent(other) >= 0) index++;
+            }
+            tabbedPane.insertTab(section.tabTitle(), null, tab, null, index);
+        }
+        return area;
+    }
+
+    /**
+     * Streamed text only grows, so append the new tail instead of re-rendering the
+     * whole pane; fall back to a full render when earlier text changed (e.g. a banner).
+     */
+    private void update(JTextPane area, String text) {
+        String previous = shown.get(area);
+        if (previous != null && text.startsWith(previous)) {
+            renderer.append(area, text.substring(previous.length()));
+            shown.put(area, text);
+        } else {
+            show(area, text);
+        }
+    }
+
+    private void show(JTextPane area, String text) {
+        renderer.render(area, text == null ? "" : text, Mode.TEXT);
+        shown.put(area, text == null ? "" : text);
+    }
+
+    private void clear() {
+        show(overviewArea, "");
+        show(explanationArea, "");
+        show(templateArea, "");
+        show(complexityArea, "");
+        candidates.clear();
+        selected = 0;
+        refreshCandidateBox();
+        clearAi();
+    }
+
+    private void clearAi() {
+        show(aiArea, "");
+        tabbedPane.remove(aiTab);
+        for (JScrollPane tab : sectionTabs.values()) {
+            tabbedPane.remove(tab);
+        }
+        for (JTextPane area : sectionAreas.values()) {
+            show(area, "");
+        }
+        shown.clear();
+        aiPlaceholder = false;
+    }
+
+    /**
+     * One matching pattern and everything received for it so far.
+     */
+    private static final class Candidate {
+        final DSAPattern pattern;
+        TabularPatternResult tabs;      // offline tabs, replaced by the final AI tabs
+        boolean aiPending;
+        // Sections streamed so far (top match only), replayed when switching back mid-stream
+        final Map<ResponseSection, String> streamed = new HashMap<>();
+
+        Candidate(DSAPattern pattern, TabularPatternResult tabs, boolean aiPending) {
+            this.pattern = pattern;
+            this.tabs = tabs;
+            this.aiPending = aiPending;
+        }
+
+        boolean hasAi() {
+            return tabs.getAiInsightsTab() != null || !tabs.getAiSections().isEmpty();
+        }
+    }
+
+    // Styled panes wrap long lines at word boundaries, as the text areas did
+    private static JTextPane createTextPane() {
+        JTextPane textPane = new JTextPane();
+        textPane.setEditable(false);
+        textPane.setFont(new Font("Consolas", Font.PLAIN, 11));
+        textPane.setMargin(new Insets(10, 10, 10, 10));
+        return textPane;
+    }
+}
@@ -0,0 +1,367 @@
+package ui;
+
+import ai.CodeCompileGate;
+import ai.GenAIClient;
+import ai.PromptBuilder;
+import ai.ResponseSection;
+import ai.SectionStreamParser;
+import engine.AutocompleteEngine;
+import model.TabularPatternResult;
+import pattern.DSAPattern;
+import pattern.OfflinePatternEngine.PatternResult;
+import util.Settings;
+import util.WorkerPools;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Runs a search as two stages on a bounded worker pool:
+ *   1. OFFLINE - pattern lookup, published to the view as soon as it is ready
+ *   2. AI      - optional augmentation, streamed: each answer section (solution,
+ *                walkthrough, ...) fills its own tab while the model is writing;
+ *                Java blocks are compile-checked and the tab is flagged.
+ *                The runner-up matches (top-k) are augmented alongside, so the
+ *                view can switch candidates without another round trip
+ * A new search supersedes the previous one: its stages are cancelled and
+ * anything they produce afterwards is dropped instead of reaching the view.
+ */
+public class SearchPipeline {
+
+    /**
+     * Receives search results. All methods are called on the EDT.
+     */
+    public interface View {
+        void showLoading(String query);
+        void showOffline(DSAPattern pattern, TabularPatternResult tabs, boolean aiPending);
+        /**
+         * Runner-up matches after the one passed to showOffline, with their offline
+         * tabs ({@code tabs.get(i)} belongs to {@code alternatives.get(i)}); when AI
+         * is on, each one's insights arrive later through showAiInsights.
+         */
+        void showAlternatives(List<PatternResult> alternatives, List<TabularPatternResult> tabs,
+                              boolean aiPending);
+        /**
+         * Streamed text of one AI answer section so far; null section means text
+         * outside any section (the general AI tab).
+         */
+        void showAiSection(ResponseSection section, String text);
+        void showAiInsights(DSAPattern pattern, TabularPatternResult tabs);
+        void showAiOnly(String response);
+        void showMessage(String message);
+    }
+
+    private static final int MAX_WORKERS = 4;
+
+    // Matches offered per search (and augmented when online). Default: top match only,
+    // since every extra match is one more model request against the backend's rate limit
+    private static final int TOP_K = Settings.intSetting("DSA_AUGMENT_TOP_K", 1);
+
+    // Batcher slots: later updates for the same slot replace earlier pending ones.
+    // Loading has its own slot and is a search's first update, so its results and
+    // messages always queue behind it and can never replace it
+    private static final String SLOT_LOADING = "loading";
+    private static final String SLOT_STATUS = "status";
+    private static final String SLOT_OFFLINE = "offline";
+    private static final String SLOT_AI = "ai";
+    private static final String SLOT_ALTERNATIVES = "alternatives";
+
+    private final AutocompleteEngine engine;
+    private final ExecutorService executor;
+    private final EdtBatcher edt = new EdtBatcher();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<Search> current = new AtomicReference<>();
+    private final CodeCompileGate codeGate = new CodeCompileGate();
+
+    public SearchPipeline(AutocompleteEngine engine) {
+        this(engine, WorkerPools.newBoundedExecutor("search", MAX_WORKERS));
+    }
+
+    public SearchPipeline(AutocompleteEngine engine, ExecutorService executor) {
+        this.engine = engine;
+        this.executor = executor;
+    }
+
+    /**
+     * Start a search, cancelling whichever search is still running.
+     */
+    public void submit(String query, boolean aiEnabled, View view) {
+        generation.incrementAndGet();
+        Search search = new Search();
+        Search previous = current.getAndSet(search);
+        if (previous != null) {
+            previous.cancel();
+        }
+
+        publishIfCurrent(search, SLOT_LOADING, () -> view.showLoading(query));
+
+        CompletableFuture<List<PatternResult>> offline =
+            search.track(CompletableFuture.supplyAsync(() -> engine.searchOfflinePatterns(query), executor));
+        offline.whenComplete((results, error) -> {
+            if (!isCurrent(search)) return;
+            if (error != null) {
+                publishError(search, view, error);
+            } else if (!results.isEmpty()) {
+                offlineStage(search, query, results, aiEnabled, view);
+            } else if (aiEnabled) {
+                aiOnlyStage(search, query, view);
+            } else {
+                publishIfCurrent(search, SLOT_STATUS, () -> view.showMessage(
+                    "Pattern not found in offline repository.\nGo online to use AI-augmented search."));
+            }
+        });
+    }
+
+    private void offlineStage(Search search, String query, List<PatternResult> results, boolean aiEnabled,
+                              View view) {
+        PatternResult top = results.get(0);
+        DSAPattern pattern = top.pattern;
+        TabularPatternResult offlineTabs = TabularPatternResult.from(pattern, null, aiEnabled);
+        publishIfCurrent(search, SLOT_OFFLINE, () -> view.showOffline(pattern, offlineTabs, aiEnabled));
+
+        List<PatternResult> alternatives = List.copyOf(results.subList(1, Math.min(results.size(), TOP_K)));
+        if (!alternatives.isEmpty()) {
+            // Rendered here like the top match's tabs: rendering may inflate templates, not EDT work
+            List<TabularPatternResult> alternativeTabs = alternatives.stream()
+                .map(alternative -> TabularPatternResult.from(alternative.pattern, null, aiEnabled))
+                .toList();
+            publishIfCurrent(search, SLOT_ALTERNATIVES,
+                () -> view.showAlternatives(alternatives, alternativeTabs, aiEnabled));
+        }
+
+        if (!aiEnabled) return;
+
+        String augmentPrompt = PromptBuilder.buildPatternAugmentationPrompt(query, pattern);
+        SectionStream sections = new SectionStream(search, view, true);
+        AtomicInteger nextAlternative = new AtomicInteger();
+        CompletableFuture<Optional<String>> ai =
+            search.track(GenAIClient.generateCodeStreamingAsync(augmentPrompt, sections::feed));
+        ai.whenComplete((aiResponse, error) -> {
+            if (!isCurrent(search)) return;
+            String aiInsights = error == null ? aiResponse.orElse(null) : null;
+            top.appendAiResponse(aiInsights);
+            TabularPatternResult tabs = sections.finish(pattern, aiInsights);
+            publishIfCurrent(search, SLOT_AI, () -> view.showAiInsights(pattern, tabs));
+            // The top match's permit is free again: one more lane for the alternatives
+            augmentNext(search, query, alternatives, nextAlternative, view);
+        });
+
+        // Alternatives share the backend's concurrency budget with the streamed top
+        // match: they start on the permits it leaves free, so it never waits for them
+        int lanes = Math.min(alternatives.size(), GenAIClient.getBackend().maxConcurrency() - 1);
+        for (int i = 0; i < lanes; i++) {
+            augmentNext(search, query, alternatives, nextAlternative, view);
+        }
+    }
+
+    /**
+     * Augment the next alternative not yet started; each completion starts the
+     * following one, so a lane keeps at most one request in flight.
+     */
+    private void augmentNext(Search search, String query, List<PatternResult> alternatives,
+                             AtomicInteger next, View view) {
+        if (!isCurrent(search)) return;
+        int index = next.getAndIncrement();
+        if (index >= alternatives.size()) return;
+
+        PatternResult candidate = alternatives.get(index);
+        DSAPattern pattern = candidate.pattern;
+        CompletableFuture<Optional<String>> ai = search.track(GenAIClient.generateCodeAsync(
+            PromptBuilder.buildPatternAugmentationPrompt(query, pattern)));
+        ai.whenComplete((aiResponse, error) -> {
+            if (!isCurrent(search)) return;
+            String aiInsights = error == null ? aiResponse.orElse(null) : null;
+            candidate.appendAiResponse(aiInsights);
+            TabularPatternResult tabs = new SectionStream(search, view, false).complete(pattern, aiInsights);
+            publishIfCurrent(search, SLOT_ALTERNATIVES + ":" + index, () -> view.showAiInsights(pattern, tabs));
+            augmentNext(search, query, alternatives, next, view);
+        });
+    }
+
+    private void aiOnlyStage(Search search, String query, View view) {
+        String prompt = PromptBuilder.buildPrompt(query, engine.getAlgorithmHints(query));
+        CompletableFuture<Optional<String>> ai = search.track(GenAIClient.generateCodeAsync(prompt));
+        ai.whenComplete((aiResponse, error) -> {
+            if (!isCurrent(search)) return;
+            if (error == null && aiResponse.isPresent()) {
+                String checked = codeGate.check(aiResponse.get()).banner() + aiResponse.get();
+                publishIfCurrent(search, SLOT_AI, () -> view.showAiOnly(checked));
+            } else {
+                publishIfCurrent(search, SLOT_STATUS, () -> view.showMessage("Pattern not found and AI generation failed."));
+            }
+        });
+    }
+
+    private void publishIfCurrent(Search search, String slot, Runnable update) {
+        if (!isCurrent(search)) return;
+        // Re-check on the EDT: a newer search may have started while the update was queued
+        edt.publish(slot, () -> {
+            if (isCurrent(search)) update.run();
+        });
+    }
+
+    private void publishError(Search search, View view, Throwable error) {
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        cause.printStackTrace();
+        publishIfCurrent(search, SLOT_STATUS, () -> view.showMessage("Error: " + cause.getMessage()));
+    }
+
+    private boolean isCurrent(Search search) {
+        return current.get() == search && !search.cancelled;
+    }
+
+    /**
+     * Compile-gate cache statistics.
+     */
+    public String getCodeGateStats() {
+        return codeGate.getStats();
+    }
+
+    /**
+     * Number of searches started so far (superseded ones included).
+     */
+    public long searchesStarted() {
+        return generation.get();
+    }
+
+    public void shutdown() {
+        Search search = current.getAndSet(null);
+        if (search != null) search.cancel();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Routes one streamed AI answer into per-section tabs. Chunks arrive on the AI
+     * thread; each section's text is read under the lock when its EDT update runs,
+     * so a burst of chunks costs one repaint per batch. A stream that is not live
+     * only splits a complete answer (the alternatives) and publishes nothing.
+     */
+    private final class SectionStream implements SectionStreamParser.Listener {
+        private final Search search;
+        private final View view;
+        private final boolean live;
+        private final SectionStreamParser parser = new SectionStreamParser(this);
+        private final Map<ResponseSection, StringBuilder> texts = new EnumMap<>(ResponseSection.class);
+        private final StringBuilder unsectioned = new StringBuilder();
+        private volatile String solutionBanner = "";
+
+        SectionStream(Search search, View view, boolean live) {
+            this.search = search;
+            this.view = view;
+            this.live = live;
+        }
+
+        /**
+         * Chunk callback; abandons the stream once the search is superseded.
+         */
+        void feed(String chunk) {
+            if (!isCurrent(search)) throw new CancellationException("search superseded");
+            parser.feed(chunk);
+        }
+
+        @Override
+        public void onText(ResponseSection section, String text) {
+            synchronized (this) {
+                (section != null ? texts.computeIfAbsent(section, s -> new StringBuilder()) : unsectioned)
+                    .append(text);
+            }
+            publishSection(section);
+        }
+
+        @Override
+        public void onSectionEnd(ResponseSection section) {
+            if (!live || section != ResponseSection.SOLUTION) return;
+            // Compile off the stream thread; the result is cached for finish()
+            String solution = text(section);
+            executor.execute(() -> {
+                solutionBanner = codeGate.check(solution).banner();
+                publishSection(section);
+            });
+        }
+
+        private void publishSection(ResponseSection section) {
+            if (!live) return;
+            publishIfCurrent(search, section != null ? SLOT_AI + ":" + section : SLOT_AI, () ->
+                view.showAiSection(section, section == ResponseSection.SOLUTION
+                    ? solutionBanner + text(section) : text(section)));
+        }
+
+        private synchronized String text(ResponseSection section) {
+            StringBuilder sb = section != null ? texts.get(section) : unsectioned;
+            return sb != null ? sb.toString() : "";
+        }
+
+        /**
+         * Final tabs for an answer received in one piece (null if it failed).
+         */
+        TabularPatternResult complete(DSAPattern pattern, String aiInsights) {
+            if (aiInsights != null) parser.feed(aiInsights);
+            return finish(pattern, aiInsights);
+        }
+
+        /**
+         * Final tabs once the answer is complete (or failed part-way).
+         * Without recognisable sections the whole answer goes to the AI tab as before.
+         */
+        TabularPatternResult finish(DSAPattern pattern, String aiInsights) {
+            parser.finish();
+            Map<ResponseSection, String> sections = new EnumMap<>(ResponseSection.class);
+            String rest;
+            synchronized (this) {
+                for (Map.Entry<ResponseSection, StringBuilder> e : texts.entrySet()) {
+                    sections.put(e.getKey(), e.getValue().toString());
+                }
+                rest = unsectioned.toString();
+            }
+            if (sections.isEmpty()) {
+                String codeCheck = aiInsights != null ? codeGate.check(aiInsights).banner() : null;
+                return TabularPatternResult.from(pattern, aiInsights, codeCheck, true);
+            }
+            String solution = sections.get(ResponseSection.SOLUTION);
+            if (solution != null) {
+                sections.put(ResponseSection.SOLUTION, codeGate.check(solution).banner() + solution);
+            }
+            TabularPatternResult tabs = TabularPatternResult.from(pattern, rest.isBlank() ? null : rest, true);
+            tabs.setAiSections(sections);
+            return tabs;
+        }
+    }
+
+    /**
+     * Handles to the stages of one search, so a newer search can cancel them.
+     */
+    private static final class Search {
+        volatile boolean cancelled;
+        private final List<CompletableFuture<?>> stages = new CopyOnWriteArrayList<>();
+
+        /**
+         * Register a stage. A stage started on a worker after its isCurrent check
+         * may be registered after cancel() has run; it is cancelled here instead,
+         * before it can take a permit or send its request.
+         */
+        <T> CompletableFuture<T> track(CompletableFuture<T> stage) {
+            stages.add(stage);
+            if (cancelled) stage.cancel(true);
+            return stage;
+        }
+
+        void cancel() {
+            cancelled = true;
+            // Interrupts an AI request (or keeps it from starting) unless a coalesced
+            // call is still shared with another caller
+            for (CompletableFuture<?> stage : stages) {
+                stage.cancel(true);
+            }
+        }
+    }
+}
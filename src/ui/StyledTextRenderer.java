@@ -0,0 +1,211 @@
+package ui;
+
+import util.WorkerPools;
+
+import javax.swing.JTextPane;
+import javax.swing.SwingUtilities;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultStyledDocument;
+import javax.swing.text.DefaultStyledDocument.ElementSpec;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * SOLID - Single Responsibility Principle
+ * Responsible ONLY for getting text into text panes without stalling the EDT.
+ *
+ * Highlighting (JavaHighlighter) and element building happen on a background
+ * thread, into a DefaultStyledDocument no component is showing yet; the EDT only
+ * swaps the finished document in. Long text is split at line ends into chunks of
+ * about CHUNK_CHARS: the first chunk is in the swapped-in document, the rest are
+ * prebuilt element specs inserted one chunk per EDT event, so input and painting
+ * interleave with the layout of a large answer instead of waiting for all of it.
+ *
+ * A newer render or clear of the same pane supersedes older work still queued.
+ * Streamed tails appended while a render is in flight are held back and added
+ * after its last chunk, so nothing arrives out of order. All public methods must
+ * be called on the EDT.
+ */
+public class StyledTextRenderer {
+
+    /**
+     * What to highlight: fenced ``` blocks only, or the whole text as Java.
+     */
+    public enum Mode {
+        TEXT, CODE
+    }
+
+    // Below this the hand-off costs more than rendering in place
+    private static final int INLINE_LIMIT = 2_048;
+    private static final int CHUNK_CHARS = 4_096;
+    private static final String STATE_KEY = "StyledTextRenderer.state";
+    private static final AttributeSet PARAGRAPH = new SimpleAttributeSet();
+
+    private final ExecutorService worker = WorkerPools.newBoundedExecutor("text-render", 1);
+
+    /**
+     * Replace the pane's text. Short text is rendered immediately; long text
+     * appears when highlighted, then grows chunk by chunk.
+     */
+    public void render(JTextPane pane, String text, Mode mode) {
+        State state = replaceState(pane);
+        if (text.length() <= INLINE_LIMIT) {
+            List<ElementSpec[]> chunks = prepare(text, mode);
+            ChunkDocument document = new ChunkDocument();
+            chunks.forEach(document::append);
+            pane.setDocument(document);
+            return;
+        }
+        state.busy = true;
+        worker.execute(() -> {
+            if (state.stale) return;
+            List<ElementSpec[]> chunks = prepare(text, mode);
+            ChunkDocument document = new ChunkDocument();
+            document.append(chunks.get(0));
+            SwingUtilities.invokeLater(() -> {
+                if (state.stale) return;
+                pane.setDocument(document);
+                appendChunks(pane, state, document, chunks, 1);
+            });
+        });
+    }
+
+    /**
+     * Append unhighlighted text, e.g. the newest tail of a streaming answer.
+     */
+    public void append(JTextPane pane, String tail) {
+        State state = (State) pane.getClientProperty(STATE_KEY);
+        if (state != null && state.busy) {
+            state.tail.append(tail);
+            return;
+        }
+        insertPlain(pane, tail);
+    }
+
+    // One chunk per EDT event; each reschedules the next behind pending paints and input
+    private void appendChunks(JTextPane pane, State state, ChunkDocument document,
+                              List<ElementSpec[]> chunks, int next) {
+        if (state.stale || pane.getDocument() != document) return;
+        if (next < chunks.size()) {
+            document.append(chunks.get(next));
+            SwingUtilities.invokeLater(() -> appendChunks(pane, state, document, chunks, next + 1));
+            return;
+        }
+        state.busy = false;
+        if (state.tail.length() > 0) {
+            insertPlain(pane, state.tail.toString());
+            state.tail.setLength(0);
+        }
+    }
+
+    private static void insertPlain(JTextPane pane, String text) {
+        try {
+            pane.getDocument().insertString(pane.getDocument().getLength(), text,
+                JavaHighlighter.attributes(JavaHighlighter.PLAIN));
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static State replaceState(JTextPane pane) {
+        State previous = (State) pane.getClientProperty(STATE_KEY);
+        if (previous != null) previous.stale = true;
+        State state = new State();
+        pane.putClientProperty(STATE_KEY, state);
+        return state;
+    }
+
+    /**
+     * Highlight and cut into chunks of element specs, one paragraph per line.
+     * Each chunk but the last ends at a line break, so chunks can be appended one
+     * after another.
+     */
+    static List<ElementSpec[]> prepare(String text, Mode mode) {
+        JavaHighlighter.Runs runs = JavaHighlighter.highlight(text, mode == Mode.CODE);
+        List<ElementSpec[]> chunks = new ArrayList<>();
+        List<ElementSpec> chunk = new ArrayList<>();
+        int chunkStart = 0;
+        int pos = 0;
+        for (int r = 0; r < runs.count(); r++) {
+            int end = runs.end(r);
+            AttributeSet attributes = JavaHighlighter.attributes(runs.style(r));
+            while (pos < end) {
+                int newline = text.indexOf('\n', pos);
+                int stop = newline < 0 || newline >= end ? end : newline + 1;
+                // ElementSpec copies the whole array it is given, so give it just this piece
+                char[] piece = text.substring(pos, stop).toCharArray();
+                chunk.add(new ElementSpec(attributes, ElementSpec.ContentType, piece, 0, piece.length));
+                pos = stop;
+                if (piece[piece.length - 1] != '\n') continue;
+                chunk.add(new ElementSpec(null, ElementSpec.EndTagType));
+                chunk.add(new ElementSpec(PARAGRAPH, ElementSpec.StartTagType));
+                if (pos - chunkStart >= CHUNK_CHARS) {
+                    chunks.add(chunk.toArray(new ElementSpec[0]));
+                    chunk = new ArrayList<>();
+                    chunkStart = pos;
+                }
+            }
+        }
+        if (!chunk.isEmpty() || chunks.isEmpty()) {
+            chunks.add(chunk.toArray(new ElementSpec[0]));
+        }
+        return chunks;
+    }
+
+    /**
+     * Styled document that takes prebuilt element specs at its end.
+     * All share one StyleContext, so they share attribute sets and Font instances
+     * instead of each building its own, which makes layout about a third cheaper.
+     * (Documents are built off the EDT through its synchronized attribute
+     * methods; fonts are only resolved by views, on the EDT.)
+     */
+    static final class ChunkDocument extends DefaultStyledDocument {
+        private static final long serialVersionUID = 1L;
+        private static final StyleContext STYLES = new StyleContext();
+
+        ChunkDocument() {
+            super(STYLES);
+        }
+
+        void append(ElementSpec[] specs) {
+            // A bulk insert cannot leave text in the paragraph holding the final newline,
+            // so content after the last line break goes in as plain inserts
+            int lines = specs.length;
+            while (lines > 0 && specs[lines - 1].getType() == ElementSpec.ContentType) lines--;
+            try {
+                if (lines > 0) {
+                    int end = getLength();
+                    ElementSpec[] bulk = Arrays.copyOf(specs, lines);
+                    if (end > 0 && getText(end - 1, 1).charAt(0) == '\n') {
+                        // At a line start the first line would join the previous paragraph
+                        bulk = new ElementSpec[lines + 2];
+                        bulk[0] = new ElementSpec(null, ElementSpec.EndTagType);
+                        bulk[1] = new ElementSpec(PARAGRAPH, ElementSpec.StartTagType);
+                        System.arraycopy(specs, 0, bulk, 2, lines);
+                    }
+                    insert(end, bulk);
+                }
+                for (int i = lines; i < specs.length; i++) {
+                    insertString(getLength(), new String(specs[i].getArray(), specs[i].getOffset(),
+                        specs[i].getLength()), specs[i].getAttributes());
+                }
+            } catch (BadLocationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Render in progress for one pane; replaced (and marked stale) by the next.
+     */
+    private static final class State {
+        volatile boolean stale;
+        boolean busy;
+        final StringBuilder tail = new StringBuilder();
+    }
+}
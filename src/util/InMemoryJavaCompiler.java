@@ -0,0 +1,197 @@
+package util;
+
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Compiles Java source held in Strings to class bytes held in memory, using the
+ * JDK's javax.tools compiler. Nothing is written to disk.
+ *
+ * The standard file manager is opened once and reused (it caches the platform
+ * class path), so repeated compiles skip that setup; compiles are serialized
+ * because the file manager is not thread-safe.
+ * Requires a JDK at runtime; {@link #isAvailable()} is false on a plain JRE.
+ */
+public class InMemoryJavaCompiler {
+
+    private static volatile InMemoryJavaCompiler shared;
+
+    private final JavaCompiler compiler;
+    private final StandardJavaFileManager standardFileManager;
+    private final List<String> options;
+
+    /**
+     * @param options javac options, e.g. {@code -proc:none}
+     */
+    public InMemoryJavaCompiler(String... options) {
+        this.compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No system Java compiler (running on a JRE instead of a JDK?)");
+        }
+        this.standardFileManager = compiler.getStandardFileManager(null, Locale.ROOT, null);
+        this.options = List.of(options);
+    }
+
+    /**
+     * Process-wide instance with annotation processing off and warnings suppressed.
+     */
+    public static InMemoryJavaCompiler shared() {
+        InMemoryJavaCompiler instance = shared;
+        if (instance == null) {
+            synchronized (InMemoryJavaCompiler.class) {
+                instance = shared;
+                if (instance == null) {
+                    instance = new InMemoryJavaCompiler("-proc:none", "-nowarn", "-g:none");
+                    shared = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    public static boolean isAvailable() {
+        return ToolProvider.getSystemJavaCompiler() != null;
+    }
+
+    /**
+     * Compile one compilation unit. {@code unitName} is the file name without
+     * ".java"; it must match the public top-level class if there is one.
+     */
+    public Result compile(String unitName, String source) {
+        return compile(Collections.singletonMap(unitName, source));
+    }
+
+    /**
+     * Compile several compilation units together (unit name -> source).
+     */
+    public synchronized Result compile(Map<String, String> sources) {
+        List<JavaFileObject> units = new ArrayList<>(sources.size());
+        for (Map.Entry<String, String> entry : sources.entrySet()) {
+            units.add(new SourceFile(entry.getKey(), entry.getValue()));
+        }
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        MemoryFileManager fileManager = new MemoryFileManager(standardFileManager);
+
+        long start = System.nanoTime();
+        boolean success = compiler.getTask(null, fileManager, diagnostics, options, null, units).call();
+        long micros = (System.nanoTime() - start) / 1000;
+
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+            if (d.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add("line " + d.getLineNumber() + ": " + d.getMessage(Locale.ROOT));
+            }
+        }
+        return new Result(success, errors, fileManager.classes(), micros);
+    }
+
+    /**
+     * Outcome of one compile: error diagnostics and, on success, the class bytes.
+     */
+    public static final class Result {
+        public final boolean success;
+        public final List<String> errors;
+        public final long compileMicros;
+        private final Map<String, byte[]> classes;
+
+        Result(boolean success, List<String> errors, Map<String, byte[]> classes, long compileMicros) {
+            this.success = success;
+            this.errors = Collections.unmodifiableList(errors);
+            this.classes = classes;
+            this.compileMicros = compileMicros;
+        }
+
+        /**
+         * Binary names of every class produced (including nested classes).
+         */
+        public Set<String> classNames() {
+            return Collections.unmodifiableSet(classes.keySet());
+        }
+
+        /**
+         * A fresh loader for the compiled classes; each call isolates static state.
+         */
+        public ClassLoader newClassLoader(ClassLoader parent) {
+            if (!success) {
+                throw new IllegalStateException("Compilation failed: " + errors);
+            }
+            return new MemoryClassLoader(classes, parent);
+        }
+    }
+
+    private static final class SourceFile extends SimpleJavaFileObject {
+        private final String source;
+
+        SourceFile(String unitName, String source) {
+            super(URI.create("string:///" + unitName.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+
+    private static final class ClassFile extends SimpleJavaFileObject {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        ClassFile(String className) {
+            super(URI.create("mem:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return bytes;
+        }
+    }
+
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final Map<String, ClassFile> outputs = new LinkedHashMap<>();
+
+        MemoryFileManager(StandardJavaFileManager delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                   JavaFileObject.Kind kind, FileObject sibling) {
+            ClassFile file = new ClassFile(className);
+            outputs.put(className, file);
+            return file;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The shared standard file manager stays open
+        }
+
+        Map<String, byte[]> classes() {
+            Map<String, byte[]> classes = new HashMap<>();
+            for (Map.Entry<String, ClassFile> entry : outputs.entrySet()) {
+                classes.put(entry.getKey(), entry.getValue().bytes.toByteArray());
+            }
+            return classes;
+        }
+    }
+
+    private static final class MemoryClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+
+        MemoryClassLoader(Map<String, byte[]> classes, ClassLoader parent) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+            if (bytes == null) throw new ClassNotFoundException(name);
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Utility to check internet connectivity for online/offline mode switching.
@@ -19,6 +20,7 @@ public class InternetConnectivityChecker {
         "1.1.1.1:53"       // Cloudflare DNS
     };
     private static final String CONNECTIVITY_CHECK_URL = "https://www.google.com";
+    private static final ExecutorService CHECK_EXECUTOR = WorkerPools.newBoundedExecutor("connectivity-check", 1);
 
     /**
      * Check if internet is available (blocking operation).
@@ -80,10 +82,10 @@ public class InternetConnectivityChecker {
      * Async version - checks connectivity without blocking.
      */
     public static void checkInternetAsync(InternetAvailabilityListener listener) {
-        new Thread(() -> {
+        CHECK_EXECUTOR.execute(() -> {
             boolean available = isInternetAvailable();
             listener.onResult(available);
-        }).start();
+        });
     }
 
     @FunctionalInterface
@@ -57,4 +57,48 @@ public class ResponseParser {
             return response; // Return original if parsing fails
         }
     }
+
+    /**
+     * Extract the text delta from one server-sent event of a streamed chat completion,
+     * i.e. choices[0].delta.content of the "data:" payload.
+     * Returns null for events without content (role announcement, finish reason).
+     */
+    public static String extractStreamDelta(String payload) {
+        if (payload == null) return null;
+        int delta = payload.indexOf("\"delta\"");
+        int contentIndex = payload.indexOf("\"content\"", delta < 0 ? 0 : delta);
+        if (contentIndex < 0) return null;
+
+        int i = payload.indexOf(':', contentIndex + 9) + 1;
+        while (i > 0 && i < payload.length() && Character.isWhitespace(payload.charAt(i))) i++;
+        if (i <= 0 || i >= payload.length() || payload.charAt(i) != '"') {
+            return null;    // "content": null
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (i++; i < payload.length(); i++) {
+            char c = payload.charAt(i);
+            if (c == '"') return sb.toString();
+            if (c != '\\' || i + 1 >= payload.length()) {
+                sb.append(c);
+                continue;
+            }
+            char escaped = payload.charAt(++i);
+            switch (escaped) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    if (i + 4 < payload.length()) {
+                        sb.append((char) Integer.parseInt(payload.substring(i + 1, i + 5), 16));
+                        i += 4;
+                    }
+                    break;
+                default: sb.append(escaped);    // \" \\ \/
+            }
+        }
+        return sb.toString();   // unterminated: keep what was read
+    }
 }
@@ -0,0 +1,32 @@
+package util;
+
+/**
+ * Reads application settings.
+ * Every setting can be given as a -D system property or an environment variable of
+ * the same name; the system property wins. Empty values count as unset.
+ */
+public class Settings {
+
+    private Settings() {
+    }
+
+    public static String setting(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null || value.isEmpty()) {
+            value = System.getenv(name);
+        }
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    /**
+     * Positive int setting; unparsable values fall back to the default.
+     */
+    public static int intSetting(String name, int defaultValue) {
+        try {
+            return Math.max(1, Integer.parseInt(setting(name, String.valueOf(defaultValue))));
+        } catch (NumberFormatException e) {
+            System.err.println("[Settings] Invalid " + name + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+}
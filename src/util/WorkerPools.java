@@ -0,0 +1,138 @@
+package util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Factory for the application's background executors.
+ * Uses virtual threads when the running JVM supports them (Java 21+) and falls back
+ * to daemon platform threads otherwise, so the code still builds and runs on Java 17.
+ * Every pool is bounded: extra work queues instead of spawning more threads.
+ */
+public class WorkerPools {
+
+    private static final boolean VIRTUAL_THREADS = probeVirtualThreads();
+
+    /**
+     * Bounded executor with at most {@code maxThreads} workers. Idle workers time out.
+     */
+    public static ExecutorService newBoundedExecutor(String name, int maxThreads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            maxThreads, maxThreads, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), threadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * One thread per task: a virtual-thread-per-task executor when available. On older JVMs
+     * falls back to a bounded pool of {@code platformFallbackThreads} daemon threads.
+     */
+    public static ExecutorService newPerTaskExecutor(String name, int platformFallbackThreads) {
+        if (VIRTUAL_THREADS) {
+            try {
+                return (ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory(name));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Fall through to platform threads
+            }
+        }
+        return newBoundedExecutor(name, platformFallbackThreads);
+    }
+
+    /**
+     * Complete {@code target} with the result of {@code work} run on {@code executor}.
+     * Unlike CompletableFuture.supplyAsync, cancelling {@code target} is not just
+     * bookkeeping: work that has not started yet is skipped, and running work is
+     * interrupted, so blocking calls (semaphores, sleeps, HTTP) give up early.
+     */
+    public static <T> void completeInterruptibly(CompletableFuture<T> target, Supplier<T> work, Executor executor) {
+        InterruptibleTask<T> task = new InterruptibleTask<>(target, work);
+        target.whenComplete((result, error) -> {
+            if (target.isCancelled()) task.interruptRunner();
+        });
+        try {
+            executor.execute(task);
+        } catch (RuntimeException e) {
+            target.completeExceptionally(e);
+        }
+    }
+
+    private static final class InterruptibleTask<T> implements Runnable {
+        private final CompletableFuture<T> target;
+        private final Supplier<T> work;
+        private Thread runner;    // guarded by this
+
+        InterruptibleTask(CompletableFuture<T> target, Supplier<T> work) {
+            this.target = target;
+            this.work = work;
+        }
+
+        synchronized void interruptRunner() {
+            if (runner != null) runner.interrupt();
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (target.isDone()) return;
+                runner = Thread.currentThread();
+            }
+            try {
+                target.complete(work.get());
+            } catch (Throwable t) {
+                target.completeExceptionally(t);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                }
+                // A cancel that raced the end of the work must not leak into the pool's next task
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * Thread factory producing virtual threads when available, daemon threads otherwise.
+     */
+    public static ThreadFactory threadFactory(String name) {
+        if (VIRTUAL_THREADS) {
+            try {
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+                return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Fall through to platform threads
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + counter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    public static boolean usesVirtualThreads() {
+        return VIRTUAL_THREADS;
+    }
+
+    private static boolean probeVirtualThreads() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return builder != null;
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return false;
+        }
+    }
+}